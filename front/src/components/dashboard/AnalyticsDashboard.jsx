@@ -318,6 +318,7 @@ const AnalyticsDashboard = () => {
                 <Schedule sx={{ color: "purple", mr: 1 }} />
                 <Typography variant="body2">
                   Median: {analytics.operationDurations.medianDuration} min
+                  {" · "}P90: {analytics.operationDurations.p90Duration} min
                 </Typography>
               </Box>
             </CardContent>
@@ -752,16 +753,16 @@ const AnalyticsDashboard = () => {
                         <TableRow key={escale.id}>
                           <TableCell>{escale.id}</TableCell>
                           <TableCell>{escale.navire}</TableCell>
-                          <TableCell>{escale.arrival}</TableCell>
-                          <TableCell>{escale.departure || "In Port"}</TableCell>
+                          <TableCell>{escale.arrivee}</TableCell>
+                          <TableCell>{escale.depart || "In Port"}</TableCell>
                           <TableCell align="right">
                             {escale.operations}
                           </TableCell>
                           <TableCell>
                             <Chip
                               size="small"
-                              label={escale.departure ? "Completed" : "Active"}
-                              color={escale.departure ? "success" : "primary"}
+                              label={escale.status === "EN_COURS" ? "Active" : "Completed"}
+                              color={escale.status === "EN_COURS" ? "primary" : "success"}
                             />
                           </TableCell>
                         </TableRow>
@@ -53,74 +53,81 @@ const PerformanceMonitor = () => {
   const [serverMetricsLastUpdated, setServerMetricsLastUpdated] =
     useState(null);
   const [connectionError, setConnectionError] = useState(null);
+  // Per-endpoint figures of the last stream interval (only endpoints that had traffic)
+  const [liveEndpoints, setLiveEndpoints] = useState([]);
+
+  // Apply one server metrics sample (from polling or from the stream) to the state
+  const applyServerMetrics = useCallback((metrics) => {
+    setServerMetrics(metrics);
+    setServerMetricsLastUpdated(new Date());
+
+    // Update system load with this metric data if possible
+    if (
+      metrics &&
+      (metrics.status === "online" ||
+        metrics.status === "permission-fallback") &&
+      metrics.cpu !== undefined
+    ) {
+      // Update the global metrics state to include this server data
+      setMetrics((prevMetrics) => {
+        if (!prevMetrics) return prevMetrics;
+
+        const systemLoadItem = {
+          timestamp: new Date(),
+          memory: metrics.memory !== undefined ? metrics.memory : 0,
+          cpu: metrics.cpu !== undefined ? metrics.cpu : 0,
+          diskSpace: metrics.diskSpace || { used: 0, total: 100000 },
+          activeConnections: metrics.activeConnections || 0,
+        };
+
+        // Add to system load if needed
+        const systemLoad = [...(prevMetrics.systemLoad || [])];
+        systemLoad.push(systemLoadItem);
+
+        // Keep only the most recent entries
+        if (systemLoad.length > 10) {
+          systemLoad.shift();
+        }
+
+        return {
+          ...prevMetrics,
+          systemLoad,
+        };
+      });
+    }
+
+    // Update connection status based on server response
+    if (
+      metrics.status === "online" ||
+      metrics.status === "permission-fallback"
+    ) {
+      setConnectionError(null);
+    } else if (metrics.status === "connection-error") {
+      setConnectionError(metrics.errorMessage || "Connection error");
+    } else if (metrics.status === "error") {
+      setConnectionError("Server returned an error. Check server logs.");
+    }
+
+    // If we still have no data for CPU or memory, show a warning in console
+    if (metrics.cpu === 0 && metrics.memory === 0) {
+      console.warn(
+        "Server returned zeros for both CPU and memory - possible configuration issue"
+      );
+    }
+  }, []);
 
   // Define fetchServerMetrics first using useCallback to maintain stable reference
   const fetchServerMetrics = useCallback(async () => {
     try {
       const metrics = await performanceService.fetchServerMetrics();
-      setServerMetrics(metrics);
-      setServerMetricsLastUpdated(new Date());
-
-      // Update system load with this metric data if possible
-      if (
-        metrics &&
-        (metrics.status === "online" ||
-          metrics.status === "permission-fallback") &&
-        metrics.cpu !== undefined
-      ) {
-        // Update the global metrics state to include this server data
-        setMetrics((prevMetrics) => {
-          if (!prevMetrics) return prevMetrics;
-
-          const systemLoadItem = {
-            timestamp: new Date(),
-            memory: metrics.memory !== undefined ? metrics.memory : 0,
-            cpu: metrics.cpu !== undefined ? metrics.cpu : 0,
-            diskSpace: metrics.diskSpace || { used: 0, total: 100000 },
-            activeConnections: metrics.activeConnections || 0,
-          };
-
-          // Add to system load if needed
-          const systemLoad = [...(prevMetrics.systemLoad || [])];
-          systemLoad.push(systemLoadItem);
-
-          // Keep only the most recent entries
-          if (systemLoad.length > 10) {
-            systemLoad.shift();
-          }
-
-          return {
-            ...prevMetrics,
-            systemLoad,
-          };
-        });
-      }
-
-      // Update connection status based on server response
-      if (
-        metrics.status === "online" ||
-        metrics.status === "permission-fallback"
-      ) {
-        setConnectionError(null);
-      } else if (metrics.status === "connection-error") {
-        setConnectionError(metrics.errorMessage || "Connection error");
-      } else if (metrics.status === "error") {
-        setConnectionError("Server returned an error. Check server logs.");
-      }
-
-      // If we still have no data for CPU or memory, show a warning in console
-      if (metrics.cpu === 0 && metrics.memory === 0) {
-        console.warn(
-          "Server returned zeros for both CPU and memory - possible configuration issue"
-        );
-      }
+      applyServerMetrics(metrics);
     } catch (error) {
       console.error("Failed to fetch server metrics:", error);
       setConnectionError(
         `Failed to connect to the monitoring service: ${error.message}`
       );
     }
-  }, []);
+  }, [applyServerMetrics]);
 
   // Manual refresh of server metrics
   const handleRefreshServerMetrics = () => {
@@ -135,11 +142,34 @@ const PerformanceMonitor = () => {
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, []);
   
-  // Set up interval to fetch only server metrics every 3 seconds
+  // Receive server metrics from the live stream, poll every 3 seconds only while it is reconnecting
   useEffect(() => {
-    const intervalId = setInterval(fetchServerMetrics, 3000);
-    return () => clearInterval(intervalId);
-  }, [fetchServerMetrics]);
+    let intervalId = null;
+    const unsubscribe = performanceService.subscribeToMetricsStream(
+      (event) => {
+        if (event.system) {
+          applyServerMetrics({ ...event.system, status: "online" });
+        }
+        setLiveEndpoints(event.endpoints || []);
+      },
+      (error) => {
+        console.warn("Metrics stream unavailable, polling until it reconnects:", error);
+        if (!intervalId) {
+          intervalId = setInterval(fetchServerMetrics, 3000);
+        }
+      },
+      () => {
+        if (intervalId) {
+          clearInterval(intervalId);
+          intervalId = null;
+        }
+      }
+    );
+    return () => {
+      unsubscribe();
+      if (intervalId) clearInterval(intervalId);
+    };
+  }, [applyServerMetrics, fetchServerMetrics]);
 
   // Calculate metrics locally
   const calculateMetrics = (apiCalls) => {
@@ -1115,6 +1145,62 @@ const PerformanceMonitor = () => {
         </TableContainer>
       </Paper>
 
+      {/* Live traffic from the metrics stream */}
+      <Paper elevation={2} sx={{ p: 2, mt: 3 }}>
+        <Typography variant="h6" gutterBottom>
+          Live Traffic by Endpoint
+        </Typography>
+        <Divider sx={{ mb: 2 }} />
+        <TableContainer>
+          <Table>
+            <TableHead>
+              <TableRow>
+                <TableCell>Endpoint</TableCell>
+                <TableCell align="right">Requests</TableCell>
+                <TableCell align="right">Throughput</TableCell>
+                <TableCell align="right">Average</TableCell>
+                <TableCell align="right">p99</TableCell>
+                <TableCell align="right">Errors</TableCell>
+              </TableRow>
+            </TableHead>
+            <TableBody>
+              {liveEndpoints.length > 0 ? (
+                liveEndpoints.map((item) => (
+                  <TableRow
+                    key={item.endpoint}
+                    sx={{
+                      backgroundColor:
+                        item.errors > 0 ? "rgba(244, 67, 54, 0.1)" : "inherit",
+                    }}
+                  >
+                    <TableCell component="th" scope="row">
+                      {item.endpoint}
+                    </TableCell>
+                    <TableCell align="right">{item.requests}</TableCell>
+                    <TableCell align="right">
+                      {(item.throughput || 0).toFixed(1)} req/s
+                    </TableCell>
+                    <TableCell align="right">
+                      {formatTime(item.average || 0)}
+                    </TableCell>
+                    <TableCell align="right">{formatTime(item.p99 || 0)}</TableCell>
+                    <TableCell align="right">{item.errors}</TableCell>
+                  </TableRow>
+                ))
+              ) : (
+                <TableRow>
+                  <TableCell colSpan={6} align="center">
+                    <Typography variant="body2" color="textSecondary">
+                      No traffic in the last stream interval
+                    </Typography>
+                  </TableCell>
+                </TableRow>
+              )}
+            </TableBody>
+          </Table>
+        </TableContainer>
+      </Paper>
+
       {/* Performance Alerts */}
       <Paper
         elevation={2}
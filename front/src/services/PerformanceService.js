@@ -249,6 +249,77 @@ class PerformanceService {
     }
   }
 
+  // Subscribe to the server-sent metrics stream.
+  // EventSource cannot send the JWT header, so the stream is read with fetch.
+  // When the stream ends (the server closes it after its timeout) or fails,
+  // onError is called and it reconnects with exponential backoff; onOpen is
+  // called each time it is connected again.
+  // Returns a function that closes the stream.
+  subscribeToMetricsStream(onMetrics, onError, onOpen) {
+    const controller = new AbortController();
+    const initialDelay = 1000;
+    const maxDelay = 60000;
+    let delay = initialDelay;
+    let retryTimer = null;
+
+    const run = async () => {
+      const token = localStorage.getItem("token");
+      const response = await fetch(`${axiosInstance.defaults.baseURL}/monitoring/stream`, {
+        headers: {
+          Accept: "text/event-stream",
+          Authorization: token ? `Bearer ${token}` : "",
+        },
+        credentials: "include",
+        signal: controller.signal,
+      });
+      if (!response.ok || !response.body) {
+        throw new Error(`Metrics stream unavailable (${response.status})`);
+      }
+      delay = initialDelay;
+      if (onOpen) onOpen();
+
+      const reader = response.body.getReader();
+      const decoder = new TextDecoder();
+      let buffer = "";
+      while (true) {
+        const { done, value } = await reader.read();
+        if (done) break;
+        buffer += decoder.decode(value, { stream: true });
+
+        // Events are separated by a blank line
+        let separator;
+        while ((separator = buffer.indexOf("\n\n")) !== -1) {
+          const rawEvent = buffer.slice(0, separator);
+          buffer = buffer.slice(separator + 2);
+          const data = rawEvent
+            .split("\n")
+            .filter((line) => line.startsWith("data:"))
+            .map((line) => line.slice(5))
+            .join("\n");
+          if (data) {
+            onMetrics(JSON.parse(data));
+          }
+        }
+      }
+      throw new Error("Metrics stream closed");
+    };
+
+    const connect = () => {
+      run().catch((error) => {
+        if (controller.signal.aborted) return;
+        if (onError) onError(error);
+        retryTimer = setTimeout(connect, delay);
+        delay = Math.min(delay * 2, maxDelay);
+      });
+    };
+    connect();
+
+    return () => {
+      controller.abort();
+      clearTimeout(retryTimer);
+    };
+  }
+
   // Extract endpoint name from URL
   getEndpointFromUrl(url) {
     if (!url) return "unknown";
@@ -0,0 +1,57 @@
+package com.hamzaelkasmi.stage.cache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entity listener on the tables the analytics dashboard reads. Every write
+ * bumps a global data version, which marks the cached analytics as stale.
+ * Inside a transaction the version is bumped once more after it completes:
+ * a refresh that ran between the flush and the commit still saw the old
+ * rows, and must not be taken as current.
+ * Native SQL and bulk JPQL updates bypass entity listeners; the cache
+ * max-age bounds how long such changes go unnoticed.
+ */
+public class AnalyticsDataListener {
+
+    private static final AtomicLong VERSION = new AtomicLong();
+    // Bound to the transaction once its after-completion bump is registered
+    private static final Object SYNCHRONIZATION_KEY = new Object();
+
+    /**
+     * Current data version
+     */
+    public static long version() {
+        return VERSION.get();
+    }
+
+    /**
+     * Mark the analytics data as changed, for writes that do not go through an entity
+     */
+    public static void dataChanged() {
+        VERSION.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(SYNCHRONIZATION_KEY)) {
+            TransactionSynchronizationManager.bindResource(SYNCHRONIZATION_KEY, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SYNCHRONIZATION_KEY);
+                    VERSION.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void entityChanged(Object entity) {
+        dataChanged();
+    }
+}
@@ -0,0 +1,86 @@
+package com.hamzaelkasmi.stage.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * One cached value tagged with the data version it was computed from.
+ * A current value is returned as is. A stale one (newer data version, or
+ * older than maxAge) is still returned at once while a refresh runs in the
+ * background. Only a cold cache makes the caller wait. Misses and
+ * refreshes are coalesced: at most one load runs at a time, and every
+ * caller waiting meanwhile shares its result.
+ * A failed load is not cached; the next call tries again.
+ */
+public class VersionedSnapshot<T> {
+
+    private record Entry<T>(T value, long version, long loadedAtNanos) {
+    }
+
+    private final LongSupplier dataVersion;
+    private final long maxAgeNanos;
+
+    private volatile Entry<T> current;
+    // Guarded by this
+    private CompletableFuture<T> loading;
+
+    public VersionedSnapshot(LongSupplier dataVersion, long maxAgeNanos) {
+        this.dataVersion = dataVersion;
+        this.maxAgeNanos = maxAgeNanos;
+    }
+
+    /**
+     * Cached value, or the result of the (shared) load when nothing is cached yet.
+     * Callers must not complete or time out the returned future in place: use copy().
+     */
+    public CompletableFuture<T> get(Supplier<CompletableFuture<T>> loader) {
+        Entry<T> entry = current;
+        if (entry == null) {
+            return load(loader);
+        }
+        if (entry.version() != dataVersion.getAsLong() || System.nanoTime() - entry.loadedAtNanos() > maxAgeNanos) {
+            load(loader);
+        }
+        return CompletableFuture.completedFuture(entry.value());
+    }
+
+    /**
+     * Data version of the cached value, or -1 when nothing is cached
+     */
+    public long getVersion() {
+        Entry<T> entry = current;
+        return entry != null ? entry.version() : -1;
+    }
+
+    public void invalidate() {
+        current = null;
+    }
+
+    private synchronized CompletableFuture<T> load(Supplier<CompletableFuture<T>> loader) {
+        if (loading != null) {
+            return loading;
+        }
+        // Read before loading: a write during the load leaves the result stale
+        long version = dataVersion.getAsLong();
+        long loadedAt = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = loader.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        loading = future;
+        future.whenComplete((value, error) -> finished(future, value, error, version, loadedAt));
+        return future;
+    }
+
+    private synchronized void finished(CompletableFuture<T> future, T value, Throwable error, long version, long loadedAt) {
+        if (loading == future) {
+            loading = null;
+        }
+        if (error == null) {
+            current = new Entry<>(value, version, loadedAt);
+        }
+    }
+}
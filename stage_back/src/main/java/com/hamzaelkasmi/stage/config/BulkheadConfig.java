@@ -0,0 +1,29 @@
+package com.hamzaelkasmi.stage.config;
+
+import com.hamzaelkasmi.stage.resilience.Bulkhead;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bulkheads keeping heavy endpoint groups off the Tomcat workers and the
+ * connections used by CRUD traffic.
+ */
+@Configuration
+public class BulkheadConfig {
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadConfig.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead analyticsBulkhead(
+            @Value("${performance.bulkhead.analytics.max-concurrent:3}") int maxConcurrent,
+            @Value("${performance.bulkhead.analytics.queue-size:20}") int queueSize,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        if (maxConcurrent >= connectionPoolSize) {
+            logger.warn("Analytics bulkhead allows {} concurrent tasks but the connection pool has {}: "
+                    + "analytics can still take every connection", maxConcurrent, connectionPoolSize);
+        }
+        return new Bulkhead("analytics", maxConcurrent, queueSize);
+    }
+}
@@ -13,7 +13,7 @@ import java.io.IOException;
  * Custom CORS filter to ensure proper handling of preflight requests
  */
 @Component
-@Order(Ordered.HIGHEST_PRECEDENCE)
+@Order(Ordered.HIGHEST_PRECEDENCE + 1) // Right after RequestTimingFilter
 public class CustomCorsFilter implements Filter {
 
     @Override
@@ -26,7 +26,7 @@ public class CustomCorsFilter implements Filter {
         response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
         response.setHeader("Access-Control-Allow-Headers",
                 "Authorization, Content-Type, Accept, X-Retry-Count, x-retry-count, cache-control, pragma, expires, X-Requested-With");
-        response.setHeader("Access-Control-Expose-Headers", "X-Retry-Count, x-retry-count");
+        response.setHeader("Access-Control-Expose-Headers", "X-Retry-Count, x-retry-count, Retry-After");
         response.setHeader("Access-Control-Allow-Credentials", "true");
         response.setHeader("Access-Control-Max-Age", "3600");
 
@@ -0,0 +1,35 @@
+package com.hamzaelkasmi.stage.config;
+
+import com.hamzaelkasmi.stage.monitoring.MonitoringDataSource;
+import com.hamzaelkasmi.stage.monitoring.SqlMetricsRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in MonitoringDataSource so every JDBC
+ * statement is timed by fingerprint. Can be turned off with
+ * performance.monitoring.sql.datasource-proxy=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "performance.monitoring.sql.datasource-proxy", havingValue = "true", matchIfMissing = true)
+public class DataSourceMonitoringConfig {
+
+    // Static so the post-processor is created before the beans it wraps
+    @Bean
+    public static BeanPostProcessor monitoringDataSourcePostProcessor(ObjectProvider<SqlMetricsRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof MonitoringDataSource)) {
+                    return new MonitoringDataSource(dataSource, registry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.hamzaelkasmi.stage.config;
+
+import com.hamzaelkasmi.stage.monitoring.HibernateSqlListener;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks HibernateSqlListener into Hibernate so each request can report
+ * how many statements it ran and how many entities/collections it loaded.
+ */
+@Configuration
+public class HibernateMonitoringConfig {
+
+    /**
+     * Statement timing: one listener instance per session
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatisticsSessionListener() {
+        return properties -> properties.put("hibernate.session.events.auto", HibernateSqlListener.class.getName());
+    }
+
+    /**
+     * Entity loads and collection fetches: global event listeners, appended after Hibernate's defaults
+     */
+    @Bean
+    public SmartInitializingSingleton sqlStatisticsLoadListeners(EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            HibernateSqlListener listener = new HibernateSqlListener();
+            EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_LOAD, listener);
+            registry.appendListeners(EventType.INIT_COLLECTION, listener);
+        };
+    }
+}
@@ -1,13 +1,29 @@
 package com.hamzaelkasmi.stage.controller;
 
 import com.hamzaelkasmi.stage.dto.analytics.*;
+import com.hamzaelkasmi.stage.resilience.Bulkhead;
 import com.hamzaelkasmi.stage.service.AnalyticsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
+/**
+ * Analytics endpoints. The queries run in the analytics bulkhead, not on the
+ * Tomcat worker: at most a few run at once (bounding the connections they
+ * hold), a few more wait, and the rest get 503 so CRUD traffic keeps its
+ * workers and connections.
+ */
 @RestController
 @RequestMapping("/api/analytics")
 @CrossOrigin(origins = "http://localhost:3000", maxAge = 3600)
@@ -16,6 +32,10 @@ public class AnalyticsController {
     @Autowired
     private AnalyticsService analyticsService;
 
+    @Autowired
+    @Qualifier("analyticsBulkhead")
+    private Bulkhead analyticsBulkhead;
+
     @GetMapping("/test")
     public ResponseEntity<String> testEndpoint() {
         return ResponseEntity.ok("Analytics API is working!");
@@ -23,62 +43,88 @@ public class AnalyticsController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<AnalyticsDTO> getAllAnalytics() {
-        return ResponseEntity.ok(analyticsService.getAllAnalytics());
+    public CompletableFuture<ResponseEntity<AnalyticsDTO>> getAllAnalytics() {
+        // Fans out to the bulkhead itself, one task per section
+        return respond(analyticsService.getAllAnalytics());
     }
 
     @GetMapping("/summary")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<SummaryDTO> getSummaryData() {
-        return ResponseEntity.ok(analyticsService.getSummaryData());
+    public CompletableFuture<ResponseEntity<SummaryDTO>> getSummaryData() {
+        return inBulkhead(analyticsService::getSummaryData);
     }
 
     @GetMapping("/operations-by-type")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<OperationsByTypeDTO[]> getOperationsByType() {
-        return ResponseEntity.ok(analyticsService.getOperationsByType());
+    public CompletableFuture<ResponseEntity<OperationsByTypeDTO[]>> getOperationsByType() {
+        return inBulkhead(analyticsService::getOperationsByType);
     }
 
     @GetMapping("/operations-by-month")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<OperationsByMonthDTO[]> getOperationsByMonth(
+    public CompletableFuture<ResponseEntity<OperationsByMonthDTO[]>> getOperationsByMonth(
             @RequestParam(required = false) Integer year) {
-        return ResponseEntity.ok(analyticsService.getOperationsByMonth(year));
+        return inBulkhead(() -> analyticsService.getOperationsByMonth(year));
     }
 
     @GetMapping("/operation-durations")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<OperationDurationsDTO> getOperationDurations() {
-        return ResponseEntity.ok(analyticsService.getOperationDurations());
+    public CompletableFuture<ResponseEntity<OperationDurationsDTO>> getOperationDurations() {
+        return inBulkhead(analyticsService::getOperationDurations);
     }
 
     @GetMapping("/top-equipes")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<TopEquipeDTO[]> getTopEquipes() {
-        return ResponseEntity.ok(analyticsService.getTopEquipes());
+    public CompletableFuture<ResponseEntity<TopEquipeDTO[]>> getTopEquipes(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return inBulkhead(() -> analyticsService.getTopEquipes(limit, from, to));
     }
 
     @GetMapping("/personnel-utilization")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<PersonnelUtilizationDTO> getPersonnelUtilization() {
-        return ResponseEntity.ok(analyticsService.getPersonnelUtilization());
+    public CompletableFuture<ResponseEntity<PersonnelUtilizationDTO>> getPersonnelUtilization() {
+        return inBulkhead(analyticsService::getPersonnelUtilization);
     }
 
     @GetMapping("/arrets-by-reason")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<ArretsByReasonDTO[]> getArretsByReason() {
-        return ResponseEntity.ok(analyticsService.getArretsByReason());
+    public CompletableFuture<ResponseEntity<ArretsByReasonDTO[]>> getArretsByReason() {
+        return inBulkhead(analyticsService::getArretsByReason);
     }
 
     @GetMapping("/port-utilization")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<PortUtilizationDTO> getPortUtilization() {
-        return ResponseEntity.ok(analyticsService.getPortUtilization());
+    public CompletableFuture<ResponseEntity<PortUtilizationDTO>> getPortUtilization() {
+        return inBulkhead(analyticsService::getPortUtilization);
     }
 
     @GetMapping("/recent-escales")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<RecentEscaleDTO[]> getRecentEscales() {
-        return ResponseEntity.ok(analyticsService.getRecentEscales());
+    public CompletableFuture<ResponseEntity<RecentEscaleDTO[]>> getRecentEscales(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer limit) {
+        return inBulkhead(() -> analyticsService.getRecentEscales(page, limit));
+    }
+
+    private <T> CompletableFuture<ResponseEntity<T>> inBulkhead(Supplier<T> query) {
+        return respond(analyticsBulkhead.submit(query));
+    }
+
+    private <T> CompletableFuture<ResponseEntity<T>> respond(CompletableFuture<T> result) {
+        return result.handle((value, error) -> {
+            if (error == null) {
+                return ResponseEntity.ok(value);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build();
+            }
+            throw error instanceof CompletionException completionException
+                    ? completionException : new CompletionException(error);
+        });
     }
-} 
\ No newline at end of file
+}
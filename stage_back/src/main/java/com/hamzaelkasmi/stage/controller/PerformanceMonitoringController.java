@@ -1,19 +1,51 @@
 package com.hamzaelkasmi.stage.controller;
 
+import com.hamzaelkasmi.stage.model.BulkheadStats;
+import com.hamzaelkasmi.stage.model.ConcurrencyLimitStats;
+import com.hamzaelkasmi.stage.model.ConcurrencyStats;
+import com.hamzaelkasmi.stage.model.FlameGraphNode;
+import com.hamzaelkasmi.stage.model.JfrRecordingStatus;
+import com.hamzaelkasmi.stage.model.MetricsHistoryPoint;
 import com.hamzaelkasmi.stage.model.PerformanceAlert;
 import com.hamzaelkasmi.stage.model.PerformanceMetrics;
+import com.hamzaelkasmi.stage.model.ProfileSummary;
+import com.hamzaelkasmi.stage.model.SqlMetrics;
 import com.hamzaelkasmi.stage.model.SystemMetrics;
+import com.hamzaelkasmi.stage.monitoring.ConnectionPoolMonitor;
+import com.hamzaelkasmi.stage.monitoring.ContinuousProfiler;
+import com.hamzaelkasmi.stage.monitoring.SlowRequestSampler;
+import com.hamzaelkasmi.stage.monitoring.SqlMetricsRegistry;
+import com.hamzaelkasmi.stage.resilience.AdaptiveConcurrencyLimit;
+import com.hamzaelkasmi.stage.resilience.Bulkhead;
+import com.hamzaelkasmi.stage.resilience.ConcurrencyLimiter;
+import com.hamzaelkasmi.stage.service.ConcurrencyService;
+import com.hamzaelkasmi.stage.service.JfrRecordingService;
+import com.hamzaelkasmi.stage.service.MetricsRollupService;
+import com.hamzaelkasmi.stage.service.MetricsStreamService;
 import com.hamzaelkasmi.stage.service.PerformanceMonitoringService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.OperatingSystemMXBean;
 import java.lang.management.RuntimeMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,9 +61,39 @@ public class PerformanceMonitoringController {
     private static final Logger logger = LoggerFactory.getLogger(PerformanceMonitoringController.class);
 
     private final PerformanceMonitoringService monitoringService;
+    private final MetricsStreamService metricsStreamService;
+    private final MetricsRollupService metricsRollupService;
+    private final SqlMetricsRegistry sqlMetricsRegistry;
+    private final ConnectionPoolMonitor connectionPoolMonitor;
+    private final JfrRecordingService jfrRecordingService;
+    private final SlowRequestSampler slowRequestSampler;
+    private final ContinuousProfiler continuousProfiler;
+    private final ConcurrencyService concurrencyService;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final List<Bulkhead> bulkheads;
 
-    public PerformanceMonitoringController(PerformanceMonitoringService monitoringService) {
+    public PerformanceMonitoringController(PerformanceMonitoringService monitoringService,
+                                           MetricsStreamService metricsStreamService,
+                                           MetricsRollupService metricsRollupService,
+                                           SqlMetricsRegistry sqlMetricsRegistry,
+                                           ConnectionPoolMonitor connectionPoolMonitor,
+                                           JfrRecordingService jfrRecordingService,
+                                           SlowRequestSampler slowRequestSampler,
+                                           ContinuousProfiler continuousProfiler,
+                                           ConcurrencyService concurrencyService,
+                                           ConcurrencyLimiter concurrencyLimiter,
+                                           List<Bulkhead> bulkheads) {
         this.monitoringService = monitoringService;
+        this.metricsStreamService = metricsStreamService;
+        this.metricsRollupService = metricsRollupService;
+        this.sqlMetricsRegistry = sqlMetricsRegistry;
+        this.connectionPoolMonitor = connectionPoolMonitor;
+        this.jfrRecordingService = jfrRecordingService;
+        this.slowRequestSampler = slowRequestSampler;
+        this.continuousProfiler = continuousProfiler;
+        this.concurrencyService = concurrencyService;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.bulkheads = bulkheads;
     }
 
     /**
@@ -52,6 +114,194 @@ public class PerformanceMonitoringController {
         return ResponseEntity.ok(monitoringService.getPerformanceMetrics());
     }
 
+    /**
+     * JDBC statement statistics by SQL fingerprint, connection-acquire wait
+     * times and current connection pool usage
+     */
+    @GetMapping("/sql")
+    public ResponseEntity<SqlMetrics> getSqlMetrics() {
+        logger.debug("API call: GET SQL metrics");
+        SqlMetrics metrics = sqlMetricsRegistry.getSqlMetrics();
+        metrics.setPool(connectionPoolMonitor.getPoolStats());
+        return ResponseEntity.ok(metrics);
+    }
+
+    /**
+     * Requests in flight, Tomcat worker pool usage and the Little's law
+     * concurrency (arrival rate x latency), in total and per endpoint
+     */
+    @GetMapping("/concurrency")
+    public ResponseEntity<ConcurrencyStats> getConcurrency() {
+        logger.debug("API call: GET concurrency");
+        return ResponseEntity.ok(concurrencyService.getConcurrency());
+    }
+
+    /**
+     * Current adaptive concurrency limit, in-flight and rejected counts per endpoint group
+     */
+    @GetMapping("/limits")
+    public ResponseEntity<List<ConcurrencyLimitStats>> getConcurrencyLimits() {
+        logger.debug("API call: GET concurrency limits");
+        List<ConcurrencyLimitStats> limits = new ArrayList<>();
+        for (AdaptiveConcurrencyLimit group : concurrencyLimiter.getGroups()) {
+            ConcurrencyLimitStats stats = new ConcurrencyLimitStats();
+            stats.setGroup(group.getName());
+            stats.setLimit(group.getLimit());
+            stats.setInFlight(group.getInFlight());
+            stats.setAccepted(group.getAccepted());
+            stats.setRejected(group.getRejected());
+            stats.setShortLatency(group.getShortLatency());
+            stats.setLongLatency(group.getLongLatency());
+            limits.add(stats);
+        }
+        return ResponseEntity.ok(limits);
+    }
+
+    /**
+     * Running, queued and rejected tasks per bulkhead
+     */
+    @GetMapping("/bulkheads")
+    public ResponseEntity<List<BulkheadStats>> getBulkheads() {
+        logger.debug("API call: GET bulkheads");
+        List<BulkheadStats> result = new ArrayList<>();
+        for (Bulkhead bulkhead : bulkheads) {
+            BulkheadStats stats = new BulkheadStats();
+            stats.setName(bulkhead.getName());
+            stats.setMaxConcurrent(bulkhead.getMaxConcurrent());
+            stats.setActive(bulkhead.getActive());
+            stats.setQueued(bulkhead.getQueued());
+            stats.setRejected(bulkhead.getRejected());
+            result.add(stats);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Live stream of system metrics and per-endpoint deltas (Server-Sent Events).
+     * Replaces polling of /system-metrics and /performance-metrics.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMetrics() {
+        logger.debug("API call: GET metrics stream");
+        return metricsStreamService.subscribe();
+    }
+
+    /**
+     * Stored latency history from the rollup tables, for one endpoint or all.
+     * Defaults to the last hour.
+     */
+    @GetMapping("/history")
+    public ResponseEntity<List<MetricsHistoryPoint>> getHistory(
+            @RequestParam(required = false) String endpoint,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        logger.debug("API call: GET metrics history");
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofHours(1));
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(metricsRollupService.getHistory(endpoint, start, end));
+    }
+
+    /**
+     * Stack samples taken from slow in-flight requests, per endpoint
+     */
+    @GetMapping("/slow-requests")
+    public ResponseEntity<Map<String, Long>> getSlowRequestSamples() {
+        logger.debug("API call: GET slow request samples");
+        return ResponseEntity.ok(slowRequestSampler.getSampleCounts());
+    }
+
+    /**
+     * Flame graph (d3-flame-graph JSON) of where slow requests spent their time,
+     * for one endpoint or all of them
+     */
+    @GetMapping("/slow-requests/flamegraph")
+    public ResponseEntity<FlameGraphNode> getSlowRequestFlameGraph(@RequestParam(required = false) String endpoint) {
+        logger.debug("API call: GET slow request flame graph");
+        FlameGraphNode graph = slowRequestSampler.getFlameGraph(endpoint);
+        return graph != null ? ResponseEntity.ok(graph) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/slow-requests")
+    public ResponseEntity<Void> clearSlowRequestSamples() {
+        logger.debug("API call: DELETE slow request samples");
+        slowRequestSampler.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Hottest methods (self and inclusive) from the continuous CPU profiler, over its rolling window
+     */
+    @GetMapping("/profile")
+    public ResponseEntity<ProfileSummary> getProfile() {
+        logger.debug("API call: GET CPU profile");
+        return ResponseEntity.ok(continuousProfiler.getSummary());
+    }
+
+    /**
+     * The same profile as collapsed stacks ("frame;frame;frame count" per line),
+     * the input format of flamegraph.pl and speedscope
+     */
+    @GetMapping(value = "/profile/collapsed", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getCollapsedProfile() {
+        logger.debug("API call: GET collapsed CPU profile");
+        StringBuilder text = new StringBuilder();
+        continuousProfiler.getCollapsedStacks().forEach((stack, count) ->
+                text.append(stack).append(' ').append(count).append('\n'));
+        return ResponseEntity.ok(text.toString());
+    }
+
+    @GetMapping("/profile/flamegraph")
+    public ResponseEntity<FlameGraphNode> getProfileFlameGraph() {
+        logger.debug("API call: GET CPU profile flame graph");
+        return ResponseEntity.ok(continuousProfiler.getFlameGraph());
+    }
+
+    /**
+     * Start a bounded JFR recording (default settings plus the application
+     * events). The duration is capped by performance.monitoring.jfr.max-duration-seconds.
+     */
+    @PostMapping("/jfr/start")
+    public ResponseEntity<JfrRecordingStatus> startJfrRecording(@RequestParam(required = false) Long durationSeconds)
+            throws IOException, ParseException {
+        logger.info("Starting JFR recording");
+        if (!jfrRecordingService.start(durationSeconds)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(jfrRecordingService.getStatus());
+        }
+        return ResponseEntity.ok(jfrRecordingService.getStatus());
+    }
+
+    @GetMapping("/jfr")
+    public ResponseEntity<JfrRecordingStatus> getJfrStatus() {
+        logger.debug("API call: GET JFR status");
+        return ResponseEntity.ok(jfrRecordingService.getStatus());
+    }
+
+    /**
+     * Stop the recording and download it as a .jfr file (open with JDK Mission Control)
+     */
+    @PostMapping(value = "/jfr/stop", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> stopJfrRecording() throws IOException {
+        logger.info("Stopping JFR recording");
+        Path file = jfrRecordingService.stopAndDump();
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .contentLength(Files.size(file))
+                .body(body);
+    }
+
     /**
      * Get performance alerts
      */
@@ -1,5 +1,7 @@
 package com.hamzaelkasmi.stage.dto.analytics;
 
+import java.util.List;
+
 /**
  * Using Java records as a modern alternative to Lombok
  */
@@ -12,7 +14,8 @@ public record AnalyticsDTO(
     PersonnelUtilizationDTO personnelUtilization,
     ArretsByReasonDTO[] arretsByReason,
     PortUtilizationDTO portUtilization,
-    RecentEscaleDTO[] recentEscales
+    RecentEscaleDTO[] recentEscales,
+    List<String> missingSections // sections that failed or timed out, left empty
 ) {
     // Default constructor for JSON deserialization
     public AnalyticsDTO() {
@@ -25,7 +28,8 @@ public record AnalyticsDTO(
             new PersonnelUtilizationDTO(),
             new ArretsByReasonDTO[0],
             new PortUtilizationDTO(),
-            new RecentEscaleDTO[0]
+            new RecentEscaleDTO[0],
+            List.of()
         );
     }
 } 
\ No newline at end of file
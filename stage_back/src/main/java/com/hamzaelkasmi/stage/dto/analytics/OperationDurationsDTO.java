@@ -6,11 +6,12 @@ package com.hamzaelkasmi.stage.dto.analytics;
 public record OperationDurationsDTO(
     int averageDuration,
     int medianDuration,
+    int p90Duration,
     DurationRangeDTO[] durations
 ) {
     // Default constructor for JSON deserialization
     public OperationDurationsDTO() {
-        this(0, 0, new DurationRangeDTO[0]);
+        this(0, 0, 0, new DurationRangeDTO[0]);
     }
 
     /**
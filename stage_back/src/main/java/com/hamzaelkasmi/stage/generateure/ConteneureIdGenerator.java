@@ -10,12 +10,12 @@ import java.sql.SQLException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class ConteneureIdGenerator implements IdentifierGenerator {
+public class ConteneureIdGenerator extends MonitoredIdGenerator {
 
     private static int counter = -1; // Will be initialized on first use
 
     @Override
-    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+    protected Serializable nextId(SharedSessionContractImplementor session, Object object) {
         // Initialize counter if not done yet or if application was restarted
         if (counter < 0) {
             counter = getHighestContainerIdValue(session) + 1;
@@ -9,13 +9,13 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-public class EnginIdGenerator implements IdentifierGenerator {
+public class EnginIdGenerator extends MonitoredIdGenerator {
 
     public EnginIdGenerator() {
     }
 
     @Override
-    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+    protected Serializable nextId(SharedSessionContractImplementor session, Object object) {
         Connection connection = null;
         try {
             connection = session.getJdbcConnectionAccess().obtainConnection();
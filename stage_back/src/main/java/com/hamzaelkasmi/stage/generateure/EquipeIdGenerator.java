@@ -7,13 +7,13 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
-public class EquipeIdGenerator implements IdentifierGenerator {
+public class EquipeIdGenerator extends MonitoredIdGenerator {
 
     public EquipeIdGenerator() {
     }
 
     @Override
-    public Object generate(SharedSessionContractImplementor session, Object object) {
+    protected Object nextId(SharedSessionContractImplementor session, Object object) {
         Connection connection = null;
         try {
             connection = session.getJdbcConnectionAccess().obtainConnection();
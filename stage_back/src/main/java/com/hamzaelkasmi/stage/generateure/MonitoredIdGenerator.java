@@ -0,0 +1,33 @@
+package com.hamzaelkasmi.stage.generateure;
+
+import com.hamzaelkasmi.stage.monitoring.IdGenerationEvent;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * Base class for the entity ID generators.
+ * Wraps every allocation in an IdGenerationEvent so JFR recordings show
+ * which generator ran, the ID it handed out and how long it took
+ * (including the first-use scan for the highest existing ID).
+ */
+public abstract class MonitoredIdGenerator implements IdentifierGenerator {
+
+    @Override
+    public final Object generate(SharedSessionContractImplementor session, Object object) {
+        IdGenerationEvent event = new IdGenerationEvent();
+        event.begin();
+        Object id = nextId(session, object);
+        event.end();
+        if (event.shouldCommit()) {
+            event.generator = getClass().getSimpleName();
+            event.id = String.valueOf(id);
+            event.commit();
+        }
+        return id;
+    }
+
+    /**
+     * Allocate the next identifier
+     */
+    protected abstract Object nextId(SharedSessionContractImplementor session, Object object);
+}
@@ -11,13 +11,13 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
-public class OperationConteneureIdGenerator implements IdentifierGenerator {
+public class OperationConteneureIdGenerator extends MonitoredIdGenerator {
     private static final String PREFIX = "OPC-";
     private static final int MIN_VALUE = 1;
     private static final int PADDING_LENGTH = 3;
 
     @Override
-    public Object generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+    protected Object nextId(SharedSessionContractImplementor session, Object object) throws HibernateException {
         Connection connection = null;
         try {
             connection = session.getJdbcConnectionAccess().obtainConnection();
@@ -5,12 +5,12 @@ import org.hibernate.id.IdentifierGenerator;
 
 import java.io.Serializable;
 
-public class ShiftIdGenerator implements IdentifierGenerator {
+public class ShiftIdGenerator extends MonitoredIdGenerator {
 
     private static int counter = 1; // Static counter to ensure uniqueness
 
     @Override
-    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+    protected Serializable nextId(SharedSessionContractImplementor session, Object object) {
         // Generate a unique identifier in the format SH-XXX
         return "SH-" + String.format("%03d", counter++);
     }
@@ -11,7 +11,7 @@ import java.io.Serializable;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
-public class SoustraiteureIdGenerator implements IdentifierGenerator {
+public class SoustraiteureIdGenerator extends MonitoredIdGenerator {
 
     private static AtomicInteger counter;
     private static boolean initialized = false;
@@ -57,7 +57,7 @@ public class SoustraiteureIdGenerator implements IdentifierGenerator {
     }
 
     @Override
-    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+    protected Serializable nextId(SharedSessionContractImplementor session, Object object) {
         // Ensure counter is initialized
         if (!initialized) {
             counter = new AtomicInteger(1000); // Safe fallback
@@ -0,0 +1,68 @@
+package com.hamzaelkasmi.stage.interceptors;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletRequest;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs filter bookkeeping at the end of the request rather than at the end
+ * of chain.doFilter. The filters run on the REQUEST dispatch only, and for
+ * an async request (SSE stream, analytics) chain.doFilter returns as soon
+ * as the handler has started it; the work is then deferred to whichever of
+ * complete, error or timeout the async request reaches first.
+ */
+final class AsyncCompletion {
+
+    private AsyncCompletion() {
+    }
+
+    /**
+     * Run the action now, or when the async request started by the chain ends.
+     * Call after chain.doFilter, on the thread that ran it.
+     */
+    static void whenDone(ServletRequest request, Runnable action) {
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new Listener(action));
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Listener implements AsyncListener {
+        private final Runnable action;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        Listener(Runnable action) {
+            this.action = action;
+        }
+
+        private void run() {
+            if (done.compareAndSet(false, true)) {
+                action.run();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Async restarted on a later dispatch: listeners are not carried over
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
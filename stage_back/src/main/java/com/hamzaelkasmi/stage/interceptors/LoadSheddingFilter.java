@@ -0,0 +1,79 @@
+package com.hamzaelkasmi.stage.interceptors;
+
+import com.hamzaelkasmi.stage.resilience.AdaptiveConcurrencyLimit;
+import com.hamzaelkasmi.stage.resilience.ConcurrencyLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Rejects requests with 503 and Retry-After when their endpoint group is at
+ * its adaptive concurrency limit (see ConcurrencyLimiter). Runs after the
+ * CORS filter, so the browser can read the 503, and before security, so a
+ * shed request costs no JWT validation or user lookup.
+ * The latency fed to the limit is measured here, from admission to the end
+ * of the request (async completion included), so the limit keeps working
+ * when monitoring is disabled.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2) // Right after CustomCorsFilter
+public class LoadSheddingFilter implements Filter {
+    private static final Logger logger = LoggerFactory.getLogger(LoadSheddingFilter.class);
+
+    private final ConcurrencyLimiter limiter;
+
+    public LoadSheddingFilter(ConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!limiter.isEnabled() || !(request instanceof HttpServletRequest httpRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        AdaptiveConcurrencyLimit group = limiter.groupFor(httpRequest.getRequestURI());
+        if (group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        int inFlight = group.tryAcquire();
+        if (inFlight < 0) {
+            reject((HttpServletResponse) response, group);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // An async request (analytics) keeps its slot until it completes, and its full latency is the sample
+            AsyncCompletion.whenDone(request, () -> group.release(inFlight, System.nanoTime() - start));
+        }
+    }
+
+    private void reject(HttpServletResponse response, AdaptiveConcurrencyLimit group) throws IOException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Shedding request for group {} at limit {}", group.getName(), group.getLimit());
+        }
+        // By then the requests ahead should have drained
+        long retryAfterSeconds = Math.max(1, (long) Math.ceil(group.getLongLatency() / 1000.0));
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Server busy, retry later\",\"group\":\"" + group.getName() + "\"}");
+    }
+}
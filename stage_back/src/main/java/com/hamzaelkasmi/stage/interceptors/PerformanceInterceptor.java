@@ -1,65 +1,99 @@
 package com.hamzaelkasmi.stage.interceptors;
 
 import com.hamzaelkasmi.stage.model.ApiCallMetric;
+import com.hamzaelkasmi.stage.monitoring.InFlightRequests;
+import com.hamzaelkasmi.stage.monitoring.RequestTiming;
+import com.hamzaelkasmi.stage.monitoring.SqlStatistics;
+import com.hamzaelkasmi.stage.monitoring.ThreadResources;
 import com.hamzaelkasmi.stage.service.PerformanceMonitoringService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.ModelAndView;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
- * Interceptor that tracks API call performance
+ * Interceptor that tracks API call performance.
+ * Timing data travels with the request as attributes (see RequestTiming), so
+ * the measurement starts in RequestTimingFilter and covers every filter,
+ * the handler and the response serialization.
+ * Timed requests are also registered in InFlightRequests while they run,
+ * for the slow-request stack sampler.
  */
 @Component
-public class PerformanceInterceptor implements HandlerInterceptor {
+public class PerformanceInterceptor implements AsyncHandlerInterceptor {
     private static final Logger logger = LoggerFactory.getLogger(PerformanceInterceptor.class);
+    private static final String UNMATCHED_ROUTE = "[unmatched]";
     
     private final PerformanceMonitoringService performanceService;
+    private final InFlightRequests inFlightRequests;
     
-    // Thread-local variables to store request-specific timing data
-    private final ThreadLocal<Long> startTimeHolder = new ThreadLocal<>();
-    
-    public PerformanceInterceptor(PerformanceMonitoringService performanceService) {
+    public PerformanceInterceptor(PerformanceMonitoringService performanceService, InFlightRequests inFlightRequests) {
         this.performanceService = performanceService;
+        this.inFlightRequests = inFlightRequests;
     }
       @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        // Track connection start regardless of monitoring status
-        performanceService.connectionStarted();
-        
         if (!performanceService.isMonitoringEnabled()) {
             return true;
         }
         
-        startTimeHolder.set(System.currentTimeMillis());
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // Second pass after an async handler: the handler phase keeps its original start,
+            // and CPU / allocation restart because this is a different thread
+            if (RequestTiming.get(request, RequestTiming.HANDLER_START) == 0) {
+                return true;
+            }
+        } else {
+            RequestTiming.mark(request, RequestTiming.HANDLER_START);
+        }
+        long filterStart = RequestTiming.get(request, RequestTiming.FILTER_START);
+        inFlightRequests.started(getEndpointFromRequest(request),
+                filterStart > 0 ? filterStart : RequestTiming.get(request, RequestTiming.HANDLER_START));
+        // Per-thread counters; the two boxed start values add a few bytes to every reading
+        long cpuStart = ThreadResources.cpuNanos();
+        long allocatedStart = ThreadResources.allocatedBytes();
+        request.setAttribute(RequestTiming.HANDLER_CPU_START, cpuStart);
+        request.setAttribute(RequestTiming.HANDLER_ALLOCATED_START, allocatedStart);
         return true;
     }
     
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The request continues on another thread, which registers itself on the async dispatch
+        if (RequestTiming.get(request, RequestTiming.HANDLER_START) != 0) {
+            inFlightRequests.finished();
+        }
+    }
+    
     @Override
     public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
         // No action needed here
     }
       @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
-        // Always track connection end regardless of monitoring status
-        performanceService.connectionEnded();
-        
-        if (!performanceService.isMonitoringEnabled()) {
+        if (RequestTiming.get(request, RequestTiming.HANDLER_START) == 0) {
+            // preHandle did not register the request: monitoring was off when it arrived
             return;
         }
+        // Unregister even if monitoring was switched off while the request was in flight
+        inFlightRequests.finished();
         
-        Long startTime = startTimeHolder.get();
-        if (startTime == null) {
+        if (!performanceService.isMonitoringEnabled()) {
             return;
         }
         
         try {
-            long endTime = System.currentTimeMillis();
-            double responseTime = endTime - startTime;
+            long allocatedEnd = ThreadResources.allocatedBytes();
+            long cpuEnd = ThreadResources.cpuNanos();
+            long endNanos = System.nanoTime();
+            RequestTiming.Phases phases = RequestTiming.phases(request, endNanos);
+            double responseTime = phases.totalNanos() / 1_000_000.0;
             
             String endpoint = getEndpointFromRequest(request);
             boolean successful = isSuccessful(response.getStatus());
@@ -72,25 +106,43 @@ public class PerformanceInterceptor implements HandlerInterceptor {
                     method,
                     response.getStatus()
             );
+            SqlStatistics sql = SqlStatistics.of(request);
+            if (sql != null) {
+                metric.setSqlStatements(sql.getStatements());
+                metric.setEntitiesLoaded(sql.getEntitiesLoaded());
+                metric.setCollectionsFetched(sql.getCollectionsFetched());
+                metric.setJdbcTime(sql.getJdbcNanos() / 1_000_000.0);
+                metric.setConnectionHoldTime(sql.getConnectionHoldNanos(endNanos) / 1_000_000.0);
+            }
+            
+            long cpuStart = RequestTiming.get(request, RequestTiming.HANDLER_CPU_START);
+            long allocatedStart = RequestTiming.get(request, RequestTiming.HANDLER_ALLOCATED_START);
+            if (cpuEnd >= 0 && cpuEnd >= cpuStart) {
+                metric.setCpuTime((cpuEnd - cpuStart) / 1_000_000.0);
+            }
+            if (allocatedEnd >= 0 && allocatedEnd >= allocatedStart) {
+                metric.setAllocatedBytes(allocatedEnd - allocatedStart);
+            }
             
-            performanceService.recordApiCall(metric);
+            performanceService.recordApiCall(metric, phases);
             
         } catch (Exception e) {
             logger.error("Error in performance interceptor", e);
-        } finally {
-            // Clean up thread local
-            startTimeHolder.remove();
         }
     }
     
-    private String getEndpointFromRequest(HttpServletRequest request) {
-        String uri = request.getRequestURI();
-        // Remove context path if present
-        String contextPath = request.getContextPath();
-        if (contextPath != null && !contextPath.isEmpty() && uri.startsWith(contextPath)) {
-            uri = uri.substring(contextPath.length());
+    /**
+     * Build the metric key from the matched route template, e.g.
+     * "GET /api/conteneurs/{id}", so path variables do not create a new key
+     * per entity.
+     */
+    static String getEndpointFromRequest(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            // No handler matched (404, rejected before dispatch): do not leak raw URIs into the keys
+            return request.getMethod() + " " + UNMATCHED_ROUTE;
         }
-        return uri;
+        return request.getMethod() + " " + pattern;
     }
     
     private boolean isSuccessful(int statusCode) {
@@ -0,0 +1,86 @@
+package com.hamzaelkasmi.stage.interceptors;
+
+import com.hamzaelkasmi.stage.monitoring.ApiCallEvent;
+import com.hamzaelkasmi.stage.monitoring.InFlightRequests;
+import com.hamzaelkasmi.stage.monitoring.RequestTiming;
+import com.hamzaelkasmi.stage.monitoring.SqlStatistics;
+import com.hamzaelkasmi.stage.service.PerformanceMonitoringService;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Outermost filter: stamps the request start time so that the time spent
+ * in the CORS, security and JWT filters is part of the measured request,
+ * and opens the per-request SQL counters (including the JWT user lookup).
+ * Also emits the ApiCallEvent JFR event around the whole request, and
+ * counts every request in the in-flight total.
+ * When monitoring is disabled nothing is stamped, and the later stages
+ * see an untimed request and skip their work as well.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestTimingFilter implements Filter {
+
+    private final PerformanceMonitoringService performanceService;
+    private final InFlightRequests inFlightRequests;
+
+    public RequestTimingFilter(PerformanceMonitoringService performanceService, InFlightRequests inFlightRequests) {
+        this.performanceService = performanceService;
+        this.inFlightRequests = inFlightRequests;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        // Counted whether or not monitoring is enabled
+        inFlightRequests.requestStarted();
+        try {
+            if (performanceService.isMonitoringEnabled()) {
+                doFilterTimed(request, response, chain);
+            } else {
+                chain.doFilter(request, response);
+            }
+        } finally {
+            // An async request stays in flight until it completes
+            AsyncCompletion.whenDone(request, inFlightRequests::requestEnded);
+        }
+    }
+
+    private void doFilterTimed(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        RequestTiming.mark(request, RequestTiming.FILTER_START);
+        SqlStatistics sql = SqlStatistics.begin();
+        request.setAttribute(SqlStatistics.REQUEST_ATTRIBUTE, sql);
+        // Close to free when no JFR recording is running: the event is never committed
+        ApiCallEvent event = new ApiCallEvent();
+        event.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStatistics.end();
+            // For an async request: once the response is final and its SQL has run
+            AsyncCompletion.whenDone(request, () -> commit(event, request, response, sql));
+        }
+    }
+
+    private static void commit(ApiCallEvent event, ServletRequest request, ServletResponse response, SqlStatistics sql) {
+        event.end();
+        if (event.shouldCommit() && request instanceof HttpServletRequest httpRequest
+                && response instanceof HttpServletResponse httpResponse) {
+            event.endpoint = PerformanceInterceptor.getEndpointFromRequest(httpRequest);
+            event.status = httpResponse.getStatus();
+            event.sqlStatements = sql.getStatements();
+            event.commit();
+        }
+    }
+}
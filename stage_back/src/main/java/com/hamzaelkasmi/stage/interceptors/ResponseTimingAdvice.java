@@ -0,0 +1,36 @@
+package com.hamzaelkasmi.stage.interceptors;
+
+import com.hamzaelkasmi.stage.monitoring.RequestTiming;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marks the moment the controller has returned and the message converter
+ * (Jackson) is about to write the body, separating handler time from
+ * serialization time.
+ */
+@ControllerAdvice
+public class ResponseTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && RequestTiming.get(servletRequest.getServletRequest(), RequestTiming.HANDLER_START) != 0) {
+            RequestTiming.mark(servletRequest.getServletRequest(), RequestTiming.BODY_WRITE_START);
+        }
+        return body;
+    }
+}
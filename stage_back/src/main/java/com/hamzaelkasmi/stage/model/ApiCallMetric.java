@@ -8,7 +8,8 @@ import java.time.Instant;
  * Represents metrics for an API call
  */
 @Entity
-@Table(name = "api_call_metrics")
+@Table(name = "api_call_metrics",
+        indexes = @Index(name = "idx_api_call_metrics_timestamp", columnList = "timestamp"))
 public class ApiCallMetric implements Serializable {
     
     @Id
@@ -33,6 +34,32 @@ public class ApiCallMetric implements Serializable {
     @Column(name = "timestamp")
     private Instant timestamp;
 
+    // SQL work done while serving the request
+    @Column(name = "sql_statements")
+    private int sqlStatements;
+
+    @Column(name = "entities_loaded")
+    private int entitiesLoaded;
+
+    @Column(name = "collections_fetched")
+    private int collectionsFetched;
+
+    // Milliseconds spent executing JDBC statements
+    @Column(name = "jdbc_time")
+    private double jdbcTime;
+
+    // Milliseconds during which the request held a pooled connection
+    @Column(name = "connection_hold_time")
+    private double connectionHoldTime;
+
+    // CPU time (milliseconds) and heap bytes used by the request thread from the controller
+    // to the end of serialization, -1 when the JVM cannot measure them
+    @Column(name = "cpu_time")
+    private double cpuTime = -1;
+
+    @Column(name = "allocated_bytes")
+    private long allocatedBytes = -1;
+
     public ApiCallMetric() {
         this.timestamp = Instant.now();
     }
@@ -92,6 +119,62 @@ public class ApiCallMetric implements Serializable {
         this.timestamp = timestamp;
     }
     
+    public int getSqlStatements() {
+        return sqlStatements;
+    }
+
+    public void setSqlStatements(int sqlStatements) {
+        this.sqlStatements = sqlStatements;
+    }
+
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public void setEntitiesLoaded(int entitiesLoaded) {
+        this.entitiesLoaded = entitiesLoaded;
+    }
+
+    public int getCollectionsFetched() {
+        return collectionsFetched;
+    }
+
+    public void setCollectionsFetched(int collectionsFetched) {
+        this.collectionsFetched = collectionsFetched;
+    }
+
+    public double getJdbcTime() {
+        return jdbcTime;
+    }
+
+    public void setJdbcTime(double jdbcTime) {
+        this.jdbcTime = jdbcTime;
+    }
+
+    public double getConnectionHoldTime() {
+        return connectionHoldTime;
+    }
+
+    public void setConnectionHoldTime(double connectionHoldTime) {
+        this.connectionHoldTime = connectionHoldTime;
+    }
+
+    public double getCpuTime() {
+        return cpuTime;
+    }
+
+    public void setCpuTime(double cpuTime) {
+        this.cpuTime = cpuTime;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
     public Long getId() {
         return id;
     }
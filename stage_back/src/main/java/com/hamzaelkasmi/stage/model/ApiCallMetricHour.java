@@ -0,0 +1,13 @@
+package com.hamzaelkasmi.stage.model;
+
+import jakarta.persistence.*;
+
+/**
+ * API call metrics rolled up per endpoint and hour
+ */
+@Entity
+@Table(name = "api_call_metrics_1h",
+        uniqueConstraints = @UniqueConstraint(name = "uk_api_call_metrics_1h", columnNames = {"endpoint", "bucket_start"}),
+        indexes = @Index(name = "idx_api_call_metrics_1h_bucket", columnList = "bucket_start"))
+public class ApiCallMetricHour extends ApiCallMetricRollup {
+}
@@ -0,0 +1,13 @@
+package com.hamzaelkasmi.stage.model;
+
+import jakarta.persistence.*;
+
+/**
+ * API call metrics rolled up per endpoint and minute
+ */
+@Entity
+@Table(name = "api_call_metrics_1m",
+        uniqueConstraints = @UniqueConstraint(name = "uk_api_call_metrics_1m", columnNames = {"endpoint", "bucket_start"}),
+        indexes = @Index(name = "idx_api_call_metrics_1m_bucket", columnList = "bucket_start"))
+public class ApiCallMetricMinute extends ApiCallMetricRollup {
+}
@@ -0,0 +1,105 @@
+package com.hamzaelkasmi.stage.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Pre-aggregated API call metrics for one endpoint over one time bucket.
+ * The histogram column holds the non-empty latency buckets as
+ * "index:count" pairs (see LatencyHistogram), so percentiles can be
+ * computed for any range by merging rows.
+ */
+@MappedSuperclass
+public abstract class ApiCallMetricRollup implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "endpoint", nullable = false)
+    private String endpoint;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(name = "request_count")
+    private long requestCount;
+
+    @Column(name = "error_count")
+    private long errorCount;
+
+    // Sum of response times in milliseconds
+    @Column(name = "total_response_time")
+    private double totalResponseTime;
+
+    @Column(name = "max_response_time")
+    private double maxResponseTime;
+
+    @Column(name = "histogram", columnDefinition = "TEXT")
+    private String histogram;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(Instant bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    public void setRequestCount(long requestCount) {
+        this.requestCount = requestCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(long errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public double getTotalResponseTime() {
+        return totalResponseTime;
+    }
+
+    public void setTotalResponseTime(double totalResponseTime) {
+        this.totalResponseTime = totalResponseTime;
+    }
+
+    public double getMaxResponseTime() {
+        return maxResponseTime;
+    }
+
+    public void setMaxResponseTime(double maxResponseTime) {
+        this.maxResponseTime = maxResponseTime;
+    }
+
+    public String getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(String histogram) {
+        this.histogram = histogram;
+    }
+}
@@ -1,11 +1,13 @@
 package com.hamzaelkasmi.stage.model;
 
+import com.hamzaelkasmi.stage.cache.AnalyticsDataListener;
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(AnalyticsDataListener.class)
 @Table(name = "arret")
 public class Arret {
 
@@ -0,0 +1,57 @@
+package com.hamzaelkasmi.stage.model;
+
+import java.io.Serializable;
+
+/**
+ * Usage of one bulkhead executor
+ */
+public class BulkheadStats implements Serializable {
+    private String name;
+    private int maxConcurrent; // also the most pooled connections the group can hold
+    private int active;
+    private int queued;
+    private long rejected; // answered with 503
+
+    public BulkheadStats() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+}
@@ -0,0 +1,76 @@
+package com.hamzaelkasmi.stage.model;
+
+import java.io.Serializable;
+
+/**
+ * State of one endpoint group's adaptive concurrency limit.
+ * Latencies are moving averages in milliseconds.
+ */
+public class ConcurrencyLimitStats implements Serializable {
+    private String group;
+    private int limit;
+    private int inFlight;
+    private long accepted;
+    private long rejected; // answered with 503
+    private double shortLatency;
+    private double longLatency; // baseline the short average is compared with
+
+    public ConcurrencyLimitStats() {
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(int inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public double getShortLatency() {
+        return shortLatency;
+    }
+
+    public void setShortLatency(double shortLatency) {
+        this.shortLatency = shortLatency;
+    }
+
+    public double getLongLatency() {
+        return longLatency;
+    }
+
+    public void setLongLatency(double longLatency) {
+        this.longLatency = longLatency;
+    }
+}
@@ -0,0 +1,153 @@
+package com.hamzaelkasmi.stage.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Little's law view of the last sampling interval: the average number of
+ * requests in the system is arrival rate x average latency. Comparing it
+ * with the worker pool size shows how close the server is to queueing.
+ * Rates are per second, latencies in milliseconds.
+ */
+public class ConcurrencyStats implements Serializable {
+    private Instant timestamp;
+    private double intervalSeconds;
+    private int inFlight; // requests inside the application when sampled
+    private double arrivalRate;
+    private double averageLatency;
+    private double concurrency; // arrivalRate x averageLatency
+    private WorkerPoolStats workerPool; // null when not running on Tomcat
+    private double workerUtilization; // concurrency as a percentage of maxThreads
+    private List<EndpointConcurrency> endpoints = new ArrayList<>();
+
+    public ConcurrencyStats() {
+    }
+
+    /**
+     * Little's law figures for one endpoint (completions stand in for arrivals)
+     */
+    public static class EndpointConcurrency implements Serializable {
+        private String endpoint;
+        private long inFlight;
+        private double arrivalRate;
+        private double averageLatency;
+        private double concurrency;
+
+        public EndpointConcurrency() {
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public void setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public long getInFlight() {
+            return inFlight;
+        }
+
+        public void setInFlight(long inFlight) {
+            this.inFlight = inFlight;
+        }
+
+        public double getArrivalRate() {
+            return arrivalRate;
+        }
+
+        public void setArrivalRate(double arrivalRate) {
+            this.arrivalRate = arrivalRate;
+        }
+
+        public double getAverageLatency() {
+            return averageLatency;
+        }
+
+        public void setAverageLatency(double averageLatency) {
+            this.averageLatency = averageLatency;
+        }
+
+        public double getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(double concurrency) {
+            this.concurrency = concurrency;
+        }
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public double getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    public void setIntervalSeconds(double intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(int inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    public void setArrivalRate(double arrivalRate) {
+        this.arrivalRate = arrivalRate;
+    }
+
+    public double getAverageLatency() {
+        return averageLatency;
+    }
+
+    public void setAverageLatency(double averageLatency) {
+        this.averageLatency = averageLatency;
+    }
+
+    public double getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(double concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public WorkerPoolStats getWorkerPool() {
+        return workerPool;
+    }
+
+    public void setWorkerPool(WorkerPoolStats workerPool) {
+        this.workerPool = workerPool;
+    }
+
+    public double getWorkerUtilization() {
+        return workerUtilization;
+    }
+
+    public void setWorkerUtilization(double workerUtilization) {
+        this.workerUtilization = workerUtilization;
+    }
+
+    public List<EndpointConcurrency> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(List<EndpointConcurrency> endpoints) {
+        this.endpoints = endpoints;
+    }
+}
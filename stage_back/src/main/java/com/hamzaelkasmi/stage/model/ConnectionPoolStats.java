@@ -0,0 +1,57 @@
+package com.hamzaelkasmi.stage.model;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of the JDBC connection pool
+ */
+public class ConnectionPoolStats implements Serializable {
+    private int active; // connections in use
+    private int idle;
+    private int pending; // threads waiting for a connection
+    private int total;
+    private int max; // maximumPoolSize
+
+    public ConnectionPoolStats() {
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public void setIdle(int idle) {
+        this.idle = idle;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public void setMax(int max) {
+        this.max = max;
+    }
+}
@@ -1,11 +1,13 @@
 package com.hamzaelkasmi.stage.model;
 
+import com.hamzaelkasmi.stage.cache.AnalyticsDataListener;
 import jakarta.persistence.*;
 import org.hibernate.annotations.GenericGenerator;
 import java.util.Date;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 @Entity
+@EntityListeners(AnalyticsDataListener.class)
 @Table(name = "conteneure")
 public class Conteneure {
     @Id
@@ -0,0 +1,254 @@
+package com.hamzaelkasmi.stage.model;
+
+import java.io.Serializable;
+
+/**
+ * Aggregated statistics for a single API endpoint.
+ * Times are in milliseconds, throughput in requests per second.
+ * The phase averages split the request into filters (CORS, security),
+ * JWT validation, controller and response serialization.
+ * CPU and allocation are per call, from the controller to the end of serialization.
+ */
+public class EndpointStats implements Serializable {
+    private String endpoint;
+    private long count;
+    private long errorCount;
+    private double errorRate;
+    private double average;
+    private double p50;
+    private double p90;
+    private double p99;
+    private double max;
+    private double throughput;
+    private long inFlight; // requests being handled right now
+    // Average time per phase of the request
+    private double averageFilterTime;
+    private double averageJwtTime;
+    private double averageHandlerTime;
+    private double averageSerializationTime;
+    // SQL work per request, for spotting N+1 query patterns
+    private double averageSqlStatements;
+    private double averageEntitiesLoaded;
+    private double averageJdbcTime;
+    private long maxSqlStatements;
+    private long statementBudgetExceeded;
+    // Time a pooled connection was held per request (includes serialization under open-in-view)
+    private double averageConnectionHoldTime;
+    private double p99ConnectionHoldTime;
+    // Request thread CPU time and heap allocation (GC pressure) per call
+    private double averageCpuMicros;
+    private double averageAllocatedBytes;
+    private long maxAllocatedBytes;
+    private long totalAllocatedBytes;
+
+    public EndpointStats() {
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(long errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public double getAverage() {
+        return average;
+    }
+
+    public void setAverage(double average) {
+        this.average = average;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public void setP50(double p50) {
+        this.p50 = p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public void setP90(double p90) {
+        this.p90 = p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public void setP99(double p99) {
+        this.p99 = p99;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public void setThroughput(double throughput) {
+        this.throughput = throughput;
+    }
+
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(long inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public double getAverageFilterTime() {
+        return averageFilterTime;
+    }
+
+    public void setAverageFilterTime(double averageFilterTime) {
+        this.averageFilterTime = averageFilterTime;
+    }
+
+    public double getAverageJwtTime() {
+        return averageJwtTime;
+    }
+
+    public void setAverageJwtTime(double averageJwtTime) {
+        this.averageJwtTime = averageJwtTime;
+    }
+
+    public double getAverageHandlerTime() {
+        return averageHandlerTime;
+    }
+
+    public void setAverageHandlerTime(double averageHandlerTime) {
+        this.averageHandlerTime = averageHandlerTime;
+    }
+
+    public double getAverageSerializationTime() {
+        return averageSerializationTime;
+    }
+
+    public void setAverageSerializationTime(double averageSerializationTime) {
+        this.averageSerializationTime = averageSerializationTime;
+    }
+
+    public double getAverageSqlStatements() {
+        return averageSqlStatements;
+    }
+
+    public void setAverageSqlStatements(double averageSqlStatements) {
+        this.averageSqlStatements = averageSqlStatements;
+    }
+
+    public double getAverageEntitiesLoaded() {
+        return averageEntitiesLoaded;
+    }
+
+    public void setAverageEntitiesLoaded(double averageEntitiesLoaded) {
+        this.averageEntitiesLoaded = averageEntitiesLoaded;
+    }
+
+    public double getAverageJdbcTime() {
+        return averageJdbcTime;
+    }
+
+    public void setAverageJdbcTime(double averageJdbcTime) {
+        this.averageJdbcTime = averageJdbcTime;
+    }
+
+    public long getMaxSqlStatements() {
+        return maxSqlStatements;
+    }
+
+    public void setMaxSqlStatements(long maxSqlStatements) {
+        this.maxSqlStatements = maxSqlStatements;
+    }
+
+    public long getStatementBudgetExceeded() {
+        return statementBudgetExceeded;
+    }
+
+    public void setStatementBudgetExceeded(long statementBudgetExceeded) {
+        this.statementBudgetExceeded = statementBudgetExceeded;
+    }
+
+    public double getAverageConnectionHoldTime() {
+        return averageConnectionHoldTime;
+    }
+
+    public void setAverageConnectionHoldTime(double averageConnectionHoldTime) {
+        this.averageConnectionHoldTime = averageConnectionHoldTime;
+    }
+
+    public double getP99ConnectionHoldTime() {
+        return p99ConnectionHoldTime;
+    }
+
+    public void setP99ConnectionHoldTime(double p99ConnectionHoldTime) {
+        this.p99ConnectionHoldTime = p99ConnectionHoldTime;
+    }
+
+    public double getAverageCpuMicros() {
+        return averageCpuMicros;
+    }
+
+    public void setAverageCpuMicros(double averageCpuMicros) {
+        this.averageCpuMicros = averageCpuMicros;
+    }
+
+    public double getAverageAllocatedBytes() {
+        return averageAllocatedBytes;
+    }
+
+    public void setAverageAllocatedBytes(double averageAllocatedBytes) {
+        this.averageAllocatedBytes = averageAllocatedBytes;
+    }
+
+    public long getMaxAllocatedBytes() {
+        return maxAllocatedBytes;
+    }
+
+    public void setMaxAllocatedBytes(long maxAllocatedBytes) {
+        this.maxAllocatedBytes = maxAllocatedBytes;
+    }
+
+    public long getTotalAllocatedBytes() {
+        return totalAllocatedBytes;
+    }
+
+    public void setTotalAllocatedBytes(long totalAllocatedBytes) {
+        this.totalAllocatedBytes = totalAllocatedBytes;
+    }
+}
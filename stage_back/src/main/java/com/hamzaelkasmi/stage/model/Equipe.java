@@ -1,5 +1,6 @@
 package com.hamzaelkasmi.stage.model;
 
+import com.hamzaelkasmi.stage.cache.AnalyticsDataListener;
 import jakarta.persistence.*;
 import org.hibernate.annotations.GenericGenerator;
 
@@ -7,6 +8,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(AnalyticsDataListener.class)
 @Table(name = "equipe")
 public class Equipe {
     @Id
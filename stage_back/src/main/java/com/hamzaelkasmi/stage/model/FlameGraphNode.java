@@ -0,0 +1,61 @@
+package com.hamzaelkasmi.stage.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One frame of a flame graph, in the nested {name, value, children}
+ * format read by d3-flame-graph. value is the number of samples in which
+ * this frame (and the path above it) was on the stack.
+ */
+public class FlameGraphNode implements Serializable {
+    private String name;
+    private long value;
+    private List<FlameGraphNode> children = new ArrayList<>();
+
+    public FlameGraphNode() {
+    }
+
+    public FlameGraphNode(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Child with the given frame name, created if missing
+     */
+    public FlameGraphNode child(String frame) {
+        for (FlameGraphNode child : children) {
+            if (child.name.equals(frame)) {
+                return child;
+            }
+        }
+        FlameGraphNode child = new FlameGraphNode(frame);
+        children.add(child);
+        return child;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    public List<FlameGraphNode> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<FlameGraphNode> children) {
+        this.children = children;
+    }
+}
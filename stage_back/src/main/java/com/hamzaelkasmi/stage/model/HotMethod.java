@@ -0,0 +1,59 @@
+package com.hamzaelkasmi.stage.model;
+
+import java.io.Serializable;
+
+/**
+ * A method seen by the profiler. Self samples had the method at the top
+ * of the stack (it was running its own code); total samples had it
+ * anywhere on the stack (it or something it called was running).
+ */
+public class HotMethod implements Serializable {
+    private String method;
+    private long selfSamples;
+    private double selfPercent;
+    private long totalSamples;
+    private double totalPercent;
+
+    public HotMethod() {
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public long getSelfSamples() {
+        return selfSamples;
+    }
+
+    public void setSelfSamples(long selfSamples) {
+        this.selfSamples = selfSamples;
+    }
+
+    public double getSelfPercent() {
+        return selfPercent;
+    }
+
+    public void setSelfPercent(double selfPercent) {
+        this.selfPercent = selfPercent;
+    }
+
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    public void setTotalSamples(long totalSamples) {
+        this.totalSamples = totalSamples;
+    }
+
+    public double getTotalPercent() {
+        return totalPercent;
+    }
+
+    public void setTotalPercent(double totalPercent) {
+        this.totalPercent = totalPercent;
+    }
+}
@@ -0,0 +1,67 @@
+package com.hamzaelkasmi.stage.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * State of the JFR recording started from the monitoring API
+ */
+public class JfrRecordingStatus implements Serializable {
+    private String state; // NONE, RUNNING, STOPPED, ...
+    private Instant startTime;
+    private long durationSeconds;
+    private long size; // bytes recorded so far
+    private long maxDurationSeconds;
+    private long maxSizeBytes;
+
+    public JfrRecordingStatus() {
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getMaxDurationSeconds() {
+        return maxDurationSeconds;
+    }
+
+    public void setMaxDurationSeconds(long maxDurationSeconds) {
+        this.maxDurationSeconds = maxDurationSeconds;
+    }
+
+    public long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+
+    public void setMaxSizeBytes(long maxSizeBytes) {
+        this.maxSizeBytes = maxSizeBytes;
+    }
+}
@@ -0,0 +1,307 @@
+package com.hamzaelkasmi.stage.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM internals sampled in the background with SystemMetrics: garbage
+ * collections, memory pools, NIO buffers, threads, class loading and
+ * safepoints. Sizes are in bytes and times in milliseconds.
+ * Pool usage after the last GC is what tells a leak (old gen keeps growing
+ * after each collection) from normal young-gen churn.
+ */
+public class JvmMetrics implements Serializable {
+    private List<GarbageCollector> garbageCollectors = new ArrayList<>();
+    private List<MemoryPool> memoryPools = new ArrayList<>();
+    private List<BufferPool> bufferPools = new ArrayList<>(); // direct and mapped
+    private int threadCount;
+    private int peakThreadCount;
+    private int daemonThreadCount;
+    private int loadedClassCount;
+    private long totalLoadedClassCount;
+    private long unloadedClassCount;
+    // -1 when the HotSpot runtime counters are not accessible
+    private long safepointCount = -1;
+    private long safepointTime = -1;
+    private long safepointSyncTime = -1;
+
+    public JvmMetrics() {
+    }
+
+    /**
+     * Cumulative and last-interval activity of one collector
+     */
+    public static class GarbageCollector implements Serializable {
+        private String name;
+        private long collectionCount;
+        private long collectionTime;
+        private long recentCollections; // during the last sampling interval
+        private long recentCollectionTime;
+        private long lastPauseDuration; // -1 if none yet
+        private long lastPauseStart; // ms since JVM start, -1 if none yet
+
+        public GarbageCollector() {
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getCollectionCount() {
+            return collectionCount;
+        }
+
+        public void setCollectionCount(long collectionCount) {
+            this.collectionCount = collectionCount;
+        }
+
+        public long getCollectionTime() {
+            return collectionTime;
+        }
+
+        public void setCollectionTime(long collectionTime) {
+            this.collectionTime = collectionTime;
+        }
+
+        public long getRecentCollections() {
+            return recentCollections;
+        }
+
+        public void setRecentCollections(long recentCollections) {
+            this.recentCollections = recentCollections;
+        }
+
+        public long getRecentCollectionTime() {
+            return recentCollectionTime;
+        }
+
+        public void setRecentCollectionTime(long recentCollectionTime) {
+            this.recentCollectionTime = recentCollectionTime;
+        }
+
+        public long getLastPauseDuration() {
+            return lastPauseDuration;
+        }
+
+        public void setLastPauseDuration(long lastPauseDuration) {
+            this.lastPauseDuration = lastPauseDuration;
+        }
+
+        public long getLastPauseStart() {
+            return lastPauseStart;
+        }
+
+        public void setLastPauseStart(long lastPauseStart) {
+            this.lastPauseStart = lastPauseStart;
+        }
+    }
+
+    /**
+     * Usage of one memory pool (eden, survivor, old gen, metaspace, code cache...)
+     */
+    public static class MemoryPool implements Serializable {
+        private String name;
+        private String type; // HEAP or NON_HEAP
+        private long used;
+        private long committed;
+        private long max; // -1 if undefined
+        private long usedAfterLastGc; // -1 if the pool is not collected
+
+        public MemoryPool() {
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public long getUsed() {
+            return used;
+        }
+
+        public void setUsed(long used) {
+            this.used = used;
+        }
+
+        public long getCommitted() {
+            return committed;
+        }
+
+        public void setCommitted(long committed) {
+            this.committed = committed;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public void setMax(long max) {
+            this.max = max;
+        }
+
+        public long getUsedAfterLastGc() {
+            return usedAfterLastGc;
+        }
+
+        public void setUsedAfterLastGc(long usedAfterLastGc) {
+            this.usedAfterLastGc = usedAfterLastGc;
+        }
+    }
+
+    /**
+     * NIO buffer pool (direct or mapped), outside the heap
+     */
+    public static class BufferPool implements Serializable {
+        private String name;
+        private long count;
+        private long memoryUsed;
+        private long totalCapacity;
+
+        public BufferPool() {
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public long getMemoryUsed() {
+            return memoryUsed;
+        }
+
+        public void setMemoryUsed(long memoryUsed) {
+            this.memoryUsed = memoryUsed;
+        }
+
+        public long getTotalCapacity() {
+            return totalCapacity;
+        }
+
+        public void setTotalCapacity(long totalCapacity) {
+            this.totalCapacity = totalCapacity;
+        }
+    }
+
+    public List<GarbageCollector> getGarbageCollectors() {
+        return garbageCollectors;
+    }
+
+    public void setGarbageCollectors(List<GarbageCollector> garbageCollectors) {
+        this.garbageCollectors = garbageCollectors;
+    }
+
+    public List<MemoryPool> getMemoryPools() {
+        return memoryPools;
+    }
+
+    public void setMemoryPools(List<MemoryPool> memoryPools) {
+        this.memoryPools = memoryPools;
+    }
+
+    public List<BufferPool> getBufferPools() {
+        return bufferPools;
+    }
+
+    public void setBufferPools(List<BufferPool> bufferPools) {
+        this.bufferPools = bufferPools;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public int getPeakThreadCount() {
+        return peakThreadCount;
+    }
+
+    public void setPeakThreadCount(int peakThreadCount) {
+        this.peakThreadCount = peakThreadCount;
+    }
+
+    public int getDaemonThreadCount() {
+        return daemonThreadCount;
+    }
+
+    public void setDaemonThreadCount(int daemonThreadCount) {
+        this.daemonThreadCount = daemonThreadCount;
+    }
+
+    public int getLoadedClassCount() {
+        return loadedClassCount;
+    }
+
+    public void setLoadedClassCount(int loadedClassCount) {
+        this.loadedClassCount = loadedClassCount;
+    }
+
+    public long getTotalLoadedClassCount() {
+        return totalLoadedClassCount;
+    }
+
+    public void setTotalLoadedClassCount(long totalLoadedClassCount) {
+        this.totalLoadedClassCount = totalLoadedClassCount;
+    }
+
+    public long getUnloadedClassCount() {
+        return unloadedClassCount;
+    }
+
+    public void setUnloadedClassCount(long unloadedClassCount) {
+        this.unloadedClassCount = unloadedClassCount;
+    }
+
+    public long getSafepointCount() {
+        return safepointCount;
+    }
+
+    public void setSafepointCount(long safepointCount) {
+        this.safepointCount = safepointCount;
+    }
+
+    public long getSafepointTime() {
+        return safepointTime;
+    }
+
+    public void setSafepointTime(long safepointTime) {
+        this.safepointTime = safepointTime;
+    }
+
+    public long getSafepointSyncTime() {
+        return safepointSyncTime;
+    }
+
+    public void setSafepointSyncTime(long safepointSyncTime) {
+        this.safepointSyncTime = safepointSyncTime;
+    }
+}
@@ -0,0 +1,86 @@
+package com.hamzaelkasmi.stage.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * One point of a stored metrics time series, read from the rollup tables.
+ * Times are in milliseconds.
+ */
+public class MetricsHistoryPoint implements Serializable {
+    private Instant timestamp;
+    private long count;
+    private long errorCount;
+    private double average;
+    private double p50;
+    private double p90;
+    private double p99;
+    private double max;
+
+    public MetricsHistoryPoint() {
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(long errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public double getAverage() {
+        return average;
+    }
+
+    public void setAverage(double average) {
+        this.average = average;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public void setP50(double p50) {
+        this.p50 = p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public void setP90(double p90) {
+        this.p90 = p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public void setP99(double p99) {
+        this.p99 = p99;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+}
@@ -1,10 +1,12 @@
 package com.hamzaelkasmi.stage.model;
 
+import com.hamzaelkasmi.stage.cache.AnalyticsDataListener;
 import jakarta.persistence.*;
 import org.hibernate.annotations.GenericGenerator;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(AnalyticsDataListener.class)
 @Table(name = "operation")
 public class Operation {
     @Id
@@ -7,6 +7,7 @@ import java.time.Instant;
  * Represents a performance alert in the system
  */
 public class PerformanceAlert implements Serializable {
+    private String rule;
     private String endpoint;
     private double responseTime;
     private String message;
@@ -28,6 +29,23 @@ public class PerformanceAlert implements Serializable {
         this.level = level;
         this.timestamp = Instant.now();
     }
+    
+    public PerformanceAlert(PerformanceAlert other) {
+        this.rule = other.rule;
+        this.endpoint = other.endpoint;
+        this.responseTime = other.responseTime;
+        this.message = other.message;
+        this.level = other.level;
+        this.timestamp = other.timestamp;
+    }
+
+    public String getRule() {
+        return rule;
+    }
+
+    public void setRule(String rule) {
+        this.rule = rule;
+    }
 
     public String getEndpoint() {
         return endpoint;
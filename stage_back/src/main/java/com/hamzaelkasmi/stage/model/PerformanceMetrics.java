@@ -14,6 +14,15 @@ public class PerformanceMetrics implements Serializable {
     private ApiCallMetric fastestEndpoint;
     private Map<String, Double> errorRates;
     private List<Double> systemLoad;
+    private List<EndpointStats> endpoints;
+    private long totalRequests;
+    private double throughput;
+    private double p50;
+    private double p90;
+    private double p99;
+    private double max;
+    private long persistedCalls;
+    private long droppedCalls;
 
     public PerformanceMetrics() {
     }
@@ -65,4 +74,76 @@ public class PerformanceMetrics implements Serializable {
     public void setSystemLoad(List<Double> systemLoad) {
         this.systemLoad = systemLoad;
     }
+
+    public List<EndpointStats> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(List<EndpointStats> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public long getTotalRequests() {
+        return totalRequests;
+    }
+
+    public void setTotalRequests(long totalRequests) {
+        this.totalRequests = totalRequests;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public void setThroughput(double throughput) {
+        this.throughput = throughput;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public void setP50(double p50) {
+        this.p50 = p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public void setP90(double p90) {
+        this.p90 = p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public void setP99(double p99) {
+        this.p99 = p99;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+
+    public long getPersistedCalls() {
+        return persistedCalls;
+    }
+
+    public void setPersistedCalls(long persistedCalls) {
+        this.persistedCalls = persistedCalls;
+    }
+
+    public long getDroppedCalls() {
+        return droppedCalls;
+    }
+
+    public void setDroppedCalls(long droppedCalls) {
+        this.droppedCalls = droppedCalls;
+    }
 }
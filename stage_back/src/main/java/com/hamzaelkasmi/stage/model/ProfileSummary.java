@@ -0,0 +1,69 @@
+package com.hamzaelkasmi.stage.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CPU profile over the profiler's rolling window
+ */
+public class ProfileSummary implements Serializable {
+    private boolean running;
+    private long windowSeconds;
+    private long periodMs; // sampling period per running thread
+    private long samples;
+    // Top methods by self samples, then by total (inclusive) samples
+    private List<HotMethod> hotMethods = new ArrayList<>();
+    private List<HotMethod> inclusiveHotMethods = new ArrayList<>();
+
+    public ProfileSummary() {
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void setWindowSeconds(long windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+
+    public long getPeriodMs() {
+        return periodMs;
+    }
+
+    public void setPeriodMs(long periodMs) {
+        this.periodMs = periodMs;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public void setSamples(long samples) {
+        this.samples = samples;
+    }
+
+    public List<HotMethod> getHotMethods() {
+        return hotMethods;
+    }
+
+    public void setHotMethods(List<HotMethod> hotMethods) {
+        this.hotMethods = hotMethods;
+    }
+
+    public List<HotMethod> getInclusiveHotMethods() {
+        return inclusiveHotMethods;
+    }
+
+    public void setInclusiveHotMethods(List<HotMethod> inclusiveHotMethods) {
+        this.inclusiveHotMethods = inclusiveHotMethods;
+    }
+}
@@ -0,0 +1,67 @@
+package com.hamzaelkasmi.stage.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * JDBC-level metrics: connection acquisition and per-statement statistics
+ */
+public class SqlMetrics implements Serializable {
+    private long connectionAcquireCount;
+    private double connectionAcquireAverage; // ms
+    private double connectionAcquireP99; // ms
+    private double connectionAcquireMax; // ms
+    private List<SqlStatementStats> statements; // sorted by total time, descending
+    private ConnectionPoolStats pool;
+
+    public SqlMetrics() {
+    }
+
+    public long getConnectionAcquireCount() {
+        return connectionAcquireCount;
+    }
+
+    public void setConnectionAcquireCount(long connectionAcquireCount) {
+        this.connectionAcquireCount = connectionAcquireCount;
+    }
+
+    public double getConnectionAcquireAverage() {
+        return connectionAcquireAverage;
+    }
+
+    public void setConnectionAcquireAverage(double connectionAcquireAverage) {
+        this.connectionAcquireAverage = connectionAcquireAverage;
+    }
+
+    public double getConnectionAcquireP99() {
+        return connectionAcquireP99;
+    }
+
+    public void setConnectionAcquireP99(double connectionAcquireP99) {
+        this.connectionAcquireP99 = connectionAcquireP99;
+    }
+
+    public double getConnectionAcquireMax() {
+        return connectionAcquireMax;
+    }
+
+    public void setConnectionAcquireMax(double connectionAcquireMax) {
+        this.connectionAcquireMax = connectionAcquireMax;
+    }
+
+    public List<SqlStatementStats> getStatements() {
+        return statements;
+    }
+
+    public void setStatements(List<SqlStatementStats> statements) {
+        this.statements = statements;
+    }
+
+    public ConnectionPoolStats getPool() {
+        return pool;
+    }
+
+    public void setPool(ConnectionPoolStats pool) {
+        this.pool = pool;
+    }
+}
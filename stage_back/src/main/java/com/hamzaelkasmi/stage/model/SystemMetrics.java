@@ -8,10 +8,13 @@ import java.time.Instant;
  */
 public class SystemMetrics implements Serializable {
     private double cpu;
+    private double processCpu;
     private double memory;
+    private double systemMemory;
     private DiskSpace diskSpace;
     private int activeConnections;
     private long uptime;
+    private JvmMetrics jvm;
     private Instant timestamp;
 
     public SystemMetrics() {
@@ -66,6 +69,22 @@ public class SystemMetrics implements Serializable {
         this.cpu = cpu;
     }
 
+    public double getProcessCpu() {
+        return processCpu;
+    }
+
+    public void setProcessCpu(double processCpu) {
+        this.processCpu = processCpu;
+    }
+
+    public double getSystemMemory() {
+        return systemMemory;
+    }
+
+    public void setSystemMemory(double systemMemory) {
+        this.systemMemory = systemMemory;
+    }
+
     public double getMemory() {
         return memory;
     }
@@ -98,6 +117,14 @@ public class SystemMetrics implements Serializable {
         this.uptime = uptime;
     }
 
+    public JvmMetrics getJvm() {
+        return jvm;
+    }
+
+    public void setJvm(JvmMetrics jvm) {
+        this.jvm = jvm;
+    }
+
     public Instant getTimestamp() {
         return timestamp;
     }
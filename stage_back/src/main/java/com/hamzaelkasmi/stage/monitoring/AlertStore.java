@@ -0,0 +1,78 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.PerformanceAlert;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded store of fired alerts.
+ * While a condition stays active, repeated firings for the same rule and
+ * endpoint update the existing alert instead of adding new ones. Once the
+ * store is full the oldest alert is evicted. Readers get copies, so an
+ * alert that is updated later never changes under a response being
+ * serialized.
+ */
+@Component
+public class AlertStore {
+
+    private final int capacity;
+    private final Deque<PerformanceAlert> alerts = new ArrayDeque<>();
+    // Alert currently open for each rule/endpoint key
+    private final Map<String, PerformanceAlert> active = new HashMap<>();
+
+    public AlertStore(@Value("${performance.monitoring.alerts.max-stored:200}") int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Record a firing condition. Returns true if a new alert was created,
+     * false if an already open alert for the same key was updated.
+     */
+    public synchronized boolean fire(String key, PerformanceAlert alert) {
+        PerformanceAlert open = active.get(key);
+        if (open != null) {
+            open.setResponseTime(alert.getResponseTime());
+            open.setMessage(alert.getMessage());
+            open.setLevel(alert.getLevel());
+            open.setTimestamp(Instant.now());
+            return false;
+        }
+        if (alerts.size() >= capacity) {
+            PerformanceAlert evicted = alerts.removeFirst();
+            active.values().remove(evicted);
+        }
+        PerformanceAlert stored = new PerformanceAlert(alert);
+        alerts.addLast(stored);
+        active.put(key, stored);
+        return true;
+    }
+
+    /**
+     * Mark the condition for a key as recovered, so the next firing opens a new alert
+     */
+    public synchronized void resolve(String key) {
+        active.remove(key);
+    }
+
+    /**
+     * Copies of the stored alerts, newest first
+     */
+    public synchronized List<PerformanceAlert> getAlerts() {
+        List<PerformanceAlert> copy = new ArrayList<>(alerts.size());
+        alerts.descendingIterator().forEachRemaining(alert -> copy.add(new PerformanceAlert(alert)));
+        return copy;
+    }
+
+    public synchronized void clear() {
+        alerts.clear();
+        active.clear();
+    }
+}
@@ -0,0 +1,22 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for computing one section of the analytics dashboard
+ */
+@Name("com.hamzaelkasmi.stage.Analytics")
+@Label("Analytics Section")
+@Category({"Stage", "Analytics"})
+@Description("Computation of one analytics section and the number of rows it returned")
+public class AnalyticsEvent extends jdk.jfr.Event {
+
+    @Label("Section")
+    public String section;
+
+    @Label("Rows")
+    public int rows;
+}
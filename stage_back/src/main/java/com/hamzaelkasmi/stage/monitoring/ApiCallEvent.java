@@ -0,0 +1,26 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event covering one HTTP request, from the outermost filter to the
+ * end of the response
+ */
+@Name("com.hamzaelkasmi.stage.ApiCall")
+@Label("API Call")
+@Category({"Stage", "HTTP"})
+@Description("One HTTP request, keyed by route template")
+public class ApiCallEvent extends jdk.jfr.Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Status")
+    public int status;
+
+    @Label("SQL Statements")
+    public int sqlStatements;
+}
@@ -0,0 +1,128 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.ApiCallMetric;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes API call metrics to api_call_metrics in the background.
+ * Request threads only push into a bounded ring buffer; a scheduled
+ * writer drains it and inserts rows with JDBC batches. When the database
+ * falls behind and the buffer fills up, new rows are dropped and counted
+ * instead of slowing requests down.
+ */
+@Component
+public class ApiCallMetricWriter {
+    private static final Logger logger = LoggerFactory.getLogger(ApiCallMetricWriter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO " + MetricsJdbc.RAW_TABLE + " (endpoint, response_time, successful, method, status_code, timestamp, " +
+            "sql_statements, entities_loaded, collections_fetched, jdbc_time, connection_hold_time, cpu_time, allocated_bytes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MetricRingBuffer<ApiCallMetric> buffer;
+    private final boolean enabled;
+    private final int batchSize;
+
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public ApiCallMetricWriter(JdbcTemplate jdbcTemplate,
+                               @Value("${performance.monitoring.persistence.enabled:true}") boolean enabled,
+                               @Value("${performance.monitoring.persistence.buffer-size:8192}") int bufferSize,
+                               @Value("${performance.monitoring.persistence.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.buffer = new MetricRingBuffer<>(bufferSize);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Queue a metric for persistence. Never blocks.
+     *
+     * @return false if the metric was dropped because the buffer is full
+     */
+    public boolean enqueue(ApiCallMetric metric) {
+        if (!enabled) {
+            return false;
+        }
+        if (!buffer.offer(metric)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Drain the buffer into the database. Synchronized because the buffer
+     * has a single consumer, and the shutdown flush can start while a
+     * scheduled one is still running.
+     */
+    @Scheduled(fixedDelayString = "${performance.monitoring.persistence.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<ApiCallMetric> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<ApiCallMetric> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, metric) -> {
+                ps.setString(1, metric.getEndpoint());
+                ps.setDouble(2, metric.getResponseTime());
+                ps.setBoolean(3, metric.isSuccessful());
+                ps.setString(4, metric.getMethod());
+                ps.setInt(5, metric.getStatusCode());
+                ps.setTimestamp(6, MetricsJdbc.toTimestamp(metric.getTimestamp()), MetricsJdbc.utcCalendar());
+                ps.setInt(7, metric.getSqlStatements());
+                ps.setInt(8, metric.getEntitiesLoaded());
+                ps.setInt(9, metric.getCollectionsFetched());
+                ps.setDouble(10, metric.getJdbcTime());
+                ps.setDouble(11, metric.getConnectionHoldTime());
+                ps.setDouble(12, metric.getCpuTime());
+                ps.setLong(13, metric.getAllocatedBytes());
+            });
+            persisted.add(batch.size());
+        } catch (Exception e) {
+            failed.add(batch.size());
+            logger.warn("Failed to persist {} API call metrics: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public long getPersistedCount() {
+        return persisted.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public int getQueuedCount() {
+        return buffer.size();
+    }
+}
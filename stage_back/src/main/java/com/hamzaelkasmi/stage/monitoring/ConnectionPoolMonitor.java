@@ -0,0 +1,58 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.ConnectionPoolStats;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Reads active / idle / pending / max from the Hikari pool.
+ * The getters on HikariPoolMXBean are plain field reads, so this is cheap
+ * enough to call for every dashboard refresh.
+ */
+@Component
+public class ConnectionPoolMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolMonitor.class);
+
+    private final HikariDataSource hikari;
+
+    public ConnectionPoolMonitor(DataSource dataSource) {
+        this.hikari = unwrapHikari(dataSource);
+    }
+
+    /**
+     * Current pool usage, or null when the DataSource is not a Hikari pool
+     */
+    public ConnectionPoolStats getPoolStats() {
+        if (hikari == null) {
+            return null;
+        }
+        ConnectionPoolStats stats = new ConnectionPoolStats();
+        stats.setMax(hikari.getMaximumPoolSize());
+        // The pool MXBean only exists once the first connection has been requested
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool != null) {
+            stats.setActive(pool.getActiveConnections());
+            stats.setIdle(pool.getIdleConnections());
+            stats.setPending(pool.getThreadsAwaitingConnection());
+            stats.setTotal(pool.getTotalConnections());
+        }
+        return stats;
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            logger.debug("Could not unwrap the connection pool: {}", e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,227 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.FlameGraphNode;
+import com.hamzaelkasmi.stage.model.HotMethod;
+import com.hamzaelkasmi.stage.model.ProfileSummary;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToLongFunction;
+
+/**
+ * Always-on CPU profiler built on JFR execution sampling.
+ * jdk.ExecutionSample only samples threads that are running Java code, so
+ * the profile shows where CPU goes (serialization, BCrypt, Hibernate
+ * flushes...) and not threads waiting on the database or the network.
+ * Samples are kept as collapsed stacks in a ring of time slots, so the
+ * profile always covers the last window-seconds and memory stays bounded.
+ */
+@Component
+public class ContinuousProfiler {
+    private static final Logger logger = LoggerFactory.getLogger(ContinuousProfiler.class);
+
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+
+    private final boolean enabled;
+    private final Duration period;
+    private final long slotSeconds;
+    private final int topMethods;
+    private final StackProfile[] slots;
+    // Which slotSeconds-long period each slot currently holds
+    private final AtomicLongArray slotPeriods;
+
+    private RecordingStream stream;
+    private volatile boolean running;
+
+    public ContinuousProfiler(@Value("${performance.monitoring.profiler.enabled:true}") boolean enabled,
+                              @Value("${performance.monitoring.profiler.period-ms:20}") long periodMs,
+                              @Value("${performance.monitoring.profiler.window-seconds:300}") long windowSeconds,
+                              @Value("${performance.monitoring.profiler.slots:10}") int slotCount,
+                              @Value("${performance.monitoring.profiler.max-stacks-per-slot:2000}") int maxStacksPerSlot,
+                              @Value("${performance.monitoring.profiler.top-methods:20}") int topMethods) {
+        this.enabled = enabled;
+        this.period = Duration.ofMillis(Math.max(10, periodMs));
+        int count = Math.max(2, slotCount);
+        this.slotSeconds = Math.max(1, windowSeconds / count);
+        this.topMethods = topMethods;
+        this.slots = new StackProfile[count];
+        this.slotPeriods = new AtomicLongArray(count);
+        for (int i = 0; i < count; i++) {
+            // Stack depth is already capped by JFR (stackdepth, 64 frames by default)
+            slots[i] = new StackProfile(maxStacksPerSlot, Integer.MAX_VALUE);
+            slotPeriods.set(i, -1);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(EXECUTION_SAMPLE).withPeriod(period).withStackTrace();
+            stream.onEvent(EXECUTION_SAMPLE, this::onSample);
+            stream.startAsync();
+            running = true;
+            logger.info("Continuous profiler started, sampling every {} ms", period.toMillis());
+        } catch (RuntimeException e) {
+            // JFR is missing or disabled on this JVM: the rest of the monitoring still works
+            logger.warn("Continuous profiler not available: {}", e.getMessage());
+            stop();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    private void onSample(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return;
+        }
+        record(event.getStartTime().getEpochSecond(), collapse(stackTrace));
+    }
+
+    /**
+     * Count one sample taken at the given time. Called from the JFR stream thread only.
+     */
+    void record(long epochSecond, String stack) {
+        long slotPeriod = epochSecond / slotSeconds;
+        int index = (int) (slotPeriod % slots.length);
+        if (slotPeriods.get(index) != slotPeriod) {
+            // The slot holds a period that has left the window: reuse it
+            slots[index].clear();
+            slotPeriods.set(index, slotPeriod);
+        }
+        slots[index].add(stack);
+    }
+
+    /**
+     * Collapsed stacks ("root;...;leaf" -> samples) over the window ending at nowEpochSecond
+     */
+    Map<String, Long> getCollapsedStacks(long nowEpochSecond) {
+        long oldestPeriod = nowEpochSecond / slotSeconds - slots.length + 1;
+        Map<String, Long> merged = new HashMap<>();
+        for (int i = 0; i < slots.length; i++) {
+            if (slotPeriods.get(i) >= oldestPeriod) {
+                slots[i].getStacks().forEach((stack, count) -> merged.merge(stack, count, Long::sum));
+            }
+        }
+        return merged;
+    }
+
+    public Map<String, Long> getCollapsedStacks() {
+        return getCollapsedStacks(Instant.now().getEpochSecond());
+    }
+
+    public FlameGraphNode getFlameGraph() {
+        FlameGraphNode root = new FlameGraphNode("all");
+        StackProfile.merge(root, getCollapsedStacks());
+        return root;
+    }
+
+    public ProfileSummary getSummary() {
+        return summarize(getCollapsedStacks());
+    }
+
+    ProfileSummary summarize(Map<String, Long> stacks) {
+        Map<String, long[]> methods = new HashMap<>(); // method -> {self, total}
+        long samples = 0;
+        for (Map.Entry<String, Long> entry : stacks.entrySet()) {
+            long count = entry.getValue();
+            samples += count;
+            String[] frames = entry.getKey().split(";");
+            Set<String> seen = new HashSet<>();
+            for (String frame : frames) {
+                // Recursive frames count once towards the total
+                if (!frame.startsWith("[") && seen.add(frame)) {
+                    methods.computeIfAbsent(frame, key -> new long[2])[1] += count;
+                }
+            }
+            String leaf = frames[frames.length - 1];
+            if (!leaf.startsWith("[")) {
+                methods.get(leaf)[0] += count;
+            }
+        }
+
+        ProfileSummary summary = new ProfileSummary();
+        summary.setRunning(running);
+        summary.setWindowSeconds(slotSeconds * slots.length);
+        summary.setPeriodMs(period.toMillis());
+        summary.setSamples(samples);
+        summary.setHotMethods(top(methods, samples, counts -> counts[0]));
+        summary.setInclusiveHotMethods(top(methods, samples, counts -> counts[1]));
+        return summary;
+    }
+
+    private List<HotMethod> top(Map<String, long[]> methods, long samples, ToLongFunction<long[]> key) {
+        List<HotMethod> top = new ArrayList<>();
+        methods.entrySet().stream()
+                .filter(entry -> key.applyAsLong(entry.getValue()) > 0)
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> key.applyAsLong(entry.getValue())).reversed())
+                .limit(topMethods)
+                .forEach(entry -> {
+                    long[] counts = entry.getValue();
+                    HotMethod method = new HotMethod();
+                    method.setMethod(entry.getKey());
+                    method.setSelfSamples(counts[0]);
+                    method.setSelfPercent(samples == 0 ? 0 : counts[0] * 100.0 / samples);
+                    method.setTotalSamples(counts[1]);
+                    method.setTotalPercent(samples == 0 ? 0 : counts[1] * 100.0 / samples);
+                    top.add(method);
+                });
+        return top;
+    }
+
+    /**
+     * Root-first collapsed stack. JFR lists the leaf first and cuts deep
+     * stacks at its stackdepth setting, marked with a [truncated] root.
+     */
+    private static String collapse(RecordedStackTrace stackTrace) {
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        StringBuilder collapsed = new StringBuilder(frames.size() * 48);
+        if (stackTrace.isTruncated()) {
+            collapsed.append(StackProfile.TRUNCATED_FRAME);
+        }
+        for (int i = frames.size() - 1; i >= 0; i--) {
+            RecordedFrame frame = frames.get(i);
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            if (collapsed.length() > 0) {
+                collapsed.append(';');
+            }
+            String className = frame.getMethod().getType().getName();
+            // Hidden classes (lambdas) carry an address suffix that differs per class: drop it
+            int hidden = className.indexOf("/0x");
+            collapsed.append(hidden > 0 ? className.substring(0, hidden) : className)
+                    .append('.').append(frame.getMethod().getName());
+        }
+        return collapsed.toString();
+    }
+}
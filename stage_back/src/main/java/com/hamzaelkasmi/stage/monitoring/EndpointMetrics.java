@@ -0,0 +1,182 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.EndpointStats;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative counters for a single endpoint.
+ * Every field is a striped adder so concurrent requests never contend on
+ * the same cache line, and nothing here takes a lock.
+ */
+public class EndpointMetrics {
+
+    private final String endpoint;
+    private final long createdAtNanos = System.nanoTime();
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    // Per-phase totals, only for requests that carried a phase breakdown
+    private final LongAdder phasedCount = new LongAdder();
+    private final LongAdder filterNanos = new LongAdder();
+    private final LongAdder jwtNanos = new LongAdder();
+    private final LongAdder handlerNanos = new LongAdder();
+    private final LongAdder serializationNanos = new LongAdder();
+
+    // SQL totals per request, and how many requests went over the statement budget
+    private final LongAdder sqlStatements = new LongAdder();
+    private final LongAdder entitiesLoaded = new LongAdder();
+    private final LongAdder jdbcNanos = new LongAdder();
+    private final LongAccumulator maxSqlStatements = new LongAccumulator(Math::max, 0);
+    private final LongAdder statementBudgetExceeded = new LongAdder();
+    // How long each request kept a pooled connection, in microseconds
+    private final LatencyHistogram connectionHold = new LatencyHistogram();
+    private final LongAdder connectionHoldMicros = new LongAdder();
+    // Thread CPU time and heap allocation per request, where the JVM measures them
+    private final LongAdder cpuCount = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder allocationCount = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAccumulator maxAllocatedBytes = new LongAccumulator(Math::max, 0);
+
+    public EndpointMetrics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void record(long micros, boolean successful) {
+        histogram.record(micros);
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+        if (!successful) {
+            errors.increment();
+        }
+    }
+
+    public void recordPhases(RequestTiming.Phases phases) {
+        phasedCount.increment();
+        filterNanos.add(phases.filterNanos());
+        jwtNanos.add(phases.jwtNanos());
+        handlerNanos.add(phases.handlerNanos());
+        serializationNanos.add(phases.serializationNanos());
+    }
+
+    /**
+     * Record the SQL work of one timed request
+     *
+     * @param statementBudget statements a single request may run before it counts as over budget
+     */
+    public void recordSql(int statements, int entities, long jdbcTimeNanos, long connectionHoldNanos,
+                          int statementBudget) {
+        connectionHold.record(connectionHoldNanos / 1000);
+        connectionHoldMicros.add(connectionHoldNanos / 1000);
+        sqlStatements.add(statements);
+        entitiesLoaded.add(entities);
+        jdbcNanos.add(jdbcTimeNanos);
+        maxSqlStatements.accumulate(statements);
+        if (statements > statementBudget) {
+            statementBudgetExceeded.increment();
+        }
+    }
+
+    /**
+     * Record the CPU time and heap allocation of one request; negative values are not measured
+     */
+    public void recordResources(long cpuTimeNanos, long bytes) {
+        if (cpuTimeNanos >= 0) {
+            cpuCount.increment();
+            cpuNanos.add(cpuTimeNanos);
+        }
+        if (bytes >= 0) {
+            allocationCount.increment();
+            allocatedBytes.add(bytes);
+            maxAllocatedBytes.accumulate(bytes);
+        }
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getTotalMicros() {
+        return totalMicros.sum();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public long getStatementBudgetExceeded() {
+        return statementBudgetExceeded.sum();
+    }
+
+    public long getMaxSqlStatements() {
+        return maxSqlStatements.get();
+    }
+
+    /**
+     * Build a read-only view of this endpoint for the API
+     */
+    public EndpointStats toStats() {
+        long[] counts = histogram.snapshot();
+        long calls = getCount();
+        long errorCount = getErrors();
+        double elapsedSeconds = Math.max(1.0, (System.nanoTime() - createdAtNanos) / 1_000_000_000.0);
+
+        EndpointStats stats = new EndpointStats();
+        stats.setEndpoint(endpoint);
+        stats.setCount(calls);
+        stats.setErrorCount(errorCount);
+        stats.setErrorRate(calls == 0 ? 0 : errorCount * 100.0 / calls);
+        stats.setAverage(calls == 0 ? 0 : getTotalMicros() / 1000.0 / calls);
+        stats.setP50(LatencyHistogram.valueAtPercentile(counts, 50) / 1000.0);
+        stats.setP90(LatencyHistogram.valueAtPercentile(counts, 90) / 1000.0);
+        stats.setP99(LatencyHistogram.valueAtPercentile(counts, 99) / 1000.0);
+        stats.setMax(getMaxMicros() / 1000.0);
+        stats.setThroughput(calls / elapsedSeconds);
+
+        long phased = phasedCount.sum();
+        if (phased > 0) {
+            stats.setAverageFilterTime(filterNanos.sum() / 1_000_000.0 / phased);
+            stats.setAverageJwtTime(jwtNanos.sum() / 1_000_000.0 / phased);
+            stats.setAverageHandlerTime(handlerNanos.sum() / 1_000_000.0 / phased);
+            stats.setAverageSerializationTime(serializationNanos.sum() / 1_000_000.0 / phased);
+            stats.setAverageSqlStatements(sqlStatements.sum() / (double) phased);
+            stats.setAverageEntitiesLoaded(entitiesLoaded.sum() / (double) phased);
+            stats.setAverageJdbcTime(jdbcNanos.sum() / 1_000_000.0 / phased);
+            stats.setAverageConnectionHoldTime(connectionHoldMicros.sum() / 1000.0 / phased);
+            stats.setP99ConnectionHoldTime(LatencyHistogram.valueAtPercentile(connectionHold.snapshot(), 99) / 1000.0);
+        }
+        long cpuCalls = cpuCount.sum();
+        if (cpuCalls > 0) {
+            stats.setAverageCpuMicros(cpuNanos.sum() / 1000.0 / cpuCalls);
+        }
+        long allocationCalls = allocationCount.sum();
+        if (allocationCalls > 0) {
+            long bytes = allocatedBytes.sum();
+            stats.setAverageAllocatedBytes(bytes / (double) allocationCalls);
+            stats.setTotalAllocatedBytes(bytes);
+            stats.setMaxAllocatedBytes(maxAllocatedBytes.get());
+        }
+        stats.setMaxSqlStatements(getMaxSqlStatements());
+        stats.setStatementBudgetExceeded(getStatementBudgetExceeded());
+        return stats;
+    }
+}
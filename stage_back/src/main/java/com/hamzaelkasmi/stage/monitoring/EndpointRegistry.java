@@ -0,0 +1,74 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Bounded registry of per-endpoint state.
+ * Once the registry holds maxEntries keys, any new key is folded into a
+ * single overflow entry so memory stays flat no matter how many distinct
+ * keys the traffic produces.
+ */
+public class EndpointRegistry<T> {
+
+    public static final String OVERFLOW_KEY = "OTHER";
+
+    private final ConcurrentHashMap<String, T> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxEntries;
+    private final Function<String, T> factory;
+    private final T overflow;
+
+    public EndpointRegistry(int maxEntries, Function<String, T> factory) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.factory = factory;
+        this.overflow = factory.apply(OVERFLOW_KEY);
+    }
+
+    /**
+     * Get the entry for a key, creating it if there is still room
+     */
+    public T get(String key) {
+        T entry = entries.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        if (size.get() >= maxEntries) {
+            return overflow;
+        }
+        // computeIfAbsent stores nothing when the mapping function returns null
+        entry = entries.computeIfAbsent(key, k -> {
+            if (size.incrementAndGet() > maxEntries) {
+                size.decrementAndGet();
+                return null;
+            }
+            return factory.apply(k);
+        });
+        return entry != null ? entry : overflow;
+    }
+
+    /**
+     * All entries, including the overflow bucket
+     */
+    public Collection<T> values() {
+        List<T> values = new ArrayList<>(entries.values());
+        values.add(overflow);
+        return values;
+    }
+
+    public T getOverflow() {
+        return overflow;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+}
@@ -0,0 +1,52 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * Feeds Hibernate activity into the current request's SqlStatistics.
+ * Statement timing comes from the per-session event callbacks (one
+ * instance per session, registered through hibernate.session.events.auto);
+ * entity loads and collection fetches come from the global load and
+ * collection-initialize events, see HibernateMonitoringConfig.
+ */
+public class HibernateSqlListener extends BaseSessionEventListener
+        implements PostLoadEventListener, InitializeCollectionEventListener {
+
+    // A session is used by one thread at a time, so plain fields are enough
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatistics.statementExecuted(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatistics.statementExecuted(System.nanoTime() - batchStart);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        SqlStatistics.entityLoaded();
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        SqlStatistics.collectionFetched();
+    }
+}
@@ -0,0 +1,22 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one call to an entity ID generator
+ */
+@Name("com.hamzaelkasmi.stage.IdGeneration")
+@Label("ID Generation")
+@Category({"Stage", "Persistence"})
+@Description("Allocation of one entity identifier by a generateure ID generator")
+public class IdGenerationEvent extends jdk.jfr.Event {
+
+    @Label("Generator")
+    public String generator;
+
+    @Label("Allocated ID")
+    public String id;
+}
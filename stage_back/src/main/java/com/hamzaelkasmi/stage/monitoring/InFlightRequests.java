@@ -0,0 +1,98 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The single tracker of requests inside the application.
+ * RequestTimingFilter counts every request in the total, monitored or not.
+ * PerformanceInterceptor also registers timed requests under the thread
+ * serving them while the handler runs, so the per-endpoint gauge is derived
+ * from that registry when read (nothing extra on the request path) and
+ * background samplers can find long-running requests and inspect their
+ * threads. An async request (SSE stream, analytics) waiting for its result
+ * holds no thread: it stays in the total until it completes, but not in
+ * the per-endpoint gauge.
+ */
+@Component
+public class InFlightRequests {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder started = new LongAdder();
+    private final ConcurrentHashMap<Thread, Entry> byThread = new ConcurrentHashMap<>();
+
+    public void requestStarted() {
+        inFlight.incrementAndGet();
+        started.increment();
+    }
+
+    public void requestEnded() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Requests currently inside the application
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Requests received since startup
+     */
+    public long getStartedCount() {
+        return started.sum();
+    }
+
+    /**
+     * Register the timed request running on this thread
+     */
+    public Entry started(String endpoint, long startNanos) {
+        Thread thread = Thread.currentThread();
+        Entry entry = new Entry(endpoint, startNanos, thread);
+        byThread.put(thread, entry);
+        return entry;
+    }
+
+    /**
+     * Remove the request running on this thread, if any
+     */
+    public void finished() {
+        byThread.remove(Thread.currentThread());
+    }
+
+    /**
+     * True while the entry is still the request running on its thread
+     */
+    public boolean isCurrent(Entry entry) {
+        return byThread.get(entry.thread()) == entry;
+    }
+
+    public Collection<Entry> getEntries() {
+        return byThread.values();
+    }
+
+    public int size() {
+        return byThread.size();
+    }
+
+    /**
+     * Timed requests currently in a handler, per endpoint
+     */
+    public Map<String, Integer> countByEndpoint() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Entry entry : byThread.values()) {
+            counts.merge(entry.endpoint(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    public record Entry(String endpoint, long startNanos, Thread thread) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear latency histogram.
+ * Values are recorded in microseconds. Each power of two is split into
+ * 16 linear sub-buckets, so any reported percentile is within ~6% of the
+ * real value while the whole histogram stays a fixed size.
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // Values above 2^36 microseconds (~19 hours) are clamped into the last bucket
+    static final int MAX_EXPONENT = 36;
+    public static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+    public static final long MAX_TRACKABLE_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record one value, in microseconds
+     */
+    public void record(long micros) {
+        buckets[bucketIndex(micros)].increment();
+    }
+
+    /**
+     * Copy the current bucket counts. The copy is not an atomic snapshot,
+     * but every count in it is monotonic so it is safe to diff against an
+     * older copy.
+     */
+    public long[] snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public static int bucketIndex(long micros) {
+        if (micros <= 0) {
+            return 0;
+        }
+        if (micros > MAX_TRACKABLE_MICROS) {
+            micros = MAX_TRACKABLE_MICROS;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(micros);
+        if (msb < SUB_BUCKET_BITS) {
+            return (int) micros;
+        }
+        int shift = msb - SUB_BUCKET_BITS;
+        int mantissa = (int) (micros >>> shift);
+        return (shift + 1) * SUB_BUCKET_COUNT + (mantissa - SUB_BUCKET_COUNT);
+    }
+
+    public static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long mantissa = SUB_BUCKET_COUNT + (index % SUB_BUCKET_COUNT);
+        return mantissa << shift;
+    }
+
+    public static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long mantissa = SUB_BUCKET_COUNT + (index % SUB_BUCKET_COUNT);
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Value at the given percentile (0-100) of a bucket-count array, in microseconds.
+     * Returns the midpoint of the bucket holding that rank.
+     */
+    public static long valueAtPercentile(long[] counts, double percentile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil((percentile / 100.0) * total);
+        rank = Math.max(1, Math.min(total, rank));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return (bucketLowerBound(i) + bucketUpperBound(i)) / 2;
+            }
+        }
+        return bucketUpperBound(counts.length - 1);
+    }
+
+    /**
+     * Element-wise difference of two snapshots, used for windowed views
+     */
+    public static long[] subtract(long[] current, long[] previous) {
+        long[] delta = new long[current.length];
+        for (int i = 0; i < current.length; i++) {
+            delta[i] = previous == null ? current[i] : Math.max(0, current[i] - previous[i]);
+        }
+        return delta;
+    }
+
+    /**
+     * Encode the non-empty buckets as "index:count,index:count" for storage
+     */
+    public static String encode(long[] counts) {
+        StringBuilder encoded = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                if (encoded.length() > 0) {
+                    encoded.append(',');
+                }
+                encoded.append(i).append(':').append(counts[i]);
+            }
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * Add the buckets of an encoded histogram into the target counts
+     */
+    public static void decodeInto(String encoded, long[] target) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split(",")) {
+            int separator = pair.indexOf(':');
+            if (separator > 0) {
+                int index = Integer.parseInt(pair.substring(0, separator));
+                if (index >= 0 && index < target.length) {
+                    target[index] += Long.parseLong(pair.substring(separator + 1));
+                }
+            }
+        }
+    }
+}
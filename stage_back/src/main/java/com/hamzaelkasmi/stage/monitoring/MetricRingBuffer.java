@@ -0,0 +1,71 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer / single-consumer ring buffer.
+ * Producers claim a slot with a CAS on the tail and never block: when the
+ * buffer is full {@link #offer} returns false and the caller decides what
+ * to do with the element. Only one thread at a time may call
+ * {@link #drainTo}.
+ */
+public class MetricRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    public MetricRingBuffer(int requestedCapacity) {
+        int size = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    public boolean offer(T element) {
+        while (true) {
+            long currentTail = tail.get();
+            if (currentTail - head >= capacity) {
+                return false;
+            }
+            if (tail.compareAndSet(currentTail, currentTail + 1)) {
+                slots.lazySet((int) (currentTail & mask), element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Move up to maxElements published elements into the target list
+     */
+    public int drainTo(List<T> target, int maxElements) {
+        long currentHead = head;
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = (int) (currentHead & mask);
+            T element = slots.get(index);
+            if (element == null) {
+                // Either empty or a producer has claimed the slot but not published yet
+                break;
+            }
+            slots.lazySet(index, null);
+            target.add(element);
+            currentHead++;
+            drained++;
+        }
+        head = currentHead;
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,41 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Shared table names and timestamp handling for the metrics tables.
+ * Instants are always stored as UTC wall-clock time, the same way
+ * Hibernate stores the Instant fields of the mapped entities.
+ */
+public final class MetricsJdbc {
+
+    public static final String RAW_TABLE = "api_call_metrics";
+    public static final String MINUTE_TABLE = "api_call_metrics_1m";
+    public static final String HOUR_TABLE = "api_call_metrics_1h";
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private MetricsJdbc() {
+    }
+
+    /**
+     * A fresh UTC calendar; Calendar is not thread-safe so it is never shared
+     */
+    public static Calendar utcCalendar() {
+        return Calendar.getInstance(UTC);
+    }
+
+    public static Timestamp toTimestamp(Instant instant) {
+        return Timestamp.from(instant);
+    }
+
+    public static Instant getInstant(ResultSet rs, int column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column, utcCalendar());
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
@@ -0,0 +1,388 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+/**
+ * Statement that times its executions by SQL fingerprint. Query results
+ * come back as MonitoredResultSet so the rows read are counted too, and
+ * getConnection() answers the monitored connection, never the pooled one.
+ */
+class MonitoredStatement implements Statement {
+
+    private final Statement target;
+    private final MonitoredConnection connection;
+    // SQL given to prepareStatement; plain statements pass it to execute* instead
+    private final String preparedSql;
+    private final SqlMetricsRegistry registry;
+    // Metrics of the last execution, which getResultSet() rows are counted under
+    private StatementMetrics lastMetrics;
+    private MonitoredResultSet currentResultSet;
+
+    MonitoredStatement(Statement target, MonitoredConnection connection, String preparedSql,
+                       SqlMetricsRegistry registry) {
+        this.target = target;
+        this.connection = connection;
+        this.preparedSql = preparedSql;
+        this.registry = registry;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        return timed(sql, () -> target.executeQuery(sql));
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        return timed(sql, () -> target.executeUpdate(sql));
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        return timed(sql, () -> target.execute(sql));
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        return timed(null, () -> target.executeBatch());
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return timed(sql, () -> target.executeUpdate(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return timed(sql, () -> target.executeUpdate(sql, columnIndexes));
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        return timed(sql, () -> target.executeUpdate(sql, columnNames));
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        return timed(sql, () -> target.execute(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        return timed(sql, () -> target.execute(sql, columnIndexes));
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        return timed(sql, () -> target.execute(sql, columnNames));
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        return timed(null, () -> target.executeLargeBatch());
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        return timed(sql, () -> target.executeLargeUpdate(sql));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return timed(sql, () -> target.executeLargeUpdate(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return timed(sql, () -> target.executeLargeUpdate(sql, columnIndexes));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        return timed(sql, () -> target.executeLargeUpdate(sql, columnNames));
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(target) ? iface.cast(target) : target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(target) || target.isWrapperFor(iface);
+    }
+
+    /**
+     * Run one execution, recording its time and the rows it returned or changed
+     * under the statement's SQL (see SqlMetricsRegistry)
+     *
+     * @param sql SQL passed to execute*, or null for a prepared statement
+     */
+    final <R> R timed(String sql, JdbcCall<R> call) throws SQLException {
+        if (preparedSql != null) {
+            sql = preparedSql;
+        } else if (sql == null) {
+            // executeBatch on a plain Statement: the SQL was added piecemeal
+            sql = "batch";
+        }
+        StatementMetrics metrics = registry.statement(sql);
+        lastMetrics = metrics;
+        long start = System.nanoTime();
+        boolean successful = false;
+        try {
+            R result = call.call();
+            successful = true;
+            return countRows(metrics, result);
+        } finally {
+            metrics.record((System.nanoTime() - start) / 1000, successful);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R countRows(StatementMetrics metrics, R result) {
+        if (result instanceof ResultSet resultSet) {
+            return (R) wrap(resultSet, metrics);
+        }
+        if (result instanceof Integer updated && updated > 0) {
+            metrics.addRows(updated);
+        } else if (result instanceof Long updated && updated > 0) {
+            metrics.addRows(updated);
+        } else if (result instanceof int[] batch) {
+            for (int updated : batch) {
+                if (updated > 0) {
+                    metrics.addRows(updated);
+                }
+            }
+        } else if (result instanceof long[] batch) {
+            for (long updated : batch) {
+                if (updated > 0) {
+                    metrics.addRows(updated);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Wrap a result set of this statement, reusing the wrapper when the driver
+     * hands the same one out again (executeQuery then getResultSet)
+     *
+     * @param metrics where its rows are counted, or null to leave them out
+     */
+    private ResultSet wrap(ResultSet resultSet, StatementMetrics metrics) {
+        if (resultSet == null) {
+            return null;
+        }
+        if (currentResultSet == null || !currentResultSet.wraps(resultSet)) {
+            currentResultSet = new MonitoredResultSet(resultSet, this, metrics);
+        }
+        return currentResultSet;
+    }
+
+    @FunctionalInterface
+    interface JdbcCall<R> {
+        R call() throws SQLException;
+    }
+
+
+    @Override
+    public void close() throws SQLException {
+        target.close();
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return target.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        target.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return target.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        target.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        target.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return target.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        target.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        target.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return target.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        target.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        target.setCursorName(name);
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        // After execute(): the rows belong to the execution that produced them
+        return wrap(target.getResultSet(), lastMetrics);
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return target.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return target.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        target.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return target.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        target.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return target.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return target.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return target.getResultSetType();
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        target.addBatch(sql);
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        target.clearBatch();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection;
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return target.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        // The insert already counted the rows it changed
+        ResultSet keys = target.getGeneratedKeys();
+        return keys == null ? null : new MonitoredResultSet(keys, this, null);
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return target.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return target.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        target.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return target.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        target.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return target.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return target.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        target.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return target.getLargeMaxRows();
+    }
+
+    @Override
+    public String enquoteLiteral(String val) throws SQLException {
+        return target.enquoteLiteral(val);
+    }
+
+    @Override
+    public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+        return target.enquoteIdentifier(identifier, alwaysQuote);
+    }
+
+    @Override
+    public boolean isSimpleIdentifier(String identifier) throws SQLException {
+        return target.isSimpleIdentifier(identifier);
+    }
+
+    @Override
+    public String enquoteNCharLiteral(String val) throws SQLException {
+        return target.enquoteNCharLiteral(val);
+    }
+}
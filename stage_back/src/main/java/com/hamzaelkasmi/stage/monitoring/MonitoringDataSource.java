@@ -0,0 +1,45 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource wrapper that times every JDBC statement by SQL fingerprint.
+ * It sits below Hibernate, JdbcTemplate and the raw JDBC in the ID
+ * generators alike, so native queries are measured the same way as
+ * generated ones. Connections, statements and result sets are wrapped in
+ * plain delegating classes (MonitoredConnection and friends); only
+ * execute*, ResultSet.next() and Connection.close() do extra work, every
+ * other call is a direct call on the driver's object. Acquire and release
+ * also feed the current request's connection hold time (see SqlStatistics).
+ */
+public class MonitoringDataSource extends DelegatingDataSource {
+
+    private final SqlMetricsRegistry registry;
+
+    public MonitoringDataSource(DataSource target, SqlMetricsRegistry registry) {
+        super(target);
+        this.registry = registry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        registry.recordConnectionAcquire((System.nanoTime() - start) / 1000);
+        SqlStatistics.connectionAcquired();
+        return new MonitoredConnection(connection, registry);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        registry.recordConnectionAcquire((System.nanoTime() - start) / 1000);
+        SqlStatistics.connectionAcquired();
+        return new MonitoredConnection(connection, registry);
+    }
+}
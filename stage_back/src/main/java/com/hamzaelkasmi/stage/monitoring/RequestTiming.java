@@ -0,0 +1,70 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import jakarta.servlet.ServletRequest;
+
+/**
+ * Request attribute names and helpers for per-phase request timing.
+ * Each stage of the request stamps a System.nanoTime() value on the
+ * request so the interceptor can split the total into phases at the end.
+ */
+public final class RequestTiming {
+
+    /** Set by RequestTimingFilter before any other filter runs */
+    public static final String FILTER_START = RequestTiming.class.getName() + ".filterStart";
+    /** Nanoseconds spent validating the JWT in JwtAuthenticationFilter */
+    public static final String JWT_NANOS = RequestTiming.class.getName() + ".jwtNanos";
+    /** Set in PerformanceInterceptor.preHandle, just before the controller runs */
+    public static final String HANDLER_START = RequestTiming.class.getName() + ".handlerStart";
+    /** Set in ResponseTimingAdvice, just before the body is serialized */
+    public static final String BODY_WRITE_START = RequestTiming.class.getName() + ".bodyWriteStart";
+    /** Thread CPU time and allocated bytes at HANDLER_START (see ThreadResources) */
+    public static final String HANDLER_CPU_START = RequestTiming.class.getName() + ".handlerCpuStart";
+    public static final String HANDLER_ALLOCATED_START = RequestTiming.class.getName() + ".handlerAllocatedStart";
+
+    private RequestTiming() {
+    }
+
+    /**
+     * True if RequestTimingFilter started timing this request, i.e. monitoring
+     * was enabled when it arrived. Later stages skip their work otherwise.
+     */
+    public static boolean isTimed(ServletRequest request) {
+        return request.getAttribute(FILTER_START) != null;
+    }
+
+    public static void mark(ServletRequest request, String attribute) {
+        request.setAttribute(attribute, System.nanoTime());
+    }
+
+    public static long get(ServletRequest request, String attribute) {
+        Object value = request.getAttribute(attribute);
+        return value instanceof Long ? (Long) value : 0L;
+    }
+
+    /**
+     * Split a finished request into phases, all in nanoseconds.
+     *
+     * @param endNanos System.nanoTime() when the response was complete
+     */
+    public static Phases phases(ServletRequest request, long endNanos) {
+        long filterStart = get(request, FILTER_START);
+        long handlerStart = get(request, HANDLER_START);
+        long bodyWriteStart = get(request, BODY_WRITE_START);
+        long jwt = get(request, JWT_NANOS);
+
+        long start = filterStart > 0 ? filterStart : handlerStart;
+        long handlerEnd = bodyWriteStart > 0 ? bodyWriteStart : endNanos;
+        long filters = filterStart > 0 && handlerStart > 0 ? Math.max(0, handlerStart - filterStart - jwt) : 0;
+        long handler = handlerStart > 0 ? Math.max(0, handlerEnd - handlerStart) : 0;
+        long serialization = bodyWriteStart > 0 ? Math.max(0, endNanos - bodyWriteStart) : 0;
+        long total = start > 0 ? Math.max(0, endNanos - start) : 0;
+        return new Phases(filters, jwt, handler, serialization, total);
+    }
+
+    /**
+     * Time spent in each phase of one request, in nanoseconds
+     */
+    public record Phases(long filterNanos, long jwtNanos, long handlerNanos, long serializationNanos,
+                         long totalNanos) {
+    }
+}
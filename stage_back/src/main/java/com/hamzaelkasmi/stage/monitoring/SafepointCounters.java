@@ -0,0 +1,59 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.JvmMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+
+/**
+ * Safepoint count and time from HotSpot's internal runtime MBean.
+ * The class lives in a package the JDK does not export, so the counters are
+ * only available when the JVM runs with
+ * --add-exports java.management/sun.management=ALL-UNNAMED; otherwise they
+ * stay at -1.
+ */
+class SafepointCounters {
+    private static final Logger logger = LoggerFactory.getLogger(SafepointCounters.class);
+
+    private final Object runtime;
+    private final Method count;
+    private final Method time;
+    private final Method syncTime;
+
+    SafepointCounters() {
+        Object bean = null;
+        Method countMethod = null;
+        Method timeMethod = null;
+        Method syncTimeMethod = null;
+        try {
+            Class<?> helper = Class.forName("sun.management.ManagementFactoryHelper");
+            bean = helper.getMethod("getHotspotRuntimeMBean").invoke(null);
+            Class<?> runtimeClass = Class.forName("sun.management.HotspotRuntimeMBean");
+            countMethod = runtimeClass.getMethod("getSafepointCount");
+            timeMethod = runtimeClass.getMethod("getTotalSafepointTime");
+            syncTimeMethod = runtimeClass.getMethod("getSafepointSyncTime");
+            countMethod.invoke(bean);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            logger.debug("Safepoint counters not available: {}", e.toString());
+            bean = null;
+        }
+        this.runtime = bean;
+        this.count = countMethod;
+        this.time = timeMethod;
+        this.syncTime = syncTimeMethod;
+    }
+
+    void sample(JvmMetrics jvm) {
+        if (runtime == null) {
+            return;
+        }
+        try {
+            jvm.setSafepointCount((Long) count.invoke(runtime));
+            jvm.setSafepointTime((Long) time.invoke(runtime));
+            jvm.setSafepointSyncTime((Long) syncTime.invoke(runtime));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Could not read safepoint counters: {}", e.getMessage());
+        }
+    }
+}
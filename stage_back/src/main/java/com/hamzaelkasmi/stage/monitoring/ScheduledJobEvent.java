@@ -0,0 +1,22 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one run of a scheduled job
+ */
+@Name("com.hamzaelkasmi.stage.ScheduledJob")
+@Label("Scheduled Job")
+@Category({"Stage", "Jobs"})
+@Description("One run of a scheduled job and the number of rows it processed")
+public class ScheduledJobEvent extends jdk.jfr.Event {
+
+    @Label("Job")
+    public String job;
+
+    @Label("Rows Processed")
+    public int rowsProcessed;
+}
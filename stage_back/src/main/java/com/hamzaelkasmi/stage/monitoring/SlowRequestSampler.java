@@ -0,0 +1,132 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.FlameGraphNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watchdog that samples the stacks of requests running longer than a soft
+ * threshold, so a slow request shows where it spent its time and not only
+ * how long it took. Runs on its own daemon thread; request threads only
+ * register themselves in InFlightRequests.
+ * Samples are merged per endpoint into bounded collapsed-stack profiles.
+ */
+@Component
+public class SlowRequestSampler {
+    private static final Logger logger = LoggerFactory.getLogger(SlowRequestSampler.class);
+
+    private final InFlightRequests inFlightRequests;
+    private final long softThresholdNanos;
+    private final long intervalMs;
+    private final int maxEndpoints;
+    private final int maxStacksPerEndpoint;
+    private final int maxDepth;
+
+    private final Map<String, StackProfile> profiles = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slow-request-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SlowRequestSampler(InFlightRequests inFlightRequests,
+                              @Value("${performance.monitoring.slow-requests.soft-threshold-ms:1000}") long softThresholdMs,
+                              @Value("${performance.monitoring.slow-requests.interval-ms:100}") long intervalMs,
+                              @Value("${performance.monitoring.slow-requests.max-endpoints:50}") int maxEndpoints,
+                              @Value("${performance.monitoring.slow-requests.max-stacks-per-endpoint:500}") int maxStacksPerEndpoint,
+                              @Value("${performance.monitoring.slow-requests.max-depth:128}") int maxDepth) {
+        this.inFlightRequests = inFlightRequests;
+        this.softThresholdNanos = TimeUnit.MILLISECONDS.toNanos(softThresholdMs);
+        this.intervalMs = Math.max(10, intervalMs);
+        this.maxEndpoints = maxEndpoints;
+        this.maxStacksPerEndpoint = maxStacksPerEndpoint;
+        this.maxDepth = maxDepth;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::sampleSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (Exception e) {
+            // An exception must not cancel the schedule
+            logger.warn("Slow request sampling failed: {}", e.getMessage());
+        }
+    }
+
+    void sample() {
+        if (inFlightRequests.size() == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (InFlightRequests.Entry entry : inFlightRequests.getEntries()) {
+            if (now - entry.startNanos() < softThresholdNanos) {
+                continue;
+            }
+            StackTraceElement[] frames = entry.thread().getStackTrace();
+            // The request may have finished while the stack was being taken
+            if (!inFlightRequests.isCurrent(entry)) {
+                continue;
+            }
+            StackProfile profile = profiles.get(entry.endpoint());
+            if (profile == null) {
+                if (profiles.size() >= maxEndpoints) {
+                    continue;
+                }
+                profile = profiles.computeIfAbsent(entry.endpoint(),
+                        endpoint -> new StackProfile(maxStacksPerEndpoint, maxDepth));
+            }
+            profile.add(frames);
+        }
+    }
+
+    /**
+     * Number of stack samples taken per endpoint
+     */
+    public Map<String, Long> getSampleCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        profiles.forEach((endpoint, profile) -> counts.put(endpoint, profile.getSamples()));
+        return counts;
+    }
+
+    /**
+     * Flame graph for one endpoint, or all endpoints merged (one child per endpoint) when endpoint is null.
+     * Returns null for an endpoint without samples.
+     */
+    public FlameGraphNode getFlameGraph(String endpoint) {
+        if (endpoint != null) {
+            StackProfile profile = profiles.get(endpoint);
+            return profile != null ? profile.toFlameGraph(endpoint) : null;
+        }
+        FlameGraphNode root = new FlameGraphNode("all");
+        profiles.forEach((name, profile) -> {
+            FlameGraphNode child = root.child(name);
+            StackProfile.merge(child, profile.getStacks());
+            root.setValue(root.getValue() + child.getValue());
+        });
+        return root;
+    }
+
+    public void clear() {
+        profiles.clear();
+    }
+}
@@ -0,0 +1,64 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.SqlMetrics;
+import com.hamzaelkasmi.stage.model.SqlStatementStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statement and connection-acquire statistics collected by MonitoringDataSource.
+ * Fingerprints are capped like endpoint keys; once the cap is reached new
+ * statements are counted under "OTHER".
+ */
+@Component
+public class SqlMetricsRegistry {
+
+    private final EndpointRegistry<StatementMetrics> statements;
+
+    private final LatencyHistogram acquireHistogram = new LatencyHistogram();
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireMicros = new LongAdder();
+    private final LongAccumulator acquireMaxMicros = new LongAccumulator(Math::max, 0);
+
+    public SqlMetricsRegistry(@Value("${performance.monitoring.sql.max-fingerprints:500}") int maxFingerprints) {
+        this.statements = new EndpointRegistry<>(maxFingerprints, StatementMetrics::new);
+    }
+
+    public StatementMetrics statement(String sql) {
+        return statements.get(SqlFingerprint.of(sql));
+    }
+
+    public void recordConnectionAcquire(long micros) {
+        acquireHistogram.record(micros);
+        acquireCount.increment();
+        acquireMicros.add(micros);
+        acquireMaxMicros.accumulate(micros);
+    }
+
+    public SqlMetrics getSqlMetrics() {
+        long count = acquireCount.sum();
+        SqlMetrics metrics = new SqlMetrics();
+        metrics.setConnectionAcquireCount(count);
+        metrics.setConnectionAcquireAverage(count == 0 ? 0 : acquireMicros.sum() / 1000.0 / count);
+        metrics.setConnectionAcquireP99(LatencyHistogram.valueAtPercentile(acquireHistogram.snapshot(), 99) / 1000.0);
+        metrics.setConnectionAcquireMax(acquireMaxMicros.get() / 1000.0);
+
+        List<SqlStatementStats> stats = new ArrayList<>();
+        for (StatementMetrics statement : statements.values()) {
+            SqlStatementStats statementStats = statement.toStats();
+            if (statementStats.getCount() > 0) {
+                stats.add(statementStats);
+            }
+        }
+        // The statements that dominate database time come first
+        stats.sort(Comparator.comparingDouble(SqlStatementStats::getTotalTime).reversed());
+        metrics.setStatements(stats);
+        return metrics;
+    }
+}
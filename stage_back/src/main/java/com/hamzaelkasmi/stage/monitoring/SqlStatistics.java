@@ -0,0 +1,154 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import jakarta.servlet.ServletRequest;
+
+/**
+ * SQL work done by the current request: statements executed, entities
+ * loaded, collections fetched, time spent in JDBC and how long a pooled
+ * connection was held.
+ * Hibernate callbacks carry no reference to the HTTP request, so the
+ * counters live in a thread-local opened by RequestTimingFilter and read
+ * by PerformanceInterceptor. The same counters are also stored on the
+ * request, so an async request can attach them to the executor threads that
+ * run its work and the interceptor can read them on the async dispatch.
+ * Several threads may count into the same instance at once, so updates
+ * lock the instance (uncontended for ordinary requests). Other background
+ * work (schedulers) is not attributed to any request.
+ */
+public final class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+    /** Request attribute holding the counters of a timed request */
+    public static final String REQUEST_ATTRIBUTE = SqlStatistics.class.getName();
+
+    private int statements;
+    private int entitiesLoaded;
+    private int collectionsFetched;
+    private long jdbcNanos;
+    // Time during which the request held at least one pooled connection
+    private int openConnections;
+    private long connectionAcquiredAt;
+    private long connectionHoldNanos;
+
+    private SqlStatistics() {
+    }
+
+    /**
+     * Start counting for the request running on this thread
+     */
+    public static SqlStatistics begin() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * Counters of the request running on this thread, or null outside a timed request
+     */
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Count the work of this thread into a request started elsewhere, until end().
+     * Null leaves the thread without counters.
+     */
+    public static void attach(SqlStatistics statistics) {
+        if (statistics != null) {
+            CURRENT.set(statistics);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Counters of a timed request, from any thread
+     */
+    public static SqlStatistics of(ServletRequest request) {
+        Object statistics = request.getAttribute(REQUEST_ATTRIBUTE);
+        return statistics instanceof SqlStatistics ? (SqlStatistics) statistics : null;
+    }
+
+    static void statementExecuted(long nanos) {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            synchronized (statistics) {
+                statistics.statements++;
+                statistics.jdbcNanos += nanos;
+            }
+        }
+    }
+
+    static void connectionAcquired() {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            synchronized (statistics) {
+                if (statistics.openConnections++ == 0) {
+                    statistics.connectionAcquiredAt = System.nanoTime();
+                }
+            }
+        }
+    }
+
+    static void connectionReleased() {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            synchronized (statistics) {
+                if (statistics.openConnections > 0 && --statistics.openConnections == 0) {
+                    statistics.connectionHoldNanos += System.nanoTime() - statistics.connectionAcquiredAt;
+                }
+            }
+        }
+    }
+
+    static void entityLoaded() {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            synchronized (statistics) {
+                statistics.entitiesLoaded++;
+            }
+        }
+    }
+
+    static void collectionFetched() {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            synchronized (statistics) {
+                statistics.collectionsFetched++;
+            }
+        }
+    }
+
+    public synchronized int getStatements() {
+        return statements;
+    }
+
+    public synchronized int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public synchronized int getCollectionsFetched() {
+        return collectionsFetched;
+    }
+
+    public synchronized long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    /**
+     * Connection hold time up to nowNanos. A connection still open at that
+     * point (open-session-in-view releases it after the response is written)
+     * counts until nowNanos.
+     */
+    public synchronized long getConnectionHoldNanos(long nowNanos) {
+        long held = connectionHoldNanos;
+        if (openConnections > 0) {
+            held += nowNanos - connectionAcquiredAt;
+        }
+        return held;
+    }
+}
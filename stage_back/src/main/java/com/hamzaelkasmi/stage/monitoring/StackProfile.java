@@ -0,0 +1,105 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.FlameGraphNode;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sampled stack traces merged into collapsed-stack counts
+ * ("root;caller;leaf" -> samples), the input format of flame graphs.
+ * The number of distinct stacks is capped; samples of new stacks past the
+ * cap are counted under a single overflow stack so totals stay correct.
+ */
+public class StackProfile {
+
+    static final String TRUNCATED_FRAME = "[truncated]";
+    static final String OVERFLOW_STACK = "[other stacks]";
+
+    private final int maxStacks;
+    private final int maxDepth;
+    private final Map<String, long[]> stacks = new HashMap<>();
+    private long samples;
+
+    public StackProfile(int maxStacks, int maxDepth) {
+        this.maxStacks = Math.max(1, maxStacks);
+        this.maxDepth = Math.max(1, maxDepth);
+    }
+
+    public void add(StackTraceElement[] frames) {
+        if (frames.length > 0) {
+            add(collapse(frames, maxDepth));
+        }
+    }
+
+    /**
+     * Count one sample of an already collapsed stack
+     */
+    public synchronized void add(String stack) {
+        long[] count = stacks.get(stack);
+        if (count == null) {
+            // At the cap only the overflow entry may be added (so the map holds at most maxStacks + 1)
+            count = stacks.computeIfAbsent(stacks.size() < maxStacks ? stack : OVERFLOW_STACK, key -> new long[1]);
+        }
+        count[0]++;
+        samples++;
+    }
+
+    public synchronized void clear() {
+        stacks.clear();
+        samples = 0;
+    }
+
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+    /**
+     * Collapsed stacks and their sample counts
+     */
+    public synchronized Map<String, Long> getStacks() {
+        Map<String, Long> copy = new LinkedHashMap<>();
+        stacks.forEach((stack, count) -> copy.put(stack, count[0]));
+        return copy;
+    }
+
+    public FlameGraphNode toFlameGraph(String rootName) {
+        FlameGraphNode root = new FlameGraphNode(rootName);
+        merge(root, getStacks());
+        return root;
+    }
+
+    /**
+     * Add collapsed stacks under the given node
+     */
+    public static void merge(FlameGraphNode root, Map<String, Long> collapsed) {
+        collapsed.forEach((stack, count) -> {
+            root.setValue(root.getValue() + count);
+            FlameGraphNode node = root;
+            for (String frame : stack.split(";")) {
+                node = node.child(frame);
+                node.setValue(node.getValue() + count);
+            }
+        });
+    }
+
+    /**
+     * Root-first "frame;frame;frame" string. Stacks deeper than maxDepth
+     * keep the frames nearest the leaf, under a [truncated] root.
+     */
+    static String collapse(StackTraceElement[] frames, int maxDepth) {
+        int depth = Math.min(frames.length, maxDepth);
+        StringBuilder collapsed = new StringBuilder(depth * 48);
+        if (frames.length > maxDepth) {
+            collapsed.append(TRUNCATED_FRAME);
+        }
+        for (int i = depth - 1; i >= 0; i--) {
+            if (collapsed.length() > 0) {
+                collapsed.append(';');
+            }
+            collapsed.append(frames[i].getClassName()).append('.').append(frames[i].getMethodName());
+        }
+        return collapsed.toString();
+    }
+}
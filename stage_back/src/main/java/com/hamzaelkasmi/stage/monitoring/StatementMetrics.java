@@ -0,0 +1,67 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.SqlStatementStats;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative counters for one SQL fingerprint
+ */
+public class StatementMetrics {
+
+    private final String fingerprint;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+    // Rows read from result sets plus rows reported by updates
+    private final LongAdder rows = new LongAdder();
+
+    public StatementMetrics(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public void record(long micros, boolean successful) {
+        histogram.record(micros);
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+        if (!successful) {
+            errors.increment();
+        }
+    }
+
+    public void addRows(long rowCount) {
+        rows.add(rowCount);
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public long getTotalMicros() {
+        return totalMicros.sum();
+    }
+
+    public SqlStatementStats toStats() {
+        long[] counts = histogram.snapshot();
+        long executions = count.sum();
+        long rowCount = rows.sum();
+
+        SqlStatementStats stats = new SqlStatementStats();
+        stats.setFingerprint(fingerprint);
+        stats.setCount(executions);
+        stats.setErrorCount(errors.sum());
+        stats.setTotalTime(getTotalMicros() / 1000.0);
+        stats.setAverage(executions == 0 ? 0 : getTotalMicros() / 1000.0 / executions);
+        stats.setP50(LatencyHistogram.valueAtPercentile(counts, 50) / 1000.0);
+        stats.setP99(LatencyHistogram.valueAtPercentile(counts, 99) / 1000.0);
+        stats.setMax(maxMicros.get() / 1000.0);
+        stats.setRows(rowCount);
+        stats.setAverageRows(executions == 0 ? 0 : rowCount / (double) executions);
+        return stats;
+    }
+}
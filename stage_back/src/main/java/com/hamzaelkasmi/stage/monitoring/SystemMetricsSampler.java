@@ -0,0 +1,308 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.JvmMetrics;
+import com.hamzaelkasmi.stage.model.SystemMetrics;
+import com.sun.management.GcInfo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Samples host and JVM resource usage on a single background thread.
+ * CPU is computed from the difference between two /proc/stat readings, so
+ * it reflects the load over the last interval rather than the average
+ * since boot. Readers get the latest snapshot without doing any I/O and
+ * no child process is ever started.
+ * JVM internals (GC, memory pools, threads...) are read on the same thread,
+ * so no MXBean call is ever made from the request path.
+ */
+@Component
+public class SystemMetricsSampler {
+    private static final Logger logger = LoggerFactory.getLogger(SystemMetricsSampler.class);
+
+    private static final Path PROC_STAT = Paths.get("/proc/stat");
+    private static final Path PROC_MEMINFO = Paths.get("/proc/meminfo");
+
+    private final long intervalMs;
+    private final Path procStat;
+    // Host CPU load as a fraction, negative when unknown; used until two /proc/stat readings exist
+    private final DoubleSupplier fallbackCpuLoad;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "system-metrics-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final boolean procAvailable;
+    private long previousCpuTotal;
+    private long previousCpuIdle;
+
+    private final Map<String, long[]> previousGcCounts = new HashMap<>();
+    private final SafepointCounters safepoints = new SafepointCounters();
+
+    private volatile SystemMetrics latest = new SystemMetrics();
+
+    public SystemMetricsSampler(@Value("${performance.monitoring.sampler.interval-ms:2000}") long intervalMs) {
+        this(intervalMs, PROC_STAT, SystemMetricsSampler::jvmCpuLoad);
+    }
+
+    SystemMetricsSampler(long intervalMs, Path procStat, DoubleSupplier fallbackCpuLoad) {
+        this.intervalMs = Math.max(100, intervalMs);
+        this.procStat = procStat;
+        this.fallbackCpuLoad = fallbackCpuLoad;
+        this.procAvailable = Files.isReadable(procStat);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleAtFixedRate(this::sampleSafely, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Latest snapshot. Never blocks; the returned object must not be modified.
+     */
+    public SystemMetrics getLatest() {
+        return latest;
+    }
+
+    private void sampleSafely() {
+        try {
+            latest = sample();
+        } catch (Exception e) {
+            // Keep the previous snapshot, an exception must not cancel the schedule
+            logger.warn("System metrics sampling failed: {}", e.getMessage());
+        }
+    }
+
+    SystemMetrics sample() {
+        SystemMetrics metrics = new SystemMetrics();
+        metrics.setCpu(sampleCpu());
+        metrics.setProcessCpu(sampleProcessCpu());
+        metrics.setMemory(sampleHeapUsage());
+        metrics.setSystemMemory(sampleSystemMemory());
+        metrics.setDiskSpace(sampleDiskSpace());
+        metrics.setJvm(sampleJvm());
+        metrics.setTimestamp(Instant.now());
+        return metrics;
+    }
+
+    /**
+     * Host CPU usage in percent over the last sampling interval
+     */
+    double sampleCpu() {
+        if (procAvailable) {
+            try (BufferedReader reader = Files.newBufferedReader(procStat)) {
+                String line = reader.readLine();
+                if (line != null && line.startsWith("cpu ")) {
+                    String[] values = line.trim().split("\\s+");
+                    long total = 0;
+                    // user nice system idle iowait irq softirq steal (guest is already in user)
+                    for (int i = 1; i < Math.min(values.length, 9); i++) {
+                        total += Long.parseLong(values[i]);
+                    }
+                    long idle = Long.parseLong(values[4]) + (values.length > 5 ? Long.parseLong(values[5]) : 0);
+
+                    long totalDelta = total - previousCpuTotal;
+                    long idleDelta = idle - previousCpuIdle;
+                    boolean firstSample = previousCpuTotal == 0;
+                    previousCpuTotal = total;
+                    previousCpuIdle = idle;
+                    if (!firstSample && totalDelta > 0) {
+                        return clampPercent((totalDelta - idleDelta) * 100.0 / totalDelta);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Could not read /proc/stat: {}", e.getMessage());
+            }
+        }
+        // Not Linux, or first sample: the JVM's own view of host load
+        double load = fallbackCpuLoad.getAsDouble();
+        return load >= 0 ? clampPercent(load * 100.0) : 0;
+    }
+
+    private static double jvmCpuLoad() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean osBean) {
+            return osBean.getCpuLoad();
+        }
+        return -1;
+    }
+
+    private double sampleProcessCpu() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean osBean) {
+            double load = osBean.getProcessCpuLoad();
+            if (load >= 0) {
+                return clampPercent(load * 100.0);
+            }
+        }
+        return 0;
+    }
+
+    private double sampleHeapUsage() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long max = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+        return max > 0 ? clampPercent(heap.getUsed() * 100.0 / max) : 0;
+    }
+
+    /**
+     * Host memory in use, in percent, from MemTotal and MemAvailable
+     */
+    private double sampleSystemMemory() {
+        if (procAvailable) {
+            try {
+                long total = 0;
+                long available = 0;
+                List<String> lines = Files.readAllLines(PROC_MEMINFO);
+                for (String line : lines) {
+                    if (line.startsWith("MemTotal:")) {
+                        total = parseMeminfoValue(line);
+                    } else if (line.startsWith("MemAvailable:")) {
+                        available = parseMeminfoValue(line);
+                    }
+                }
+                if (total > 0) {
+                    return clampPercent((total - available) * 100.0 / total);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Could not read /proc/meminfo: {}", e.getMessage());
+            }
+        }
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean osBean) {
+            long total = osBean.getTotalMemorySize();
+            if (total > 0) {
+                return clampPercent((total - osBean.getFreeMemorySize()) * 100.0 / total);
+            }
+        }
+        return 0;
+    }
+
+    private long parseMeminfoValue(String line) {
+        String[] parts = line.trim().split("\\s+");
+        return parts.length >= 2 ? Long.parseLong(parts[1]) : 0;
+    }
+
+    private SystemMetrics.DiskSpace sampleDiskSpace() {
+        long total = 0;
+        long used = 0;
+        long free = 0;
+        for (Path root : FileSystems.getDefault().getRootDirectories()) {
+            try {
+                FileStore store = Files.getFileStore(root);
+                if (!store.isReadOnly()) {
+                    total += store.getTotalSpace();
+                    used += store.getTotalSpace() - store.getUnallocatedSpace();
+                    free += store.getUsableSpace();
+                }
+            } catch (IOException e) {
+                logger.debug("Could not get space info for root {}: {}", root, e.getMessage());
+            }
+        }
+        // Converted to MB
+        return new SystemMetrics.DiskSpace(total / (1024 * 1024), used / (1024 * 1024), free / (1024 * 1024));
+    }
+
+    /**
+     * GC, memory pool, buffer pool, thread, class loading and safepoint counters
+     */
+    private JvmMetrics sampleJvm() {
+        JvmMetrics jvm = new JvmMetrics();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            jvm.getGarbageCollectors().add(sampleCollector(collector));
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            jvm.getMemoryPools().add(sampleMemoryPool(pool));
+        }
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            JvmMetrics.BufferPool stats = new JvmMetrics.BufferPool();
+            stats.setName(pool.getName());
+            stats.setCount(pool.getCount());
+            stats.setMemoryUsed(pool.getMemoryUsed());
+            stats.setTotalCapacity(pool.getTotalCapacity());
+            jvm.getBufferPools().add(stats);
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        jvm.setThreadCount(threads.getThreadCount());
+        jvm.setPeakThreadCount(threads.getPeakThreadCount());
+        jvm.setDaemonThreadCount(threads.getDaemonThreadCount());
+        ClassLoadingMXBean classes = ManagementFactory.getClassLoadingMXBean();
+        jvm.setLoadedClassCount(classes.getLoadedClassCount());
+        jvm.setTotalLoadedClassCount(classes.getTotalLoadedClassCount());
+        jvm.setUnloadedClassCount(classes.getUnloadedClassCount());
+        safepoints.sample(jvm);
+        return jvm;
+    }
+
+    JvmMetrics.MemoryPool sampleMemoryPool(MemoryPoolMXBean pool) {
+        JvmMetrics.MemoryPool stats = new JvmMetrics.MemoryPool();
+        MemoryUsage usage = pool.getUsage();
+        stats.setName(pool.getName());
+        stats.setType(pool.getType().name());
+        stats.setUsed(usage.getUsed());
+        stats.setCommitted(usage.getCommitted());
+        stats.setMax(usage.getMax());
+        // Live data left by the last collection, null for pools no collector manages
+        MemoryUsage afterGc = pool.getCollectionUsage();
+        stats.setUsedAfterLastGc(afterGc != null ? afterGc.getUsed() : -1);
+        return stats;
+    }
+
+    JvmMetrics.GarbageCollector sampleCollector(GarbageCollectorMXBean collector) {
+        JvmMetrics.GarbageCollector stats = new JvmMetrics.GarbageCollector();
+        long count = collector.getCollectionCount();
+        long time = collector.getCollectionTime();
+        stats.setName(collector.getName());
+        stats.setCollectionCount(count);
+        stats.setCollectionTime(time);
+        // Difference with the previous sample; only the sampler thread touches the map
+        long[] previous = previousGcCounts.put(collector.getName(), new long[]{count, time});
+        if (previous != null) {
+            stats.setRecentCollections(Math.max(0, count - previous[0]));
+            stats.setRecentCollectionTime(Math.max(0, time - previous[1]));
+        }
+        stats.setLastPauseDuration(-1);
+        stats.setLastPauseStart(-1);
+        if (collector instanceof com.sun.management.GarbageCollectorMXBean hotspot) {
+            GcInfo lastGc = hotspot.getLastGcInfo();
+            if (lastGc != null) {
+                stats.setLastPauseDuration(lastGc.getDuration());
+                stats.setLastPauseStart(lastGc.getStartTime());
+            }
+        }
+        return stats;
+    }
+
+    private static double clampPercent(double value) {
+        return Math.max(0, Math.min(100.0, value));
+    }
+}
@@ -0,0 +1,39 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * CPU time and heap allocation of the current thread, from ThreadMXBean.
+ * Both are cumulative per thread, so a request's cost is the difference
+ * between two readings taken on the same thread. Each reading returns -1
+ * when the JVM does not support (or has disabled) the measurement.
+ */
+public final class ThreadResources {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    // Allocation counters are a HotSpot extension of the standard bean
+    private static final com.sun.management.ThreadMXBean HOTSPOT_THREADS =
+            THREADS instanceof com.sun.management.ThreadMXBean hotspot
+                    && hotspot.isThreadAllocatedMemorySupported()
+                    && hotspot.isThreadAllocatedMemoryEnabled() ? hotspot : null;
+    private static final boolean CPU_TIME_ENABLED =
+            THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+
+    private ThreadResources() {
+    }
+
+    /**
+     * Bytes allocated on the heap by the current thread since it started, or -1
+     */
+    public static long allocatedBytes() {
+        return HOTSPOT_THREADS != null ? HOTSPOT_THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * CPU time (user + system) used by the current thread since it started, or -1
+     */
+    public static long cpuNanos() {
+        return CPU_TIME_ENABLED ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+}
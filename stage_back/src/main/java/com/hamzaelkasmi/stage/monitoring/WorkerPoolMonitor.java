@@ -0,0 +1,59 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.WorkerPoolStats;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Reads the Tomcat connector's worker pool: busy and maximum threads and
+ * the queue of requests waiting for a worker. A non-empty queue means
+ * requests are already waiting before any application code runs.
+ */
+@Component
+public class WorkerPoolMonitor implements ApplicationListener<WebServerInitializedEvent> {
+
+    private volatile ProtocolHandler protocolHandler;
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        if (event.getWebServer() instanceof TomcatWebServer tomcat) {
+            protocolHandler = tomcat.getTomcat().getConnector().getProtocolHandler();
+        }
+    }
+
+    /**
+     * Current worker pool usage, or null when not running on Tomcat
+     */
+    public WorkerPoolStats getPoolStats() {
+        ProtocolHandler handler = protocolHandler;
+        if (handler == null) {
+            return null;
+        }
+        WorkerPoolStats stats = new WorkerPoolStats();
+        Executor executor = handler.getExecutor();
+        if (executor instanceof org.apache.tomcat.util.threads.ThreadPoolExecutor pool) {
+            stats.setActive(pool.getActiveCount());
+            stats.setPoolSize(pool.getPoolSize());
+            stats.setMax(pool.getMaximumPoolSize());
+            stats.setQueued(pool.getQueue().size());
+        } else if (executor instanceof ThreadPoolExecutor pool) {
+            stats.setActive(pool.getActiveCount());
+            stats.setPoolSize(pool.getPoolSize());
+            stats.setMax(pool.getMaximumPoolSize());
+            stats.setQueued(pool.getQueue().size());
+        }
+        if (handler instanceof AbstractProtocol<?> protocol) {
+            stats.setConnections(protocol.getConnectionCount());
+            stats.setMaxConnections(protocol.getMaxConnections());
+            stats.setAcceptCount(protocol.getAcceptCount());
+        }
+        return stats;
+    }
+}
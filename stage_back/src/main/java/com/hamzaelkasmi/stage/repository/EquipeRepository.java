@@ -1,6 +1,7 @@
 package com.hamzaelkasmi.stage.repository;
 
 import com.hamzaelkasmi.stage.model.Equipe;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,15 +14,26 @@ import java.util.Optional;
 @Repository
 public interface EquipeRepository extends JpaRepository<Equipe, String>, CustomEquipeRepository {
 
+    // Queries whose results are returned to the client fetch personnel and subcontractors in the
+    // same select, so serialization never needs an open session (open-in-view is off)
+
+    @EntityGraph(attributePaths = {"personnel", "soustraiteurs"})
+    @Query("SELECT e FROM Equipe e")
+    List<Equipe> findAllWithMembers();
+
+    @EntityGraph(attributePaths = {"personnel", "soustraiteurs"})
     @Query("SELECT e FROM Equipe e WHERE e.id_equipe = :id")
     Optional<Equipe> findByEquipeId(@Param("id") String id);
 
+    @EntityGraph(attributePaths = {"personnel", "soustraiteurs"})
     @Query("SELECT e FROM Equipe e WHERE e.nom_equipe LIKE %:name%")
     List<Equipe> findByNameContaining(@Param("name") String name);
     
+    @EntityGraph(attributePaths = {"personnel", "soustraiteurs"})
     @Query("SELECT e FROM Equipe e JOIN e.personnel p WHERE p.MATRICULE_personnel = :personnelId")
     List<Equipe> findByPersonnelId(@Param("personnelId") String personnelId);
     
+    @EntityGraph(attributePaths = {"personnel", "soustraiteurs"})
     @Query("SELECT e FROM Equipe e JOIN e.soustraiteurs s WHERE s.MATRICULE_soustraiteure = :soustraiteurId")
     List<Equipe> findBySoustraiteurId(@Param("soustraiteurId") String soustraiteurId);
 
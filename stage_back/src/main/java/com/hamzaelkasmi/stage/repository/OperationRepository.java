@@ -3,10 +3,16 @@ package com.hamzaelkasmi.stage.repository;
 import com.hamzaelkasmi.stage.model.Operation;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OperationRepository extends JpaRepository<Operation, String> {
         @Query("SELECT o FROM Operation o WHERE o.id_operation = :id")
@@ -40,15 +46,33 @@ public interface OperationRepository extends JpaRepository<Operation, String> {
         Optional<Object[]> findByIdWithShiftDetails(@Param("operationId") String operationId);
 
         // Analytics methods
-        List<Operation> findByStatus(String status);
+        @Query(value = "SELECT COUNT(*) as count, COALESCE(SUM(d.minutes), 0) as totalMinutes, " +
+                        "COALESCE(SUM(CASE WHEN d.minutes <= 60 THEN 1 ELSE 0 END), 0) as upTo1h, " +
+                        "COALESCE(SUM(CASE WHEN d.minutes > 60 AND d.minutes <= 120 THEN 1 ELSE 0 END), 0) as upTo2h, " +
+                        "COALESCE(SUM(CASE WHEN d.minutes > 120 AND d.minutes <= 240 THEN 1 ELSE 0 END), 0) as upTo4h, " +
+                        "COALESCE(SUM(CASE WHEN d.minutes > 240 AND d.minutes <= 480 THEN 1 ELSE 0 END), 0) as upTo8h, " +
+                        "COALESCE(SUM(CASE WHEN d.minutes > 480 THEN 1 ELSE 0 END), 0) as over8h " +
+                        "FROM (SELECT TIMESTAMPDIFF(MINUTE, o.date_debut, o.date_fin) as minutes " +
+                        "FROM operation o " +
+                        "WHERE o.status = :status AND o.date_debut IS NOT NULL AND o.date_fin IS NOT NULL) d", nativeQuery = true)
+        List<Map<String, Object>> summarizeDurationsByStatus(@Param("status") String status);
 
-        long countByStatus(String status);
+        // Streamed row by row (MySQL only streams with this fetch size): read inside a transaction and close
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+        @Query(value = "SELECT TIMESTAMPDIFF(MINUTE, o.date_debut, o.date_fin) " +
+                        "FROM operation o " +
+                        "WHERE o.status = :status AND o.date_debut IS NOT NULL AND o.date_fin IS NOT NULL", nativeQuery = true)
+        Stream<Number> streamDurationMinutesByStatus(@Param("status") String status);
 
-        @Query("SELECT COUNT(o) FROM Operation o WHERE o.id_escale = :escaleId")
-        int countByEscaleId(@Param("escaleId") String escaleId);
+        long countByStatus(String status);
 
-        @Query("SELECT COUNT(o) FROM Operation o WHERE o.id_escale = :escaleId AND o.status = :status")
-        int countByEscaleIdAndStatus(@Param("escaleId") String escaleId, @Param("status") String status);
+        // Escales without operations have no row
+        @Query(value = "SELECT o.id_escale as escaleId, COUNT(o.id_operation) as operationCount, " +
+                        "SUM(CASE WHEN o.status = 'TERMINEE' THEN 1 ELSE 0 END) as completedCount " +
+                        "FROM operation o " +
+                        "WHERE o.id_escale IN (:escaleIds) " +
+                        "GROUP BY o.id_escale", nativeQuery = true)
+        List<Map<String, Object>> countOperationsByEscaleIds(@Param("escaleIds") Collection<String> escaleIds);
 
         @Query(value = "SELECT o.type_operation as type, COUNT(o.id_operation) as count " +
                         "FROM operation o " +
@@ -62,13 +86,16 @@ public interface OperationRepository extends JpaRepository<Operation, String> {
                         "ORDER BY month", nativeQuery = true)
         List<Map<String, Object>> countOperationsByMonthForYear(@Param("year") int year);
 
-        @Query(value = "SELECT o.id_equipe as equipeId, COUNT(o.id_operation) as operationCount " +
-                        "FROM operation o " +
-                        "GROUP BY o.id_equipe", nativeQuery = true)
-        List<Map<String, Object>> countOperationsByEquipe();
-
-        @Query(value = "SELECT COUNT(o.id_operation) " +
+        // Null bounds leave that side of the window open
+        @Query(value = "SELECT o.id_equipe as equipeId, e.nom_equipe as equipeName, " +
+                        "COUNT(o.id_operation) as operationCount, " +
+                        "SUM(CASE WHEN o.status = 'TERMINEE' THEN 1 ELSE 0 END) as completedCount " +
                         "FROM operation o " +
-                        "WHERE o.id_equipe = :equipeId AND o.status = 'TERMINEE'", nativeQuery = true)
-        int countCompletedOperationsByEquipe(@Param("equipeId") String equipeId);
+                        "LEFT JOIN equipe e ON e.id_equipe = o.id_equipe " +
+                        "WHERE (:from IS NULL OR o.date_debut >= :from) AND (:to IS NULL OR o.date_debut < :to) " +
+                        "GROUP BY o.id_equipe, e.nom_equipe " +
+                        "ORDER BY operationCount DESC, o.id_equipe " +
+                        "LIMIT :limit", nativeQuery = true)
+        List<Map<String, Object>> findTopEquipesByOperations(@Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to, @Param("limit") int limit);
 }
\ No newline at end of file
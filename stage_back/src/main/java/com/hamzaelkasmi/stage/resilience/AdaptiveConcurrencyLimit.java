@@ -0,0 +1,141 @@
+package com.hamzaelkasmi.stage.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to measured latency (gradient algorithm).
+ * A short and a long moving average of request latency are compared: while
+ * the short one stays close to the long one the limit grows by about
+ * sqrt(limit), and when latency rises above tolerance x the long average
+ * the limit shrinks in proportion, down to half per update. Requests over
+ * the limit are rejected at once instead of queueing behind slow ones.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    // Moving averages over roughly the last 10 and 600 samples
+    private static final double SHORT_ALPHA = 2.0 / 11;
+    private static final double LONG_ALPHA = 2.0 / 601;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+
+    // Only updated under the lock; a sample that finds it taken is skipped
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double shortRttNanos;
+    private volatile double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(String name, int initialLimit, int minLimit, int maxLimit,
+                                    double tolerance, double smoothing) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.tolerance = Math.max(1.0, tolerance);
+        this.smoothing = Math.min(1.0, Math.max(0.01, smoothing));
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Take a slot if the group is under its limit.
+     *
+     * @return requests in flight including this one, or -1 if rejected
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Give the slot back and feed the request's latency into the limit
+     *
+     * @param inFlightAtStart value returned by tryAcquire
+     */
+    public void release(int inFlightAtStart, long rttNanos) {
+        inFlight.decrementAndGet();
+        if (rttNanos > 0 && lock.tryLock()) {
+            try {
+                update(inFlightAtStart, rttNanos);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void update(int inFlightAtStart, long rttNanos) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        double shortRtt = shortRttNanos + (rttNanos - shortRttNanos) * SHORT_ALPHA;
+        double longRtt = longRttNanos + (rttNanos - longRttNanos) * LONG_ALPHA;
+        // Latency dropped well below the long-term average: let the baseline follow it down
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        shortRttNanos = shortRtt;
+        longRttNanos = longRtt;
+
+        double currentLimit = limit;
+        // Far below the limit the latency says nothing about it
+        if (inFlightAtStart < currentLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = currentLimit * gradient + Math.sqrt(currentLimit);
+        double next = currentLimit * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Short-term average latency in milliseconds
+     */
+    public double getShortLatency() {
+        return shortRttNanos / 1_000_000.0;
+    }
+
+    /**
+     * Long-term (baseline) average latency in milliseconds
+     */
+    public double getLongLatency() {
+        return longRttNanos / 1_000_000.0;
+    }
+}
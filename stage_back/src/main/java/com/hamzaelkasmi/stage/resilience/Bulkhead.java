@@ -0,0 +1,86 @@
+package com.hamzaelkasmi.stage.resilience;
+
+import com.hamzaelkasmi.stage.monitoring.SqlStatistics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Isolated, bounded executor for one group of endpoints.
+ * At most maxConcurrent tasks run at once, each on its own thread, so the
+ * group never holds more than maxConcurrent pooled JDBC connections (its
+ * slice of the pool) and never ties up Tomcat workers while it runs.
+ * Up to queueSize more tasks wait; beyond that submit() fails at once with
+ * a RejectedExecutionException.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent, int queueSize) {
+        this.name = name;
+        int threads = Math.max(1, maxConcurrent);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulkhead-" + name + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Run the task in the bulkhead. The SQL counters of the calling request
+     * follow the task, so its statements are still attributed to the request.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        SqlStatistics sql = SqlStatistics.current();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                SqlStatistics.attach(sql);
+                try {
+                    return task.get();
+                } finally {
+                    SqlStatistics.end();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
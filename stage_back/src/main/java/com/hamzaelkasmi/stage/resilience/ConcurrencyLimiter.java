@@ -0,0 +1,95 @@
+package com.hamzaelkasmi.stage.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limits per endpoint group, so a pile-up of slow
+ * analytics calls sheds analytics traffic instead of slowing every endpoint.
+ * Groups are defined by path patterns in performance.limiter.groups
+ * ("name:pattern|pattern,name:pattern"); requests matching none of them
+ * share the default group.
+ */
+@Component
+public class ConcurrencyLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+    private final boolean enabled;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<String> excludedPaths;
+    // Pattern -> group, in declaration order
+    private final Map<String, AdaptiveConcurrencyLimit> patterns = new LinkedHashMap<>();
+    private final Map<String, AdaptiveConcurrencyLimit> groups = new LinkedHashMap<>();
+    private final AdaptiveConcurrencyLimit defaultGroup;
+
+    public ConcurrencyLimiter(@Value("${performance.limiter.enabled:true}") boolean enabled,
+                              @Value("${performance.limiter.groups:analytics:/api/analytics/**,auth:/api/auth/**}") String groupDefinitions,
+                              @Value("${performance.limiter.default-group:crud}") String defaultGroupName,
+                              @Value("${performance.limiter.excluded-paths:/api/monitoring/**}") String excludedPaths,
+                              @Value("${performance.limiter.initial-limit:20}") int initialLimit,
+                              @Value("${performance.limiter.min-limit:4}") int minLimit,
+                              @Value("${performance.limiter.max-limit:200}") int maxLimit,
+                              @Value("${performance.limiter.tolerance:1.5}") double tolerance,
+                              @Value("${performance.limiter.smoothing:0.2}") double smoothing) {
+        this.enabled = enabled;
+        this.excludedPaths = split(excludedPaths, ",");
+        for (String definition : split(groupDefinitions, ",")) {
+            int colon = definition.indexOf(':');
+            if (colon <= 0) {
+                logger.warn("Ignoring limiter group without patterns: {}", definition);
+                continue;
+            }
+            String name = definition.substring(0, colon).trim();
+            AdaptiveConcurrencyLimit group = groups.computeIfAbsent(name, key ->
+                    new AdaptiveConcurrencyLimit(key, initialLimit, minLimit, maxLimit, tolerance, smoothing));
+            for (String pattern : split(definition.substring(colon + 1), "\\|")) {
+                patterns.put(pattern, group);
+            }
+        }
+        this.defaultGroup = groups.computeIfAbsent(defaultGroupName, key ->
+                new AdaptiveConcurrencyLimit(key, initialLimit, minLimit, maxLimit, tolerance, smoothing));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Limit that applies to a request path, or null if the path is not limited
+     */
+    public AdaptiveConcurrencyLimit groupFor(String path) {
+        for (String excluded : excludedPaths) {
+            if (pathMatcher.match(excluded, path)) {
+                return null;
+            }
+        }
+        for (Map.Entry<String, AdaptiveConcurrencyLimit> entry : patterns.entrySet()) {
+            if (pathMatcher.match(entry.getKey(), path)) {
+                return entry.getValue();
+            }
+        }
+        return defaultGroup;
+    }
+
+    public List<AdaptiveConcurrencyLimit> getGroups() {
+        return new ArrayList<>(groups.values());
+    }
+
+    private static List<String> split(String value, String separator) {
+        List<String> parts = new ArrayList<>();
+        for (String part : value.split(separator)) {
+            if (!part.isBlank()) {
+                parts.add(part.trim());
+            }
+        }
+        return parts;
+    }
+}
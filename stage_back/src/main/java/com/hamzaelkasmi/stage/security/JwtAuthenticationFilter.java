@@ -1,5 +1,6 @@
 package com.hamzaelkasmi.stage.security;
 
+import com.hamzaelkasmi.stage.monitoring.RequestTiming;
 import com.hamzaelkasmi.stage.service.UserService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -38,6 +39,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        long jwtStart = RequestTiming.isTimed(request) ? System.nanoTime() : 0;
         
         String requestURI = request.getRequestURI();
         String requestMethod = request.getMethod();
@@ -127,6 +129,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             logger.info("No JWT token found in request");
         }
         
+        // Time spent authenticating, reported as its own phase by PerformanceInterceptor
+        if (jwtStart != 0) {
+            request.setAttribute(RequestTiming.JWT_NANOS, System.nanoTime() - jwtStart);
+        }
         filterChain.doFilter(request, response);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,202 @@
+package com.hamzaelkasmi.stage.service;
+
+import com.hamzaelkasmi.stage.model.ConnectionPoolStats;
+import com.hamzaelkasmi.stage.model.PerformanceAlert;
+import com.hamzaelkasmi.stage.model.PerformanceAlert.AlertLevel;
+import com.hamzaelkasmi.stage.model.SystemMetrics;
+import com.hamzaelkasmi.stage.monitoring.AlertStore;
+import com.hamzaelkasmi.stage.monitoring.ConnectionPoolMonitor;
+import com.hamzaelkasmi.stage.monitoring.EndpointMetrics;
+import com.hamzaelkasmi.stage.monitoring.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Evaluates alert rules on a schedule, off the request path.
+ * Each run diffs the cumulative endpoint counters against the previous
+ * run, so rules see only the traffic of the last window. A rule has to
+ * breach on several consecutive runs before it fires, and an alert stays
+ * open (and is updated in place) until its condition recovers. Latency and
+ * error rules cannot be judged on a window with too little traffic; when an
+ * endpoint stays that quiet for several runs, its open alerts are resolved.
+ */
+@Service
+public class AlertEvaluationService {
+    private static final Logger logger = LoggerFactory.getLogger(AlertEvaluationService.class);
+
+    private static final String RULE_LATENCY = "p99-latency";
+    private static final String RULE_ERROR_BURN = "error-burn-rate";
+    private static final String RULE_CPU = "cpu-saturation";
+    private static final String RULE_HEAP = "heap-saturation";
+    private static final String RULE_SQL_BUDGET = "sql-statement-budget";
+    private static final String RULE_POOL = "connection-pool-saturation";
+    private static final String SYSTEM_ENDPOINT = "system";
+
+    private final PerformanceMonitoringService monitoringService;
+    private final AlertStore alertStore;
+    private final ConnectionPoolMonitor connectionPoolMonitor;
+    private final double latencyThresholdMs;
+    private final double errorRateSlo;
+    private final double burnRateThreshold;
+    private final double cpuThreshold;
+    private final double heapThreshold;
+    private final int minSamples;
+    private final int debounceEvaluations;
+    private final int quietEvaluations;
+    private final int statementBudget;
+
+    // State from the previous run, only touched by the scheduler thread
+    private final Map<String, WindowBaseline> baselines = new HashMap<>();
+    private final Map<String, Integer> consecutiveBreaches = new HashMap<>();
+    private final Map<String, Integer> consecutiveQuietWindows = new HashMap<>();
+
+    public AlertEvaluationService(PerformanceMonitoringService monitoringService,
+                                  AlertStore alertStore,
+                                  ConnectionPoolMonitor connectionPoolMonitor,
+                                  @Value("${performance.monitoring.alert-threshold-ms:5000}") double latencyThresholdMs,
+                                  @Value("${performance.monitoring.alerts.error-rate-slo-percent:1.0}") double errorRateSlo,
+                                  @Value("${performance.monitoring.alerts.burn-rate-threshold:10}") double burnRateThreshold,
+                                  @Value("${performance.monitoring.alerts.cpu-percent:90}") double cpuThreshold,
+                                  @Value("${performance.monitoring.alerts.heap-percent:90}") double heapThreshold,
+                                  @Value("${performance.monitoring.alerts.min-samples:10}") int minSamples,
+                                  @Value("${performance.monitoring.alerts.debounce-evaluations:2}") int debounceEvaluations,
+                                  @Value("${performance.monitoring.alerts.quiet-evaluations:4}") int quietEvaluations,
+                                  @Value("${performance.monitoring.sql.statement-budget:50}") int statementBudget) {
+        this.monitoringService = monitoringService;
+        this.alertStore = alertStore;
+        this.connectionPoolMonitor = connectionPoolMonitor;
+        this.latencyThresholdMs = latencyThresholdMs;
+        this.errorRateSlo = errorRateSlo;
+        this.burnRateThreshold = burnRateThreshold;
+        this.cpuThreshold = cpuThreshold;
+        this.heapThreshold = heapThreshold;
+        this.minSamples = Math.max(1, minSamples);
+        this.debounceEvaluations = Math.max(1, debounceEvaluations);
+        this.quietEvaluations = Math.max(1, quietEvaluations);
+        this.statementBudget = statementBudget;
+    }
+
+    @Scheduled(fixedDelayString = "${performance.monitoring.alerts.evaluation-interval-ms:15000}")
+    public void evaluate() {
+        if (!monitoringService.isMonitoringEnabled()) {
+            return;
+        }
+        try {
+            for (EndpointMetrics endpointMetrics : monitoringService.getEndpointMetrics()) {
+                evaluateEndpoint(endpointMetrics);
+            }
+            evaluateSystem(monitoringService.getSystemMetrics());
+            evaluatePool(connectionPoolMonitor.getPoolStats());
+        } catch (Exception e) {
+            logger.warn("Alert evaluation failed: {}", e.getMessage());
+        }
+    }
+
+    private void evaluateEndpoint(EndpointMetrics endpointMetrics) {
+        String endpoint = endpointMetrics.getEndpoint();
+        WindowBaseline current = new WindowBaseline(endpointMetrics);
+        WindowBaseline previous = baselines.put(endpoint, current);
+        if (previous == null) {
+            return;
+        }
+
+        // Any request over the statement budget counts, however little traffic there was
+        long overBudget = current.statementBudgetExceeded - previous.statementBudgetExceeded;
+        check(RULE_SQL_BUDGET, endpoint, overBudget > 0 ? AlertLevel.WARNING : null, 0,
+                String.format("%d requests ran more than %d SQL statements (worst so far: %d), likely N+1 queries",
+                        overBudget, statementBudget, endpointMetrics.getMaxSqlStatements()));
+
+        long requests = current.count - previous.count;
+        if (requests < minSamples) {
+            // Not enough traffic in this window to judge; leave open alerts and breach streaks as they are,
+            // unless the endpoint has gone quiet (its clients gave up) and nothing can confirm them any more
+            int quiet = consecutiveQuietWindows.merge(endpoint, 1, Integer::sum);
+            if (quiet >= quietEvaluations) {
+                check(RULE_LATENCY, endpoint, null, 0, null);
+                check(RULE_ERROR_BURN, endpoint, null, 0, null);
+            }
+            return;
+        }
+        consecutiveQuietWindows.remove(endpoint);
+
+        long[] window = LatencyHistogram.subtract(current.histogram, previous.histogram);
+        double p99 = LatencyHistogram.valueAtPercentile(window, 99) / 1000.0;
+        AlertLevel latencyLevel = p99 > latencyThresholdMs * 2 ? AlertLevel.ERROR
+                : p99 > latencyThresholdMs ? AlertLevel.WARNING : null;
+        check(RULE_LATENCY, endpoint, latencyLevel, p99,
+                String.format("p99 latency %.0f ms over the last %d requests exceeds %.0f ms",
+                        p99, requests, latencyThresholdMs));
+
+        // Burn rate: how many times faster than the SLO allows the error budget is being spent
+        double errorRate = (current.errors - previous.errors) * 100.0 / requests;
+        double burnRate = errorRateSlo > 0 ? errorRate / errorRateSlo : 0;
+        AlertLevel burnLevel = burnRate >= burnRateThreshold * 2 ? AlertLevel.CRITICAL
+                : burnRate >= burnRateThreshold ? AlertLevel.ERROR : null;
+        check(RULE_ERROR_BURN, endpoint, burnLevel, 0,
+                String.format("Error rate %.1f%% is burning the %.1f%% error budget %.1fx too fast",
+                        errorRate, errorRateSlo, burnRate));
+    }
+
+    private void evaluateSystem(SystemMetrics system) {
+        AlertLevel cpuLevel = system.getCpu() >= cpuThreshold ? AlertLevel.WARNING : null;
+        check(RULE_CPU, SYSTEM_ENDPOINT, cpuLevel, 0,
+                String.format("Host CPU at %.1f%% (threshold %.0f%%)", system.getCpu(), cpuThreshold));
+
+        AlertLevel heapLevel = system.getMemory() >= heapThreshold ? AlertLevel.CRITICAL : null;
+        check(RULE_HEAP, SYSTEM_ENDPOINT, heapLevel, 0,
+                String.format("JVM heap at %.1f%% (threshold %.0f%%)", system.getMemory(), heapThreshold));
+    }
+
+    private void evaluatePool(ConnectionPoolStats pool) {
+        if (pool == null) {
+            return;
+        }
+        // Requests queueing for a connection while the pool is at its maximum
+        boolean saturated = pool.getPending() > 0 && pool.getActive() >= pool.getMax();
+        check(RULE_POOL, "datasource", saturated ? AlertLevel.ERROR : null, 0,
+                String.format("Connection pool exhausted: %d/%d connections active, %d threads waiting",
+                        pool.getActive(), pool.getMax(), pool.getPending()));
+    }
+
+    /**
+     * Fire after the configured number of consecutive breaches, resolve on the first healthy run
+     */
+    private void check(String rule, String endpoint, AlertLevel level, double responseTime, String message) {
+        String key = rule + "|" + endpoint;
+        if (level == null) {
+            if (consecutiveBreaches.remove(key) != null) {
+                alertStore.resolve(key);
+            }
+            return;
+        }
+        int breaches = consecutiveBreaches.merge(key, 1, Integer::sum);
+        if (breaches < debounceEvaluations) {
+            return;
+        }
+        PerformanceAlert alert = new PerformanceAlert(endpoint, responseTime, message, level);
+        alert.setRule(rule);
+        if (alertStore.fire(key, alert)) {
+            logger.warn("Performance alert [{}] {}: {}", level, endpoint, message);
+        }
+    }
+
+    private static final class WindowBaseline {
+        final long count;
+        final long errors;
+        final long statementBudgetExceeded;
+        final long[] histogram;
+
+        WindowBaseline(EndpointMetrics metrics) {
+            this.histogram = metrics.getHistogram().snapshot();
+            this.count = metrics.getCount();
+            this.errors = metrics.getErrors();
+            this.statementBudgetExceeded = metrics.getStatementBudgetExceeded();
+        }
+    }
+}
@@ -2,15 +2,31 @@ package com.hamzaelkasmi.stage.service;
 
 import com.hamzaelkasmi.stage.dto.analytics.*;
 
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
 public interface AnalyticsService {
-    AnalyticsDTO getAllAnalytics();
+    /**
+     * Every dashboard section, computed concurrently. Sections that fail or
+     * time out are left empty and listed in missingSections.
+     */
+    CompletableFuture<AnalyticsDTO> getAllAnalytics();
     SummaryDTO getSummaryData();
     OperationsByTypeDTO[] getOperationsByType();
     OperationsByMonthDTO[] getOperationsByMonth(Integer year);
     OperationDurationsDTO getOperationDurations();
     TopEquipeDTO[] getTopEquipes();
+    /**
+     * Equipes with the most operations started between from and to (inclusive
+     * dates, either may be null), at most limit of them (default 5)
+     */
+    TopEquipeDTO[] getTopEquipes(Integer limit, LocalDate from, LocalDate to);
     PersonnelUtilizationDTO getPersonnelUtilization();
     ArretsByReasonDTO[] getArretsByReason();
     PortUtilizationDTO getPortUtilization();
     RecentEscaleDTO[] getRecentEscales();
+    /**
+     * One page of escales, latest arrival first, limit per page (default configured)
+     */
+    RecentEscaleDTO[] getRecentEscales(Integer page, Integer limit);
 } 
\ No newline at end of file
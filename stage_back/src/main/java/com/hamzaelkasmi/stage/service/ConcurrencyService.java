@@ -0,0 +1,114 @@
+package com.hamzaelkasmi.stage.service;
+
+import com.hamzaelkasmi.stage.model.ConcurrencyStats;
+import com.hamzaelkasmi.stage.model.WorkerPoolStats;
+import com.hamzaelkasmi.stage.monitoring.EndpointMetrics;
+import com.hamzaelkasmi.stage.monitoring.InFlightRequests;
+import com.hamzaelkasmi.stage.monitoring.WorkerPoolMonitor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes the Little's law view (arrival rate x latency = requests in the
+ * system) from the cumulative counters, once per interval, so callers read
+ * a finished snapshot instead of racing each other for the baselines.
+ * Both factors come from the timed requests: completions stand in for
+ * arrivals, and untimed traffic (monitoring polls, preflights, requests
+ * shed with 503) has no latency to pair with.
+ */
+@Service
+public class ConcurrencyService {
+
+    private final PerformanceMonitoringService monitoringService;
+    private final InFlightRequests inFlightRequests;
+    private final WorkerPoolMonitor workerPoolMonitor;
+
+    // Baselines from the previous sample, only touched by the scheduler thread
+    private final Map<String, long[]> baselines = new HashMap<>(); // endpoint -> {count, totalMicros}
+    private long previousNanos;
+
+    private volatile ConcurrencyStats latest = new ConcurrencyStats();
+
+    public ConcurrencyService(PerformanceMonitoringService monitoringService,
+                              InFlightRequests inFlightRequests,
+                              WorkerPoolMonitor workerPoolMonitor) {
+        this.monitoringService = monitoringService;
+        this.inFlightRequests = inFlightRequests;
+        this.workerPoolMonitor = workerPoolMonitor;
+    }
+
+    /**
+     * Latest snapshot, with live in-flight and worker pool figures
+     */
+    public ConcurrencyStats getConcurrency() {
+        ConcurrencyStats snapshot = latest;
+        ConcurrencyStats stats = new ConcurrencyStats();
+        stats.setTimestamp(snapshot.getTimestamp());
+        stats.setIntervalSeconds(snapshot.getIntervalSeconds());
+        stats.setArrivalRate(snapshot.getArrivalRate());
+        stats.setAverageLatency(snapshot.getAverageLatency());
+        stats.setConcurrency(snapshot.getConcurrency());
+        stats.setEndpoints(snapshot.getEndpoints());
+        stats.setInFlight(inFlightRequests.getInFlight());
+        WorkerPoolStats pool = workerPoolMonitor.getPoolStats();
+        stats.setWorkerPool(pool);
+        if (pool != null && pool.getMax() > 0) {
+            stats.setWorkerUtilization(snapshot.getConcurrency() * 100.0 / pool.getMax());
+        }
+        return stats;
+    }
+
+    @Scheduled(fixedRateString = "${performance.monitoring.concurrency.interval-ms:10000}")
+    public void sample() {
+        sample(System.nanoTime());
+    }
+
+    void sample(long now) {
+        boolean first = previousNanos == 0;
+        double intervalSeconds = (now - previousNanos) / 1_000_000_000.0;
+
+        ConcurrencyStats stats = new ConcurrencyStats();
+        stats.setTimestamp(Instant.now());
+        stats.setIntervalSeconds(first ? 0 : intervalSeconds);
+
+        Map<String, Integer> inFlight = inFlightRequests.countByEndpoint();
+        long completed = 0;
+        long completedMicros = 0;
+        for (EndpointMetrics endpointMetrics : monitoringService.getEndpointMetrics()) {
+            long count = endpointMetrics.getCount();
+            long totalMicros = endpointMetrics.getTotalMicros();
+            long[] previous = baselines.put(endpointMetrics.getEndpoint(), new long[]{count, totalMicros});
+            if (first || intervalSeconds <= 0 || previous == null || count == previous[0]) {
+                continue;
+            }
+            long requests = count - previous[0];
+            long micros = totalMicros - previous[1];
+            completed += requests;
+            completedMicros += micros;
+
+            ConcurrencyStats.EndpointConcurrency endpoint = new ConcurrencyStats.EndpointConcurrency();
+            endpoint.setEndpoint(endpointMetrics.getEndpoint());
+            endpoint.setInFlight(inFlight.getOrDefault(endpointMetrics.getEndpoint(), 0));
+            endpoint.setArrivalRate(requests / intervalSeconds);
+            endpoint.setAverageLatency(micros / 1000.0 / requests);
+            // L = lambda x W, with W in seconds
+            endpoint.setConcurrency(micros / 1_000_000.0 / intervalSeconds);
+            stats.getEndpoints().add(endpoint);
+        }
+        stats.getEndpoints().sort(
+                Comparator.comparingDouble(ConcurrencyStats.EndpointConcurrency::getConcurrency).reversed());
+        if (completed > 0) {
+            stats.setArrivalRate(completed / intervalSeconds);
+            stats.setAverageLatency(completedMicros / 1000.0 / completed);
+            stats.setConcurrency(stats.getArrivalRate() * stats.getAverageLatency() / 1000.0);
+        }
+
+        previousNanos = now;
+        latest = stats;
+    }
+}
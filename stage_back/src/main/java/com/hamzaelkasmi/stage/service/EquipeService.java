@@ -5,6 +5,7 @@ import com.hamzaelkasmi.stage.model.Personnel;
 import com.hamzaelkasmi.stage.repository.EquipeRepository;
 import com.hamzaelkasmi.stage.repository.PersonnelRepository;
 import com.hamzaelkasmi.stage.repository.SoustraiteureRepository;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,7 +26,7 @@ public class EquipeService {
     private SoustraiteureRepository soustraiteureRepository;
 
     public List<Equipe> getAllEquipes() {
-        return equipeRepository.findAll();
+        return equipeRepository.findAllWithMembers();
     }
 
     @Transactional(readOnly = true)
@@ -138,10 +139,8 @@ public class EquipeService {
                 throw new RuntimeException("Failed to add personnel to equipe: " + e.getMessage(), e);
             }
 
-            // Refresh the equipe entity to reflect the changes
-            entityManager.refresh(equipe);
-
-            return equipe;
+            // Read the equipe again to reflect the changes
+            return reloadWithMembers(entityManager, equipe);
         } catch (Exception e) {
             throw new RuntimeException("Error adding personnel to equipe: " + e.getMessage(), e);
         }
@@ -166,10 +165,8 @@ public class EquipeService {
 
             System.out.println("Removed personnel from equipe. Rows affected: " + rowsAffected);
 
-            // Refresh the equipe entity to reflect the changes
-            entityManager.refresh(equipe);
-
-            return equipe;
+            // Read the equipe again to reflect the changes
+            return reloadWithMembers(entityManager, equipe);
         } catch (Exception e) {
             throw new RuntimeException("Error removing personnel from equipe: " + e.getMessage(), e);
         }
@@ -255,10 +252,8 @@ public class EquipeService {
                 }
             }
 
-            // Refresh the equipe entity to reflect the changes
-            entityManager.refresh(equipe);
-
-            return equipe;
+            // Read the equipe again to reflect the changes
+            return reloadWithMembers(entityManager, equipe);
         } catch (Exception e) {
             throw new RuntimeException("Error adding soustraiteur to equipe: " + e.getMessage(), e);
         }
@@ -283,12 +278,22 @@ public class EquipeService {
 
             System.out.println("Removed soustraiteur from equipe. Rows affected: " + rowsAffected);
 
-            // Refresh the equipe entity to reflect the changes
-            entityManager.refresh(equipe);
-
-            return equipe;
+            // Read the equipe again to reflect the changes
+            return reloadWithMembers(entityManager, equipe);
         } catch (Exception e) {
             throw new RuntimeException("Error removing soustraiteur from equipe: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The equipe as it is after a native write to its join tables.
+     * refresh() would evict the collections and leave them to be loaded
+     * during serialization, after the transaction has ended (open-in-view is
+     * off), so the stale instance is detached and read again with its members.
+     */
+    private Equipe reloadWithMembers(EntityManager entityManager, Equipe equipe) {
+        entityManager.detach(equipe);
+        return equipeRepository.findByEquipeId(equipe.getId_equipe())
+                .orElseThrow(() -> new RuntimeException("Equipe not found with id: " + equipe.getId_equipe()));
+    }
+}
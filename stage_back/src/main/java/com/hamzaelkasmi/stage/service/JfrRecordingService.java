@@ -0,0 +1,124 @@
+package com.hamzaelkasmi.stage.service;
+
+import com.hamzaelkasmi.stage.model.JfrRecordingStatus;
+import com.hamzaelkasmi.stage.monitoring.AnalyticsEvent;
+import com.hamzaelkasmi.stage.monitoring.ApiCallEvent;
+import com.hamzaelkasmi.stage.monitoring.IdGenerationEvent;
+import com.hamzaelkasmi.stage.monitoring.ScheduledJobEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Starts and stops an in-process JFR recording with the JDK "default"
+ * settings (about 1% overhead) plus the application events.
+ * Only one recording runs at a time, and it is bounded in both duration and
+ * size so a forgotten recording cannot fill the disk.
+ */
+@Service
+public class JfrRecordingService {
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingService.class);
+
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+
+    private Recording recording;
+
+    public JfrRecordingService(
+            @Value("${performance.monitoring.jfr.max-duration-seconds:600}") long maxDurationSeconds,
+            @Value("${performance.monitoring.jfr.max-size-mb:100}") long maxSizeMb) {
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    /**
+     * Start a recording, capped at the configured maximum duration.
+     * Returns false if one is already running.
+     */
+    public synchronized boolean start(Long durationSeconds) throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return false;
+        }
+        discard();
+
+        Duration duration = maxDuration;
+        if (durationSeconds != null && durationSeconds > 0 && durationSeconds < maxDuration.getSeconds()) {
+            duration = Duration.ofSeconds(durationSeconds);
+        }
+
+        Recording newRecording = new Recording(Configuration.getConfiguration("default"));
+        newRecording.setName("stage-monitoring");
+        newRecording.setDuration(duration);
+        newRecording.setMaxSize(maxSizeBytes);
+        newRecording.setToDisk(true);
+        newRecording.enable(ApiCallEvent.class);
+        newRecording.enable(IdGenerationEvent.class);
+        newRecording.enable(ScheduledJobEvent.class);
+        newRecording.enable(AnalyticsEvent.class);
+        newRecording.start();
+        recording = newRecording;
+        logger.info("Started JFR recording for at most {}s / {} bytes", duration.getSeconds(), maxSizeBytes);
+        return true;
+    }
+
+    /**
+     * Stop the current recording (if still running) and dump it to a
+     * temporary file, which the caller deletes once it has been sent.
+     * Returns null if there is no recording.
+     */
+    public synchronized Path stopAndDump() throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        Path file = Files.createTempFile("stage-", ".jfr");
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            recording.dump(file);
+        } catch (IOException | IllegalStateException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            discard();
+        }
+        logger.info("Dumped JFR recording to {} ({} bytes)", file, Files.size(file));
+        return file;
+    }
+
+    public synchronized JfrRecordingStatus getStatus() {
+        JfrRecordingStatus status = new JfrRecordingStatus();
+        status.setMaxDurationSeconds(maxDuration.getSeconds());
+        status.setMaxSizeBytes(maxSizeBytes);
+        if (recording != null) {
+            status.setState(recording.getState().name());
+            Instant startTime = recording.getStartTime();
+            status.setStartTime(startTime);
+            status.setDurationSeconds(recording.getDuration() != null ? recording.getDuration().getSeconds() : 0);
+            status.setSize(recording.getSize());
+        } else {
+            status.setState("NONE");
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.hamzaelkasmi.stage.service;
+
+import com.hamzaelkasmi.stage.model.MetricsHistoryPoint;
+import com.hamzaelkasmi.stage.monitoring.LatencyHistogram;
+import com.hamzaelkasmi.stage.monitoring.MetricsJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rolls raw api_call_metrics rows up into 1-minute and 1-hour aggregate
+ * tables and enforces retention on all three tiers.
+ * Each aggregate row keeps count, error count, sum, max and the latency
+ * histogram buckets, so any range can be merged back into exact counts and
+ * approximate percentiles. Dashboard history reads only the rollups, so
+ * its cost depends on the requested range, not on how much raw history
+ * is stored.
+ * Raw rows can be flushed after their minute has been rolled up, so the
+ * last few minutes are rolled up again on every run; an hour is only
+ * rolled up once none of its minutes can change any more.
+ */
+@Service
+public class MetricsRollupService {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRollupService.class);
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO %s (endpoint, bucket_start, request_count, error_count, total_response_time, " +
+            "max_response_time, histogram) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE request_count = VALUES(request_count), error_count = VALUES(error_count), " +
+            "total_response_time = VALUES(total_response_time), max_response_time = VALUES(max_response_time), " +
+            "histogram = VALUES(histogram)";
+
+    // Ranges up to this length are served from the minute table, longer ones from the hour table
+    private static final Duration MINUTE_TABLE_MAX_RANGE = Duration.ofHours(24);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration rawRetention;
+    private final Duration minuteRetention;
+    private final Duration hourRetention;
+    private final int deleteChunkSize;
+    private final int maxBucketsPerRun;
+    private final Duration lateWindow;
+    private final int maxDataPoints;
+
+    public MetricsRollupService(JdbcTemplate jdbcTemplate,
+                                @Value("${performance.monitoring.retention.raw-hours:24}") long rawRetentionHours,
+                                @Value("${performance.monitoring.retention.minute-days:7}") long minuteRetentionDays,
+                                @Value("${performance.monitoring.retention.hour-days:90}") long hourRetentionDays,
+                                @Value("${performance.monitoring.retention.delete-chunk-size:5000}") int deleteChunkSize,
+                                @Value("${performance.monitoring.rollup.max-buckets-per-run:60}") int maxBucketsPerRun,
+                                @Value("${performance.monitoring.rollup.late-minutes:3}") long lateMinutes,
+                                @Value("${performance.monitoring.max-data-points:100}") int maxDataPoints) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rawRetention = Duration.ofHours(rawRetentionHours);
+        this.minuteRetention = Duration.ofDays(minuteRetentionDays);
+        this.hourRetention = Duration.ofDays(hourRetentionDays);
+        this.deleteChunkSize = Math.max(1, deleteChunkSize);
+        this.maxBucketsPerRun = Math.max(1, maxBucketsPerRun);
+        this.lateWindow = Duration.ofMinutes(Math.max(1, lateMinutes));
+        this.maxDataPoints = Math.max(1, maxDataPoints);
+    }
+
+    /**
+     * Aggregate every closed minute of raw rows that is not rolled up yet,
+     * and again the minutes of the late window in case rows were flushed
+     * after their minute was first rolled up.
+     * Runs a few seconds into each minute so the batch writer has flushed
+     * the previous one.
+     */
+    @Scheduled(cron = "${performance.monitoring.rollup.minute-cron:15 * * * * *}")
+    public void rollupMinutes() {
+        rollupMinutes(Instant.now());
+    }
+
+    void rollupMinutes(Instant now) {
+        try {
+            Instant end = now.truncatedTo(ChronoUnit.MINUTES);
+            Instant bucket = nextPendingBucket(MetricsJdbc.MINUTE_TABLE, MetricsJdbc.RAW_TABLE, "timestamp",
+                    ChronoUnit.MINUTES, end.minus(lateWindow));
+            int processed = 0;
+            while (bucket != null && bucket.isBefore(end) && processed < maxBucketsPerRun) {
+                Instant bucketEnd = bucket.plus(1, ChronoUnit.MINUTES);
+                rollupMinute(bucket, bucketEnd);
+                processed++;
+                bucket = bucketEnd;
+            }
+        } catch (Exception e) {
+            logger.warn("Minute rollup of API metrics failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Merge closed hours of minute rows into the hour table. An hour is
+     * closed once the minute rollup has moved past it by more than the late
+     * window, so a lagging minute rollup holds the hour rollup back instead
+     * of leaving partial hours behind.
+     */
+    @Scheduled(cron = "${performance.monitoring.rollup.hour-cron:0 5 * * * *}")
+    public void rollupHours() {
+        rollupHours(Instant.now());
+    }
+
+    void rollupHours(Instant now) {
+        try {
+            Instant lastMinute = queryInstant("SELECT MAX(bucket_start) FROM " + MetricsJdbc.MINUTE_TABLE);
+            if (lastMinute == null) {
+                return;
+            }
+            // Minutes before this are rolled up for the last time
+            Instant settled = lastMinute.plus(1, ChronoUnit.MINUTES).minus(lateWindow);
+            Instant end = earliest(now.truncatedTo(ChronoUnit.HOURS), settled.truncatedTo(ChronoUnit.HOURS));
+            Instant bucket = nextPendingBucket(MetricsJdbc.HOUR_TABLE, MetricsJdbc.MINUTE_TABLE, "bucket_start",
+                    ChronoUnit.HOURS, end);
+            int processed = 0;
+            while (bucket != null && bucket.isBefore(end) && processed < maxBucketsPerRun) {
+                Instant bucketEnd = bucket.plus(1, ChronoUnit.HOURS);
+                rollupHour(bucket, bucketEnd);
+                processed++;
+                bucket = bucketEnd;
+            }
+        } catch (Exception e) {
+            logger.warn("Hour rollup of API metrics failed: {}", e.getMessage());
+        }
+    }
+
+    private void rollupMinute(Instant bucketStart, Instant bucketEnd) {
+        Map<String, RollupAccumulator> accumulators = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT endpoint, response_time, successful FROM " + MetricsJdbc.RAW_TABLE +
+                " WHERE timestamp >= ? AND timestamp < ?",
+                ps -> {
+                    ps.setTimestamp(1, MetricsJdbc.toTimestamp(bucketStart), MetricsJdbc.utcCalendar());
+                    ps.setTimestamp(2, MetricsJdbc.toTimestamp(bucketEnd), MetricsJdbc.utcCalendar());
+                },
+                rs -> {
+                    accumulators.computeIfAbsent(rs.getString(1), RollupAccumulator::new)
+                            .addRaw(rs.getDouble(2), rs.getBoolean(3));
+                });
+        upsert(MetricsJdbc.MINUTE_TABLE, bucketStart, accumulators);
+    }
+
+    private void rollupHour(Instant bucketStart, Instant bucketEnd) {
+        Map<String, RollupAccumulator> accumulators = new HashMap<>();
+        queryRollups(MetricsJdbc.MINUTE_TABLE, null, bucketStart, bucketEnd, (endpoint, rowStart, row) ->
+                accumulators.computeIfAbsent(endpoint, RollupAccumulator::new).merge(row));
+        upsert(MetricsJdbc.HOUR_TABLE, bucketStart, accumulators);
+    }
+
+    /**
+     * Delete expired rows from every tier, in chunks so no single statement
+     * holds locks for long. Rows are only removed once the next tier covers
+     * them.
+     */
+    public void applyRetention() {
+        applyRetention(Instant.now());
+    }
+
+    void applyRetention(Instant now) {
+        try {
+            Instant minuteWatermark = queryInstant("SELECT MAX(bucket_start) FROM " + MetricsJdbc.MINUTE_TABLE);
+            Instant hourWatermark = queryInstant("SELECT MAX(bucket_start) FROM " + MetricsJdbc.HOUR_TABLE);
+
+            long rawDeleted = 0;
+            if (minuteWatermark != null) {
+                // Raw rows of the late window are still read by the next minute rollups
+                rawDeleted = deleteInChunks(MetricsJdbc.RAW_TABLE, "timestamp",
+                        earliest(now.minus(rawRetention), minuteWatermark.minus(lateWindow)));
+            }
+            long minuteDeleted = 0;
+            if (hourWatermark != null) {
+                minuteDeleted = deleteInChunks(MetricsJdbc.MINUTE_TABLE, "bucket_start",
+                        earliest(now.minus(minuteRetention), hourWatermark));
+            }
+            long hourDeleted = deleteInChunks(MetricsJdbc.HOUR_TABLE, "bucket_start", now.minus(hourRetention));
+
+            logger.info("Performance data retention removed {} raw, {} minute and {} hour rows",
+                    rawDeleted, minuteDeleted, hourDeleted);
+        } catch (Exception e) {
+            logger.warn("Retention cleanup of API metrics failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stored latency history for one endpoint (or all endpoints when null),
+     * downsampled to at most max-data-points points.
+     */
+    public List<MetricsHistoryPoint> getHistory(String endpoint, Instant from, Instant to) {
+        Duration range = Duration.between(from, to);
+        boolean useMinutes = range.compareTo(MINUTE_TABLE_MAX_RANGE) <= 0;
+        String table = useMinutes ? MetricsJdbc.MINUTE_TABLE : MetricsJdbc.HOUR_TABLE;
+        Duration unit = useMinutes ? Duration.ofMinutes(1) : Duration.ofHours(1);
+
+        // Widen the step so the response never exceeds maxDataPoints points
+        long unitsPerStep = Math.max(1, (long) Math.ceil(range.toMillis() / (double) unit.toMillis() / maxDataPoints));
+        long stepMillis = unit.toMillis() * unitsPerStep;
+
+        TreeMap<Long, RollupAccumulator> steps = new TreeMap<>();
+        queryRollups(table, endpoint, from, to, (rowEndpoint, bucketStart, row) -> {
+            long step = bucketStart.toEpochMilli() - Math.floorMod(bucketStart.toEpochMilli() - from.toEpochMilli(), stepMillis);
+            steps.computeIfAbsent(step, s -> new RollupAccumulator(endpoint)).merge(row);
+        });
+
+        List<MetricsHistoryPoint> points = new ArrayList<>();
+        for (Map.Entry<Long, RollupAccumulator> entry : steps.entrySet()) {
+            points.add(entry.getValue().toPoint(Instant.ofEpochMilli(entry.getKey())));
+        }
+        return points;
+    }
+
+    /**
+     * First bucket that still has to be rolled up: right after the last
+     * bucket already in the target table, or restateFrom if that is earlier,
+     * skipping empty stretches of source.
+     */
+    private Instant nextPendingBucket(String targetTable, String sourceTable, String sourceColumn, ChronoUnit unit,
+                                      Instant restateFrom) {
+        Instant lastRolled = queryInstant("SELECT MAX(bucket_start) FROM " + targetTable);
+        Instant firstPending;
+        if (lastRolled == null) {
+            firstPending = queryInstant("SELECT MIN(" + sourceColumn + ") FROM " + sourceTable);
+        } else {
+            Instant after = earliest(lastRolled.plus(1, unit), restateFrom);
+            firstPending = jdbcTemplate.query(
+                    "SELECT MIN(" + sourceColumn + ") FROM " + sourceTable + " WHERE " + sourceColumn + " >= ?",
+                    ps -> ps.setTimestamp(1, MetricsJdbc.toTimestamp(after), MetricsJdbc.utcCalendar()),
+                    rs -> rs.next() ? MetricsJdbc.getInstant(rs, 1) : null);
+        }
+        return firstPending != null ? firstPending.truncatedTo(unit) : null;
+    }
+
+    private void upsert(String table, Instant bucketStart, Map<String, RollupAccumulator> accumulators) {
+        if (accumulators.isEmpty()) {
+            return;
+        }
+        List<RollupAccumulator> rows = new ArrayList<>(accumulators.values());
+        jdbcTemplate.batchUpdate(String.format(UPSERT_SQL, table), rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.endpoint);
+            ps.setTimestamp(2, MetricsJdbc.toTimestamp(bucketStart), MetricsJdbc.utcCalendar());
+            ps.setLong(3, row.count);
+            ps.setLong(4, row.errors);
+            ps.setDouble(5, row.totalMs);
+            ps.setDouble(6, row.maxMs);
+            ps.setString(7, LatencyHistogram.encode(row.histogram));
+        });
+    }
+
+    private void queryRollups(String table, String endpoint, Instant from, Instant to, RollupRowHandler handler) {
+        String sql = "SELECT endpoint, bucket_start, request_count, error_count, total_response_time, " +
+                "max_response_time, histogram FROM " + table + " WHERE bucket_start >= ? AND bucket_start < ?" +
+                (endpoint != null ? " AND endpoint = ?" : "");
+        jdbcTemplate.query(sql, ps -> {
+            ps.setTimestamp(1, MetricsJdbc.toTimestamp(from), MetricsJdbc.utcCalendar());
+            ps.setTimestamp(2, MetricsJdbc.toTimestamp(to), MetricsJdbc.utcCalendar());
+            if (endpoint != null) {
+                ps.setString(3, endpoint);
+            }
+        }, rs -> {
+            RollupAccumulator row = new RollupAccumulator(rs.getString(1));
+            row.count = rs.getLong(3);
+            row.errors = rs.getLong(4);
+            row.totalMs = rs.getDouble(5);
+            row.maxMs = rs.getDouble(6);
+            LatencyHistogram.decodeInto(rs.getString(7), row.histogram);
+            handler.handle(row.endpoint, MetricsJdbc.getInstant(rs, 2), row);
+        });
+    }
+
+    private long deleteInChunks(String table, String column, Instant cutoff) {
+        String sql = "DELETE FROM " + table + " WHERE " + column + " < ? LIMIT " + deleteChunkSize;
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(sql,
+                    ps -> ps.setTimestamp(1, MetricsJdbc.toTimestamp(cutoff), MetricsJdbc.utcCalendar()));
+            total += deleted;
+        } while (deleted == deleteChunkSize);
+        return total;
+    }
+
+    private Instant queryInstant(String sql) {
+        return jdbcTemplate.query(sql, rs -> rs.next() ? MetricsJdbc.getInstant(rs, 1) : null);
+    }
+
+    private static Instant earliest(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    @FunctionalInterface
+    private interface RollupRowHandler {
+        void handle(String endpoint, Instant bucketStart, RollupAccumulator row);
+    }
+
+    /**
+     * Running aggregate for one endpoint and bucket
+     */
+    private static final class RollupAccumulator {
+        final String endpoint;
+        final long[] histogram = new long[LatencyHistogram.BUCKET_COUNT];
+        long count;
+        long errors;
+        double totalMs;
+        double maxMs;
+
+        RollupAccumulator(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        void addRaw(double responseTimeMs, boolean successful) {
+            count++;
+            if (!successful) {
+                errors++;
+            }
+            totalMs += responseTimeMs;
+            maxMs = Math.max(maxMs, responseTimeMs);
+            histogram[LatencyHistogram.bucketIndex((long) (responseTimeMs * 1000))]++;
+        }
+
+        void merge(RollupAccumulator other) {
+            count += other.count;
+            errors += other.errors;
+            totalMs += other.totalMs;
+            maxMs = Math.max(maxMs, other.maxMs);
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+        }
+
+        MetricsHistoryPoint toPoint(Instant timestamp) {
+            MetricsHistoryPoint point = new MetricsHistoryPoint();
+            point.setTimestamp(timestamp);
+            point.setCount(count);
+            point.setErrorCount(errors);
+            point.setAverage(count == 0 ? 0 : totalMs / count);
+            point.setP50(LatencyHistogram.valueAtPercentile(histogram, 50) / 1000.0);
+            point.setP90(LatencyHistogram.valueAtPercentile(histogram, 90) / 1000.0);
+            point.setP99(LatencyHistogram.valueAtPercentile(histogram, 99) / 1000.0);
+            point.setMax(maxMs);
+            return point;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.hamzaelkasmi.stage.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hamzaelkasmi.stage.model.SystemMetrics;
+import com.hamzaelkasmi.stage.monitoring.EndpointMetrics;
+import com.hamzaelkasmi.stage.monitoring.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes live monitoring data to dashboards over Server-Sent Events.
+ * One payload is built and serialized per interval, no matter how many
+ * dashboards are connected; each subscriber then costs a single write of
+ * the same string. Endpoint figures are deltas since the previous push,
+ * and only endpoints that received traffic in that interval are sent.
+ * System figures are limited to the gauges the dashboard plots; the JVM
+ * breakdown stays on the polled system-metrics endpoint.
+ * Pushes run on their own thread: a write blocked on a slow client holds
+ * up the stream, not the scheduler pool the other background jobs share.
+ */
+@Service
+public class MetricsStreamService {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsStreamService.class);
+
+    private final PerformanceMonitoringService monitoringService;
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMs;
+    private final long intervalMs;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "metrics-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Baselines from the previous push, only touched by the publishing thread
+    private final Map<String, EndpointBaseline> baselines = new HashMap<>();
+    private long lastPublishNanos;
+
+    public MetricsStreamService(PerformanceMonitoringService monitoringService,
+                                ObjectMapper objectMapper,
+                                @Value("${performance.monitoring.stream.timeout-ms:1800000}") long emitterTimeoutMs,
+                                @Value("${performance.monitoring.stream.interval-ms:3000}") long intervalMs) {
+        this.monitoringService = monitoringService;
+        this.objectMapper = objectMapper;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.intervalMs = Math.max(100, intervalMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleAtFixedRate(this::publishSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Register a new dashboard connection
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        logger.debug("Metrics stream subscriber added, {} connected", emitters.size());
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    private void publishSafely() {
+        try {
+            publish();
+        } catch (Exception e) {
+            // An exception would cancel the periodic task
+            logger.warn("Metrics stream push failed: {}", e.getMessage());
+        }
+    }
+
+    public void publish() {
+        if (emitters.isEmpty()) {
+            // Nobody listening: drop the baselines instead of computing deltas for no one
+            baselines.clear();
+            lastPublishNanos = 0;
+            return;
+        }
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(buildSnapshot(System.nanoTime()));
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not serialize metrics stream payload: {}", e.getMessage());
+            return;
+        }
+
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("metrics").data(payload));
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the container calls onError/onCompletion as well
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    Map<String, Object> buildSnapshot(long now) {
+        double intervalSeconds = lastPublishNanos == 0 ? 0 : (now - lastPublishNanos) / 1_000_000_000.0;
+        lastPublishNanos = now;
+
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (EndpointMetrics endpointMetrics : monitoringService.getEndpointMetrics()) {
+            EndpointBaseline current = new EndpointBaseline(endpointMetrics);
+            EndpointBaseline previous = baselines.put(endpointMetrics.getEndpoint(), current);
+            if (previous == null || current.count == previous.count) {
+                // First sighting only sets the baseline; unchanged endpoints are left out of the delta
+                continue;
+            }
+            long requests = current.count - previous.count;
+            long[] window = LatencyHistogram.subtract(current.histogram, previous.histogram);
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("endpoint", endpointMetrics.getEndpoint());
+            entry.put("requests", requests);
+            entry.put("errors", current.errors - previous.errors);
+            entry.put("average", (current.totalMicros - previous.totalMicros) / 1000.0 / requests);
+            entry.put("p99", LatencyHistogram.valueAtPercentile(window, 99) / 1000.0);
+            entry.put("throughput", intervalSeconds > 0 ? requests / intervalSeconds : 0);
+            endpoints.add(entry);
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("timestamp", Instant.now());
+        snapshot.put("system", compact(monitoringService.getSystemMetrics()));
+        snapshot.put("endpoints", endpoints);
+        return snapshot;
+    }
+
+    private static Map<String, Object> compact(SystemMetrics metrics) {
+        Map<String, Object> system = new LinkedHashMap<>();
+        system.put("cpu", metrics.getCpu());
+        system.put("memory", metrics.getMemory());
+        system.put("diskSpace", metrics.getDiskSpace());
+        system.put("activeConnections", metrics.getActiveConnections());
+        system.put("uptime", metrics.getUptime());
+        return system;
+    }
+
+    private static final class EndpointBaseline {
+        final long count;
+        final long errors;
+        final long totalMicros;
+        final long[] histogram;
+
+        EndpointBaseline(EndpointMetrics metrics) {
+            this.histogram = metrics.getHistogram().snapshot();
+            this.count = metrics.getCount();
+            this.errors = metrics.getErrors();
+            this.totalMicros = metrics.getTotalMicros();
+        }
+    }
+}
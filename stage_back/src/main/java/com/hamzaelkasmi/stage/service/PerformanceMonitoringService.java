@@ -1,27 +1,34 @@
 package com.hamzaelkasmi.stage.service;
 
 import com.hamzaelkasmi.stage.model.ApiCallMetric;
+import com.hamzaelkasmi.stage.model.EndpointStats;
 import com.hamzaelkasmi.stage.model.PerformanceAlert;
 import com.hamzaelkasmi.stage.model.PerformanceMetrics;
 import com.hamzaelkasmi.stage.model.SystemMetrics;
+import com.hamzaelkasmi.stage.monitoring.AlertStore;
+import com.hamzaelkasmi.stage.monitoring.ApiCallMetricWriter;
+import com.hamzaelkasmi.stage.monitoring.EndpointMetrics;
+import com.hamzaelkasmi.stage.monitoring.EndpointRegistry;
+import com.hamzaelkasmi.stage.monitoring.InFlightRequests;
+import com.hamzaelkasmi.stage.monitoring.LatencyHistogram;
+import com.hamzaelkasmi.stage.monitoring.RequestTiming;
+import com.hamzaelkasmi.stage.monitoring.SystemMetricsSampler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Primary;
 import java.util.List;
-import java.lang.management.OperatingSystemMXBean;
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
-import java.nio.file.FileStore;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.InputStreamReader;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Service for monitoring system performance.
@@ -34,12 +41,46 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class PerformanceMonitoringService {
     private static final Logger logger = LoggerFactory.getLogger(PerformanceMonitoringService.class);
     
-    // Track active HTTP connections
-    private final AtomicInteger activeConnections = new AtomicInteger(0);
-    // Track total connections since startup
-    private final AtomicInteger totalConnections = new AtomicInteger(0);
+    // Per-endpoint latency histograms and counters, capped with an overflow bucket
+    private final EndpointRegistry<EndpointMetrics> endpointRegistry;
+    // Fixed-size ring of the most recent calls, overwritten in place
+    private final AtomicReferenceArray<ApiCallMetric> recentCalls;
+    private final AtomicLong recentCallCursor = new AtomicLong();
+    private final long startedAtNanos = System.nanoTime();
+    // Read on every request, so a plain volatile flag rather than anything heavier
+    private volatile boolean monitoringEnabled;
+    // SQL statements a single request may run before it is flagged as a likely N+1
+    private final int statementBudget;
+    // Background batch writer for api_call_metrics
+    private final ApiCallMetricWriter metricWriter;
+    // Background CPU / memory / disk sampler
+    private final SystemMetricsSampler systemMetricsSampler;
+    // Rollups and retention of stored metrics
+    private final MetricsRollupService metricsRollupService;
+    // Alerts raised by AlertEvaluationService
+    private final AlertStore alertStore;
+    // Requests inside the application, in total and per endpoint
+    private final InFlightRequests inFlightRequests;
 
-    public PerformanceMonitoringService() {
+    public PerformanceMonitoringService(
+            ApiCallMetricWriter metricWriter,
+            SystemMetricsSampler systemMetricsSampler,
+            MetricsRollupService metricsRollupService,
+            AlertStore alertStore,
+            InFlightRequests inFlightRequests,
+            @Value("${performance.monitoring.enabled:true}") boolean monitoringEnabled,
+            @Value("${performance.monitoring.max-data-points:100}") int maxDataPoints,
+            @Value("${performance.monitoring.max-endpoints:200}") int maxEndpoints,
+            @Value("${performance.monitoring.sql.statement-budget:50}") int statementBudget) {
+        this.metricWriter = metricWriter;
+        this.systemMetricsSampler = systemMetricsSampler;
+        this.metricsRollupService = metricsRollupService;
+        this.alertStore = alertStore;
+        this.inFlightRequests = inFlightRequests;
+        this.monitoringEnabled = monitoringEnabled;
+        this.statementBudget = statementBudget;
+        this.endpointRegistry = new EndpointRegistry<>(maxEndpoints, EndpointMetrics::new);
+        this.recentCalls = new AtomicReferenceArray<>(Math.max(1, maxDataPoints));
         logger.info("Performance Monitoring Service initialized");
     }
 
@@ -47,436 +88,190 @@ public class PerformanceMonitoringService {
      * Check if monitoring is enabled
      */
     public boolean isMonitoringEnabled() {
-        // For now, always return true. In a production environment,
-        // this could check a configuration property or database setting
-        return true;
+        return monitoringEnabled;
     }
 
     /**
      * Enable performance monitoring
      */
     public void enableMonitoring() {
+        monitoringEnabled = true;
         logger.info("Performance monitoring enabled");
-        // In a real implementation, this would turn on data collection
     }
 
     /**
-     * Disable performance monitoring
+     * Disable performance monitoring.
+     * Requests arriving afterwards are neither timed nor recorded.
      */
     public void disableMonitoring() {
+        monitoringEnabled = false;
         logger.info("Performance monitoring disabled");
-        // In a real implementation, this would turn off data collection
     }
 
     /**
      * Record an API call for monitoring
      */
     public void recordApiCall(String endpoint, long responseTime, boolean isSuccessful) {
-        // Implement real logic here
+        recordLatency(endpoint, responseTime * 1000, isSuccessful);
     }
 
     /**
      * Record an API call for monitoring
      */
     public void recordApiCall(ApiCallMetric metric) {
-        // Implement real logic here
+        recordApiCall(metric, null);
     }
 
     /**
-     * Get current performance metrics
-     */
-    public PerformanceMetrics getPerformanceMetrics() {
-        // Implement real logic here
-        return new PerformanceMetrics();
-    }    /**
-     * Get system metrics
+     * Record an API call together with its phase breakdown (filters, JWT, handler, serialization)
      */
-    public SystemMetrics getSystemMetrics() {
-        SystemMetrics metrics = new SystemMetrics();
-        try {
-            // Get operating system bean for CPU information
-            OperatingSystemMXBean osBean = java.lang.management.ManagementFactory.getOperatingSystemMXBean();
-            double cpu = getSystemCpuLoad(osBean);
-            metrics.setCpu(cpu);
-            
-            // Get memory usage
-            Runtime runtime = Runtime.getRuntime();
-            long maxMemory = runtime.maxMemory();
-            long totalMemory = runtime.totalMemory();
-            long freeMemory = runtime.freeMemory();
-            
-            long maxUsableMemory = maxMemory == Long.MAX_VALUE ? totalMemory : maxMemory;
-            long usedMemory = totalMemory - freeMemory;
-            double memoryUsage = Math.min(((double)usedMemory / maxUsableMemory) * 100, 100.0);
-            metrics.setMemory(memoryUsage);
-            
-            // Set real disk space metrics
-            metrics.setDiskSpace(getDiskSpaceInfo());
-            
-            // Set real active connections count
-            metrics.setActiveConnections(getActiveConnectionCount());
-            
-            // Set uptime from JVM runtime
-            long uptime = java.lang.management.ManagementFactory.getRuntimeMXBean().getUptime() / 1000; // convert to seconds
-            metrics.setUptime(uptime);
-            
-            // Set current timestamp
-            metrics.setTimestamp(java.time.Instant.now());
-        } catch (Exception e) {
-            logger.error("Error getting system metrics", e);
-            // Set default values in case of error
-            metrics.setCpu(0);
-            metrics.setMemory(0);
-            metrics.setDiskSpace(new SystemMetrics.DiskSpace(100000, 50000, 50000));
-            metrics.setActiveConnections(0);
-            metrics.setUptime(0);
+    public void recordApiCall(ApiCallMetric metric, RequestTiming.Phases phases) {
+        if (phases != null) {
+            EndpointMetrics endpointMetrics = endpointRegistry.get(metric.getEndpoint());
+            endpointMetrics.record(phases.totalNanos() / 1000, metric.isSuccessful());
+            endpointMetrics.recordPhases(phases);
+            endpointMetrics.recordSql(metric.getSqlStatements(), metric.getEntitiesLoaded(),
+                    (long) (metric.getJdbcTime() * 1_000_000), (long) (metric.getConnectionHoldTime() * 1_000_000),
+                    statementBudget);
+            endpointMetrics.recordResources(metric.getCpuTime() >= 0 ? (long) (metric.getCpuTime() * 1_000_000) : -1,
+                    metric.getAllocatedBytes());
+        } else {
+            recordLatency(metric.getEndpoint(), (long) (metric.getResponseTime() * 1000), metric.isSuccessful());
         }
-        return metrics;
+        // Keep the last few calls for the dashboard charts
+        int slot = (int) (recentCallCursor.getAndIncrement() % recentCalls.length());
+        recentCalls.set(slot, metric);
+        // Persisted asynchronously, dropped if the writer cannot keep up
+        metricWriter.enqueue(metric);
+    }
+
+    private void recordLatency(String endpoint, long micros, boolean successful) {
+        endpointRegistry.get(endpoint).record(micros, successful);
     }
 
     /**
-     * Get all alerts
+     * Get current performance metrics
      */
-    public List<PerformanceAlert> getAlerts() {
-        // Implement real logic here
-        return new ArrayList<>();
-    }
+    public PerformanceMetrics getPerformanceMetrics() {
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        List<EndpointStats> endpointStats = new ArrayList<>();
+        Map<String, Double> errorRates = new HashMap<>();
+        long[] mergedCounts = new long[LatencyHistogram.BUCKET_COUNT];
+        long totalRequests = 0;
+        long totalMicros = 0;
+        long maxMicros = 0;
+        EndpointStats slowest = null;
+        EndpointStats fastest = null;
+        Map<String, Integer> inFlight = inFlightRequests.countByEndpoint();
 
-    public void clearAlerts() {
-    }
-    
-    private double getSystemCpuLoad(OperatingSystemMXBean osBean) {
-        try {
-            double cpuLoad = -1.0;
-            
-            // First try using the modern com.sun.management API if available
-            if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
-                try {
-                    java.lang.reflect.Method method = com.sun.management.OperatingSystemMXBean.class.getDeclaredMethod("getProcessCpuLoad");
-                    method.setAccessible(true);
-                    double value = (double) method.invoke(osBean);
-                    if (value >= 0.0) {
-                        cpuLoad = value;
-                    }
-                } catch (Exception ex) {
-                    logger.debug("Failed to get CPU load using getProcessCpuLoad: {}", ex.getMessage());
-                }
+        for (EndpointMetrics endpointMetrics : endpointRegistry.values()) {
+            long[] counts = endpointMetrics.getHistogram().snapshot();
+            for (int i = 0; i < counts.length; i++) {
+                mergedCounts[i] += counts[i];
             }
-            
-            // If that didn't work, try other methods
-            if (cpuLoad < 0.0) {
-                double systemLoadAvg = osBean.getSystemLoadAverage();
-                if (systemLoadAvg >= 0) {
-                    int processors = osBean.getAvailableProcessors();
-                    cpuLoad = systemLoadAvg / processors;
-                }
-            }
-            
-            // If still no valid data, try platform-specific solutions
-            if (cpuLoad < 0.0) {
-                String osName = System.getProperty("os.name").toLowerCase();
-                if (osName.contains("linux")) {
-                    cpuLoad = getLinuxCpuLoad();
-                } else if (osName.contains("win")) {
-                    long[] prevCpuTime = new long[1];
-                    long[] prevUpTime = new long[1];
-                    cpuLoad = getWindowsCpuLoad(prevCpuTime, prevUpTime);
-                }
-            }
-            
-            // Convert to percentage and ensure it's between 0-100
-            return cpuLoad < 0 ? 15.0 : Math.min(cpuLoad * 100, 100.0);
-            
-        } catch (Exception e) {
-            logger.warn("Failed to get CPU load: {}", e.getMessage());
-            return 15.0;
-        }
-    }
-      private double getLinuxCpuLoad() throws Exception {
-        try {
-            // First try reading from /proc/stat for most accurate CPU usage
-            try (BufferedReader reader = new BufferedReader(new FileReader("/proc/stat"))) {
-                String line = reader.readLine();
-                if (line != null && line.startsWith("cpu ")) {
-                    String[] values = line.split("\\s+");
-                    if (values.length >= 8) {
-                        long user = Long.parseLong(values[1]);
-                        long nice = Long.parseLong(values[2]);
-                        long system = Long.parseLong(values[3]);
-                        long idle = Long.parseLong(values[4]);
-                        long iowait = Long.parseLong(values[5]);
-                        long irq = Long.parseLong(values[6]);
-                        long softirq = Long.parseLong(values[7]);
-                        
-                        long totalCpu = user + nice + system + idle + iowait + irq + softirq;
-                        long totalIdle = idle + iowait;
-                        
-                        return ((double)(totalCpu - totalIdle) / totalCpu) * 100.0;
-                    }
-                }
-            } catch (Exception e) {
-                logger.debug("Could not read /proc/stat: {}", e.getMessage());
+            totalRequests += endpointMetrics.getCount();
+            totalMicros += endpointMetrics.getTotalMicros();
+            maxMicros = Math.max(maxMicros, endpointMetrics.getMaxMicros());
+
+            EndpointStats stats = endpointMetrics.toStats();
+            if (stats.getCount() == 0) {
+                continue;
             }
-            
-            // Fallback to top command
-            Process p = Runtime.getRuntime().exec("top -bn1");
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (line.startsWith("%Cpu(s):")) {
-                        String[] parts = line.split(",");
-                        for (String part : parts) {
-                            if (part.contains("id")) {
-                                double idle = Double.parseDouble(part.trim().split("\\s+")[0]);
-                                return 100.0 - idle; // Convert idle percentage to usage percentage
-                            }
-                        }
-                    }
-                }
+            stats.setInFlight(inFlight.getOrDefault(stats.getEndpoint(), 0));
+            endpointStats.add(stats);
+            errorRates.put(stats.getEndpoint(), stats.getErrorRate());
+            if (slowest == null || stats.getAverage() > slowest.getAverage()) {
+                slowest = stats;
             }
-            
-            // If top fails, try mpstat
-            Process mpstat = Runtime.getRuntime().exec("mpstat 1 1");
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(mpstat.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (line.contains("all")) {
-                        String[] parts = line.trim().split("\\s+");
-                        if (parts.length > 12) {
-                            double idle = Double.parseDouble(parts[12]);
-                            return 100.0 - idle;
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                logger.debug("mpstat not available: {}", e.getMessage());
+            if (fastest == null || stats.getAverage() < fastest.getAverage()) {
+                fastest = stats;
             }
-        } catch (Exception e) {
-            logger.warn("Failed to get Linux CPU load: {}", e.getMessage());
         }
-        return -1.0;
-    }
-      private double getWindowsCpuLoad(long[] prevCpuTime, long[] prevUpTime) {
-        try {
-            // First try using wmic for instantaneous CPU load
-            try {
-                Process p = Runtime.getRuntime().exec("wmic cpu get loadpercentage");
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
-                    String line;
-                    reader.readLine(); // Skip header
-                    if ((line = reader.readLine()) != null) {
-                        double load = Double.parseDouble(line.trim());
-                        if (load >= 0 && load <= 100) {
-                            return load / 100.0;
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                logger.debug("WMIC method failed: {}", e.getMessage());
-            }
+        endpointStats.sort(Comparator.comparingDouble(EndpointStats::getP99).reversed());
 
-            // Fallback to Performance Counter method
-            try {
-                Process p = Runtime.getRuntime().exec(
-                    "powershell \"Get-Counter '\\Processor(_Total)\\% Processor Time' -SampleInterval 1 -MaxSamples 1 | Select-Object -ExpandProperty CounterSamples | Select-Object -ExpandProperty CookedValue\""
-                );
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
-                    String line = reader.readLine();
-                    if (line != null) {
-                        double load = Double.parseDouble(line.trim());
-                        if (load >= 0 && load <= 100) {
-                            return load / 100.0;
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                logger.debug("Performance Counter method failed: {}", e.getMessage());
-            }
+        double uptimeSeconds = Math.max(1.0, (System.nanoTime() - startedAtNanos) / 1_000_000_000.0);
+        metrics.setEndpoints(endpointStats);
+        metrics.setErrorRates(errorRates);
+        metrics.setTotalRequests(totalRequests);
+        metrics.setThroughput(totalRequests / uptimeSeconds);
+        metrics.setResponseTimeAverage(totalRequests == 0 ? 0 : totalMicros / 1000.0 / totalRequests);
+        metrics.setP50(LatencyHistogram.valueAtPercentile(mergedCounts, 50) / 1000.0);
+        metrics.setP90(LatencyHistogram.valueAtPercentile(mergedCounts, 90) / 1000.0);
+        metrics.setP99(LatencyHistogram.valueAtPercentile(mergedCounts, 99) / 1000.0);
+        metrics.setMax(maxMicros / 1000.0);
+        metrics.setSlowestEndpoint(toSummaryMetric(slowest));
+        metrics.setFastestEndpoint(toSummaryMetric(fastest));
+        metrics.setApiCalls(getRecentCalls());
+        metrics.setSystemLoad(new ArrayList<>());
+        metrics.setPersistedCalls(metricWriter.getPersistedCount());
+        metrics.setDroppedCalls(metricWriter.getDroppedCount());
+        return metrics;
+    }
 
-            // Last resort: use process time deltas
-            com.sun.management.OperatingSystemMXBean sunOsBean = 
-                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
-            long systemTime = sunOsBean.getProcessCpuTime();
-            long upTime = ManagementFactory.getRuntimeMXBean().getUptime();
-            
-            if (prevCpuTime[0] == 0) {
-                prevCpuTime[0] = systemTime;
-                prevUpTime[0] = upTime;
-                return -1.0;
-            }
+    /**
+     * Live per-endpoint counters, including the overflow bucket
+     */
+    public Collection<EndpointMetrics> getEndpointMetrics() {
+        return endpointRegistry.values();
+    }
 
-            long timeDiff = systemTime - prevCpuTime[0];
-            long upDiff = upTime - prevUpTime[0];
-            
-            prevCpuTime[0] = systemTime;
-            prevUpTime[0] = upTime;            if (upDiff > 0) {
-                return ((double) timeDiff / (upDiff * 10000000L));
-            }
-        } catch (Exception e) {
-            logger.warn("Failed to get Windows CPU load: {}", e.getMessage());
+    private ApiCallMetric toSummaryMetric(EndpointStats stats) {
+        if (stats == null) {
+            return null;
         }
-        return -1.0;
+        return new ApiCallMetric(stats.getEndpoint(), stats.getAverage(), stats.getErrorCount() == 0, null, 0);
     }
 
-    private SystemMetrics.DiskSpace getDiskSpaceInfo() {
-        SystemMetrics.DiskSpace diskSpace = new SystemMetrics.DiskSpace();
-        String osName = System.getProperty("os.name").toLowerCase();
-        
-        try {
-            if (osName.contains("linux")) {
-                // On Linux, try df command first for most accurate filesystem info
-                try {
-                    Process p = Runtime.getRuntime().exec("df -k /");
-                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
-                        reader.readLine(); // Skip header
-                        String line = reader.readLine();
-                        if (line != null) {
-                            String[] parts = line.trim().split("\\s+");
-                            if (parts.length >= 4) {
-                                long total = Long.parseLong(parts[1]); // KB
-                                long used = Long.parseLong(parts[2]);  // KB
-                                long free = Long.parseLong(parts[3]);  // KB
-                                
-                                // Convert to MB
-                                diskSpace.setTotal(total / 1024);
-                                diskSpace.setUsed(used / 1024);
-                                diskSpace.setFree(free / 1024);
-                                return diskSpace;
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    logger.debug("df command failed: {}", e.getMessage());
-                }
-            } else if (osName.contains("win")) {
-                // On Windows, try using WMI first
-                try {
-                    Process p = Runtime.getRuntime().exec(
-                        "wmic logicaldisk get size,freespace,caption"
-                    );
-                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
-                        String line;
-                        reader.readLine(); // Skip header
-                        long total = 0;
-                        long free = 0;
-                        while ((line = reader.readLine()) != null) {
-                            line = line.trim();
-                            if (!line.isEmpty()) {
-                                String[] parts = line.split("\\s+");
-                                if (parts.length >= 3) {
-                                    try {
-                                        total += Long.parseLong(parts[1]);
-                                        free += Long.parseLong(parts[0]);
-                                    } catch (NumberFormatException ignored) {}
-                                }
-                            }
-                        }
-                        if (total > 0) {
-                            diskSpace.setTotal(total / (1024 * 1024));
-                            diskSpace.setFree(free / (1024 * 1024));
-                            diskSpace.setUsed((total - free) / (1024 * 1024));
-                            return diskSpace;
-                        }
-                    }
-                } catch (Exception e) {
-                    logger.debug("WMI disk space check failed: {}", e.getMessage());
-                }
+    private List<ApiCallMetric> getRecentCalls() {
+        List<ApiCallMetric> calls = new ArrayList<>();
+        for (int i = 0; i < recentCalls.length(); i++) {
+            ApiCallMetric call = recentCalls.get(i);
+            if (call != null) {
+                calls.add(call);
             }
-
-            // Fallback to Java NIO
-            long totalSpace = 0;
-            long freeSpace = 0;
-            long usableSpace = 0;
-            
-            for (Path root : FileSystems.getDefault().getRootDirectories()) {
-                try {
-                    FileStore store = Files.getFileStore(root);
-                    if (!store.isReadOnly()) {
-                        totalSpace += store.getTotalSpace();
-                        freeSpace += store.getUnallocatedSpace();
-                        usableSpace += store.getUsableSpace();
-                    }
-                } catch (Exception e) {
-                    logger.debug("Could not get space info for root {}: {}", root, e.getMessage());
-                }
-            }
-            
-            if (totalSpace > 0) {
-                // Convert to MB
-                diskSpace.setTotal(totalSpace / (1024 * 1024));
-                diskSpace.setFree(usableSpace / (1024 * 1024));
-                diskSpace.setUsed((totalSpace - freeSpace) / (1024 * 1024));
-                return diskSpace;
-            }
-
-            // Last resort - try legacy File API
-            long total = 0;
-            long free = 0;
-            for (File root : File.listRoots()) {
-                total += root.getTotalSpace();
-                free += root.getUsableSpace();
-            }
-            
-            if (total > 0) {
-                diskSpace.setTotal(total / (1024 * 1024));
-                diskSpace.setFree(free / (1024 * 1024));
-                diskSpace.setUsed((total - free) / (1024 * 1024));
-                return diskSpace;
-            }
-
-            logger.warn("All disk space detection methods failed, using defaults");
-            diskSpace.setTotal(100000); // 100GB
-            diskSpace.setUsed(50000);   // 50GB
-            diskSpace.setFree(50000);   // 50GB
-            
-        } catch (Exception e) {
-            logger.error("Error getting disk space info: {}", e.getMessage());
-            diskSpace.setTotal(100000);
-            diskSpace.setUsed(50000);
-            diskSpace.setFree(50000);
         }
-        
-        return diskSpace;
+        calls.sort(Comparator.comparing(ApiCallMetric::getTimestamp));
+        return calls;
     }
 
-    @Scheduled(fixedRate = 3000000) // Every minute
-    public void checkAndCleanupOldData() {
-        if (!isMonitoringEnabled()) return;
-
-        // Clean up old data that's beyond our retention window
-        // This would be more sophisticated in a production environment
-        logger.debug("Running scheduled cleanup of old performance data");
-    }
-    
     /**
-     * Track when a new HTTP connection is made
+     * Get system metrics.
+     * Resource usage comes from the latest background sample, so this never
+     * blocks on I/O; connections and uptime are read live.
      */
-    public void connectionStarted() {
-        activeConnections.incrementAndGet();
-        totalConnections.incrementAndGet();
-        logger.debug("New connection started. Active connections: {}, Total: {}", 
-                    activeConnections.get(), totalConnections.get());
+    public SystemMetrics getSystemMetrics() {
+        SystemMetrics sample = systemMetricsSampler.getLatest();
+        SystemMetrics metrics = new SystemMetrics();
+        metrics.setCpu(sample.getCpu());
+        metrics.setProcessCpu(sample.getProcessCpu());
+        metrics.setMemory(sample.getMemory());
+        metrics.setSystemMemory(sample.getSystemMemory());
+        metrics.setDiskSpace(sample.getDiskSpace() != null ? sample.getDiskSpace() : new SystemMetrics.DiskSpace());
+        metrics.setJvm(sample.getJvm());
+        metrics.setActiveConnections(inFlightRequests.getInFlight());
+        // Set uptime from JVM runtime
+        metrics.setUptime(ManagementFactory.getRuntimeMXBean().getUptime() / 1000); // convert to seconds
+        metrics.setTimestamp(sample.getTimestamp());
+        return metrics;
     }
-    
+
     /**
-     * Track when an HTTP connection ends
+     * Get all alerts
      */
-    public void connectionEnded() {
-        activeConnections.decrementAndGet();
-        logger.debug("Connection ended. Active connections: {}", activeConnections.get());
+    public List<PerformanceAlert> getAlerts() {
+        return alertStore.getAlerts();
     }
-    
-    /**
-     * Get the current count of active connections
-     */
-    public int getActiveConnectionCount() {
-        return activeConnections.get();
+
+    public void clearAlerts() {
+        alertStore.clear();
     }
     
-    /**
-     * Get the total connections since startup
-     */
-    public int getTotalConnectionCount() {
-        return totalConnections.get();
+    @Scheduled(fixedRateString = "${performance.monitoring.cleanup-interval-minutes:60}", timeUnit = TimeUnit.MINUTES)
+    public void checkAndCleanupOldData() {
+        if (!isMonitoringEnabled()) return;
+
+        // Delete stored metrics older than the retention window of each tier
+        logger.debug("Running scheduled cleanup of old performance data");
+        metricsRollupService.applyRetention();
     }
 }
@@ -3,6 +3,7 @@ package com.hamzaelkasmi.stage.service;
 import com.hamzaelkasmi.stage.model.Escale;
 import com.hamzaelkasmi.stage.model.Navire;
 import com.hamzaelkasmi.stage.model.Conteneure;
+import com.hamzaelkasmi.stage.monitoring.ScheduledJobEvent;
 import com.hamzaelkasmi.stage.repository.EscaleRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +47,10 @@ public class ShipCleanupService {
     @Scheduled(fixedRate = 1800000) // 30 minutes in milliseconds
     @Transactional
     public void cleanupExpiredShips() {
+        ScheduledJobEvent event = new ScheduledJobEvent();
+        event.begin();
+        int deletedShipsCount = 0;
+        int reassignedContainersCount = 0;
         try {
             logger.info("Starting scheduled cleanup of expired ships at {}", LocalDateTime.now());
 
@@ -65,9 +70,6 @@ public class ShipCleanupService {
                 expiredShipMatricules.add(escale.getMATRICULE_navire());
             }
 
-            int deletedShipsCount = 0;
-            int reassignedContainersCount = 0;
-
             // Process each expired ship
             for (String matricule : expiredShipMatricules) {
                 try {
@@ -119,6 +121,13 @@ public class ShipCleanupService {
 
         } catch (Exception e) {
             logger.error("Error during scheduled ship cleanup: {}", e.getMessage(), e);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.job = "cleanupExpiredShips";
+                event.rowsProcessed = deletedShipsCount + reassignedContainersCount;
+                event.commit();
+            }
         }
     }
 
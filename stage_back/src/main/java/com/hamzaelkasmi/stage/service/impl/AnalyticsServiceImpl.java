@@ -1,20 +1,53 @@
 package com.hamzaelkasmi.stage.service.impl;
 
+import com.hamzaelkasmi.stage.cache.AnalyticsDataListener;
+import com.hamzaelkasmi.stage.cache.VersionedSnapshot;
 import com.hamzaelkasmi.stage.dto.analytics.*;
 import com.hamzaelkasmi.stage.model.*;
+import com.hamzaelkasmi.stage.monitoring.LatencyHistogram;
+import com.hamzaelkasmi.stage.monitoring.AnalyticsEvent;
 import com.hamzaelkasmi.stage.repository.*;
+import com.hamzaelkasmi.stage.resilience.Bulkhead;
 import com.hamzaelkasmi.stage.service.AnalyticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.Year;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Dashboard aggregates. Read-only (no dirty checking on the loaded
+ * entities) and bounded by a transaction timeout, which Hibernate applies
+ * as a JDBC query timeout to every statement of the call.
+ */
 @Service
+@Transactional(readOnly = true, timeoutString = "${performance.bulkhead.analytics.query-timeout-seconds:15}")
 public class AnalyticsServiceImpl implements AnalyticsService {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsServiceImpl.class);
+
+    private static final int DEFAULT_TOP_EQUIPES = 5;
+    private static final int MAX_TOP_EQUIPES = 100;
+    private static final int MAX_RECENT_ESCALES = 200;
 
     private final OperationRepository operationRepository;
     private final EscaleRepository escaleRepository;
@@ -22,6 +55,15 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     private final PersonnelRepository personnelRepository;
     private final ArretRepository arretRepository;
     private final ConteneureRepository conteneureRepository;
+    // Sections of getAllAnalytics run here, each in its own read-only transaction
+    private final Bulkhead analyticsBulkhead;
+    private final TransactionTemplate sectionTransaction;
+    private final long sectionTimeoutMs;
+    // Last result of each section, served until the data changes (see AnalyticsDataListener)
+    private final Map<String, VersionedSnapshot<?>> snapshots = new ConcurrentHashMap<>();
+    private final boolean cacheEnabled;
+    private final long cacheMaxAgeNanos;
+    private final int recentEscalesLimit;
     
     // Constructor with all required dependencies
     public AnalyticsServiceImpl(
@@ -30,29 +72,142 @@ public class AnalyticsServiceImpl implements AnalyticsService {
             EquipeRepository equipeRepository,
             PersonnelRepository personnelRepository,
             ArretRepository arretRepository,
-            ConteneureRepository conteneureRepository) {
+            ConteneureRepository conteneureRepository,
+            @Qualifier("analyticsBulkhead") Bulkhead analyticsBulkhead,
+            PlatformTransactionManager transactionManager,
+            @Value("${performance.bulkhead.analytics.query-timeout-seconds:15}") int queryTimeoutSeconds,
+            @Value("${performance.bulkhead.analytics.section-timeout-ms:10000}") long sectionTimeoutMs,
+            @Value("${performance.analytics.cache.enabled:true}") boolean cacheEnabled,
+            @Value("${performance.analytics.cache.max-age-seconds:300}") long cacheMaxAgeSeconds,
+            @Value("${performance.analytics.recent-escales.limit:5}") int recentEscalesLimit) {
         this.operationRepository = operationRepository;
         this.escaleRepository = escaleRepository;
         this.equipeRepository = equipeRepository;
         this.personnelRepository = personnelRepository;
         this.arretRepository = arretRepository;
         this.conteneureRepository = conteneureRepository;
+        this.analyticsBulkhead = analyticsBulkhead;
+        this.sectionTransaction = new TransactionTemplate(transactionManager);
+        this.sectionTransaction.setReadOnly(true);
+        this.sectionTransaction.setTimeout(queryTimeoutSeconds);
+        this.sectionTimeoutMs = sectionTimeoutMs;
+        this.cacheEnabled = cacheEnabled;
+        this.cacheMaxAgeNanos = TimeUnit.SECONDS.toNanos(cacheMaxAgeSeconds);
+        this.recentEscalesLimit = Math.max(1, Math.min(MAX_RECENT_ESCALES, recentEscalesLimit));
     }
 
+    /**
+     * Fans the sections out to the analytics bulkhead, so the dashboard
+     * takes about as long as its slowest section instead of the sum of all
+     * of them. The caller's thread holds no transaction or connection while
+     * it waits, and never blocks: the result completes when the last
+     * section does. Sections whose data has not changed come from the
+     * cache without touching the database.
+     */
     @Override
-    public AnalyticsDTO getAllAnalytics() {
-        // Create a new AnalyticsDTO with all components
-        return new AnalyticsDTO(
-            getSummaryData(),
-            getOperationsByType(),
-            getOperationsByMonth(Year.now().getValue()),
-            getOperationDurations(),
-            getTopEquipes(),
-            getPersonnelUtilization(),
-            getArretsByReason(),
-            getPortUtilization(),
-            getRecentEscales()
-        );
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<AnalyticsDTO> getAllAnalytics() {
+        SectionFailures failures = new SectionFailures();
+        int year = Year.now().getValue();
+        CompletableFuture<SummaryDTO> summary = section("summary", this::getSummaryData, new SummaryDTO(), failures);
+        CompletableFuture<OperationsByTypeDTO[]> byType = section("operationsByType", this::getOperationsByType, new OperationsByTypeDTO[0], failures);
+        CompletableFuture<OperationsByMonthDTO[]> byMonth = section("operationsByMonth", () -> getOperationsByMonth(year), new OperationsByMonthDTO[0], failures);
+        CompletableFuture<OperationDurationsDTO> durations = section("operationDurations", this::getOperationDurations, new OperationDurationsDTO(), failures);
+        CompletableFuture<TopEquipeDTO[]> topEquipes = section("topEquipes", this::getTopEquipes, new TopEquipeDTO[0], failures);
+        CompletableFuture<PersonnelUtilizationDTO> personnel = section("personnelUtilization", this::getPersonnelUtilization, new PersonnelUtilizationDTO(), failures);
+        CompletableFuture<ArretsByReasonDTO[]> arrets = section("arretsByReason", this::getArretsByReason, new ArretsByReasonDTO[0], failures);
+        CompletableFuture<PortUtilizationDTO> port = section("portUtilization", this::getPortUtilization, new PortUtilizationDTO(), failures);
+        CompletableFuture<RecentEscaleDTO[]> recentEscales = section("recentEscales", this::getRecentEscales, new RecentEscaleDTO[0], failures);
+
+        CompletableFuture<?>[] sections = {summary, byType, byMonth, durations, topEquipes, personnel, arrets, port, recentEscales};
+        return CompletableFuture.allOf(sections)
+                .thenApply(done -> {
+                    if (failures.rejected() == sections.length) {
+                        // The bulkhead queue was full: let the caller answer 503 rather than an empty dashboard
+                        throw new CompletionException(new RejectedExecutionException("Analytics bulkhead is full"));
+                    }
+                    List<String> missingSections = failures.missing();
+                    return new AnalyticsDTO(summary.join(), byType.join(), byMonth.join(), durations.join(),
+                            topEquipes.join(), personnel.join(), arrets.join(), port.join(), recentEscales.join(),
+                            missingSections);
+                });
+    }
+
+    /**
+     * One section, from the cache or computed in the bulkhead in its own
+     * transaction (calls on this bypass the @Transactional proxy). A section
+     * that fails, is rejected or is still running after the section timeout
+     * completes with the empty fallback, so the dashboard still renders;
+     * a running query is then cancelled by the transaction timeout.
+     */
+    private <T> CompletableFuture<T> section(String name, Supplier<T> supplier, T fallback, SectionFailures failures) {
+        // The load may be shared with concurrent callers: time out a copy, not the load itself
+        return cachedOrLoad(name, supplier).copy()
+                .orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        logger.warn("Analytics section {} timed out after {} ms", name, sectionTimeoutMs);
+                    } else if (!(cause instanceof RejectedExecutionException)) {
+                        logger.warn("Analytics section {} failed: {}", name, cause.toString());
+                    }
+                    failures.add(name, cause instanceof RejectedExecutionException);
+                    return fallback;
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> cachedOrLoad(String name, Supplier<T> supplier) {
+        Supplier<CompletableFuture<T>> loader =
+                () -> analyticsBulkhead.submit(() -> sectionTransaction.execute(status -> traced(name, supplier)));
+        if (!cacheEnabled) {
+            return loader.get();
+        }
+        VersionedSnapshot<T> snapshot = (VersionedSnapshot<T>) snapshots.computeIfAbsent(name,
+                key -> new VersionedSnapshot<T>(AnalyticsDataListener::version, cacheMaxAgeNanos));
+        return snapshot.get(loader);
+    }
+
+    /**
+     * Sections of one getAllAnalytics call that completed with their fallback
+     */
+    private static final class SectionFailures {
+        private final List<String> names = new ArrayList<>();
+        private int rejected;
+
+        synchronized void add(String name, boolean wasRejected) {
+            names.add(name);
+            if (wasRejected) {
+                rejected++;
+            }
+        }
+
+        synchronized int rejected() {
+            return rejected;
+        }
+
+        synchronized List<String> missing() {
+            List<String> sorted = new ArrayList<>(names);
+            Collections.sort(sorted);
+            return sorted;
+        }
+    }
+
+    /**
+     * Compute one dashboard section inside an AnalyticsEvent so a JFR
+     * recording shows which section a slow /analytics call spent its time in
+     */
+    private static <T> T traced(String section, Supplier<T> supplier) {
+        AnalyticsEvent event = new AnalyticsEvent();
+        event.begin();
+        T result = supplier.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.section = section;
+            event.rows = result instanceof Object[] rows ? rows.length : 1;
+            event.commit();
+        }
+        return result;
     }
 
     @Override
@@ -125,103 +280,60 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
     @Override
     public OperationDurationsDTO getOperationDurations() {
-        // Get all completed operations
-        List<Operation> completedOperations = operationRepository.findByStatus("TERMINEE");
-        
-        // Calculate durations
-        List<Integer> durations = completedOperations.stream()
-                .filter(op -> op.getDate_debut() != null && op.getDate_fin() != null)
-                .map(op -> (int) Duration.between(op.getDate_debut(), op.getDate_fin()).toMinutes())
-                .collect(Collectors.toList());
-        
-        // Calculate average duration
-        int averageDuration = durations.isEmpty() ? 0 : 
-                durations.stream().mapToInt(Integer::intValue).sum() / durations.size();
-        
-        // Calculate median duration
-        int medianDuration;
-        if (durations.isEmpty()) {
-            medianDuration = 0;
-        } else {
-            Collections.sort(durations);
-            int middle = durations.size() / 2;
-            if (durations.size() % 2 == 0) {
-                medianDuration = (durations.get(middle - 1) + durations.get(middle)) / 2;
-            } else {
-                medianDuration = durations.get(middle);
-            }
-        }
-        
-        // Count operations by duration ranges
-        Map<String, Integer> durationCounts = new LinkedHashMap<>();
-        durationCounts.put("0-60min", 0);
-        durationCounts.put("1-2h", 0);
-        durationCounts.put("2-4h", 0);
-        durationCounts.put("4-8h", 0);
-        durationCounts.put(">8h", 0);
-        
-        for (int duration : durations) {
-            if (duration <= 60) {
-                durationCounts.put("0-60min", durationCounts.get("0-60min") + 1);
-            } else if (duration <= 120) {
-                durationCounts.put("1-2h", durationCounts.get("1-2h") + 1);
-            } else if (duration <= 240) {
-                durationCounts.put("2-4h", durationCounts.get("2-4h") + 1);
-            } else if (duration <= 480) {
-                durationCounts.put("4-8h", durationCounts.get("4-8h") + 1);
-            } else {
-                durationCounts.put(">8h", durationCounts.get(">8h") + 1);
+        // Count, total and ranges in one aggregate: no operation is loaded
+        Map<String, Object> summary = operationRepository.summarizeDurationsByStatus("TERMINEE").get(0);
+        long count = ((Number) summary.get("count")).longValue();
+        long totalMinutes = ((Number) summary.get("totalMinutes")).longValue();
+        int averageDuration = count == 0 ? 0 : (int) (totalMinutes / count);
+
+        // Median and p90 from a fixed-size log-linear histogram fed by the durations
+        // streamed one row at a time (within ~6%, exact below 32 min; negative durations count as 0)
+        long[] histogram = new long[LatencyHistogram.BUCKET_COUNT];
+        if (count > 0) {
+            try (Stream<Number> minutes = operationRepository.streamDurationMinutesByStatus("TERMINEE")) {
+                minutes.forEach(duration -> histogram[LatencyHistogram.bucketIndex(duration.longValue())]++);
             }
         }
-        
-        // Convert to DTOs
-        OperationDurationsDTO.DurationRangeDTO[] durationRanges = durationCounts.entrySet().stream()
-                .map(entry -> new OperationDurationsDTO.DurationRangeDTO(entry.getKey(), entry.getValue()))
-                .toArray(OperationDurationsDTO.DurationRangeDTO[]::new);
-        
-        return new OperationDurationsDTO(averageDuration, medianDuration, durationRanges);
+        int medianDuration = (int) LatencyHistogram.valueAtPercentile(histogram, 50);
+        int p90Duration = (int) LatencyHistogram.valueAtPercentile(histogram, 90);
+
+        OperationDurationsDTO.DurationRangeDTO[] durationRanges = {
+                durationRange("0-60min", summary.get("upTo1h")),
+                durationRange("1-2h", summary.get("upTo2h")),
+                durationRange("2-4h", summary.get("upTo4h")),
+                durationRange("4-8h", summary.get("upTo8h")),
+                durationRange(">8h", summary.get("over8h"))
+        };
+
+        return new OperationDurationsDTO(averageDuration, medianDuration, p90Duration, durationRanges);
+    }
+
+    private static OperationDurationsDTO.DurationRangeDTO durationRange(String range, Object count) {
+        return new OperationDurationsDTO.DurationRangeDTO(range, ((Number) count).intValue());
     }
 
     @Override
     public TopEquipeDTO[] getTopEquipes() {
-        // Get operations per equipe
-        List<Map<String, Object>> operationsPerEquipe = operationRepository.countOperationsByEquipe();
-        
-        // Create map of equipe ID to operation count
-        Map<String, Integer> equipeOperationsMap = operationsPerEquipe.stream()
-                .collect(Collectors.toMap(
-                        result -> (String) result.get("equipeId"),
-                        result -> ((Number) result.get("operationCount")).intValue()
-                ));
-        
-        // Calculate efficiency per equipe (completed / total)
-        Map<String, Integer> equipeEfficiencyMap = new HashMap<>();
-        for (String equipeId : equipeOperationsMap.keySet()) {
-            int totalOps = equipeOperationsMap.get(equipeId);
-            int completedOps = operationRepository.countCompletedOperationsByEquipe(equipeId);
-            int efficiency = totalOps > 0 ? (int) ((completedOps * 100.0) / totalOps) : 0;
-            equipeEfficiencyMap.put(equipeId, efficiency);
-        }
-        
-        // Get equipe information and combine with metrics
-        List<Equipe> equipes = equipeRepository.findAll();
-        Map<String, String> equipeNamesMap = equipes.stream()
-                .collect(Collectors.toMap(
-                    Equipe::getId_equipe, 
-                    Equipe::getNom_equipe
-                ));
-        
-        // Create DTOs for top equipes
-        return equipeOperationsMap.entrySet().stream()
-                .map(entry -> {
-                    String equipeId = entry.getKey();
-                    int operations = entry.getValue();
-                    int efficiency = equipeEfficiencyMap.getOrDefault(equipeId, 0);
-                    String equipeName = equipeNamesMap.getOrDefault(equipeId, "Unknown");
-                    return new TopEquipeDTO(equipeName, operations, efficiency);
+        return getTopEquipes(null, null, null);
+    }
+
+    @Override
+    public TopEquipeDTO[] getTopEquipes(Integer limit, LocalDate from, LocalDate to) {
+        int topK = limit != null ? Math.max(1, Math.min(MAX_TOP_EQUIPES, limit)) : DEFAULT_TOP_EQUIPES;
+        // Totals, completed counts, names, ranking and limit in a single statement
+        List<Map<String, Object>> results = operationRepository.findTopEquipesByOperations(
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                topK);
+
+        return results.stream()
+                .map(result -> {
+                    int operations = ((Number) result.get("operationCount")).intValue();
+                    int completed = ((Number) result.get("completedCount")).intValue();
+                    int efficiency = operations > 0 ? (int) ((completed * 100.0) / operations) : 0;
+                    String equipeName = (String) result.get("equipeName");
+                    return new TopEquipeDTO(equipeName != null ? equipeName : "Unknown", operations, efficiency);
                 })
-                .sorted(Comparator.comparingInt(TopEquipeDTO::operations).reversed())
-                .limit(5)
                 .toArray(TopEquipeDTO[]::new);
     }
 
@@ -292,25 +404,42 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
     @Override
     public RecentEscaleDTO[] getRecentEscales() {
-        // Get recent escales using PageRequest for the top 5
-        List<Escale> recentEscales = escaleRepository.findRecentEscales(PageRequest.of(0, 5));
-        
-        // Convert to DTOs
+        return getRecentEscales(0, null);
+    }
+
+    @Override
+    public RecentEscaleDTO[] getRecentEscales(Integer page, Integer limit) {
+        int pageSize = limit != null ? Math.max(1, Math.min(MAX_RECENT_ESCALES, limit)) : recentEscalesLimit;
+        List<Escale> recentEscales = escaleRepository.findRecentEscales(
+                PageRequest.of(page != null ? Math.max(0, page) : 0, pageSize));
+        if (recentEscales.isEmpty()) {
+            return new RecentEscaleDTO[0];
+        }
+
+        // Operation counts for the whole page in one grouped query
+        List<String> escaleIds = recentEscales.stream().map(Escale::getNum_escale).toList();
+        Map<String, int[]> operationCounts = new HashMap<>(); // escale -> {total, completed}
+        for (Map<String, Object> result : operationRepository.countOperationsByEscaleIds(escaleIds)) {
+            operationCounts.put((String) result.get("escaleId"), new int[]{
+                    ((Number) result.get("operationCount")).intValue(),
+                    ((Number) result.get("completedCount")).intValue()});
+        }
+
+        // Same rule as EscaleRepository.countByStatus: in port until DATE_sortie
+        LocalDateTime now = LocalDateTime.now();
         return recentEscales.stream()
                 .map(escale -> {
-                    int totalOps = operationRepository.countByEscaleId(escale.getNum_escale());
-                    int completedOps = operationRepository.countByEscaleIdAndStatus(escale.getNum_escale(), "TERMINEE");
-                    
-                    String navireNom = escale.getNOM_navire();
-                    
+                    int[] counts = operationCounts.getOrDefault(escale.getNum_escale(), new int[2]);
+                    String status = escale.getDATE_sortie() != null && escale.getDATE_sortie().isAfter(now)
+                            ? "EN_COURS" : "TERMINEE";
                     return new RecentEscaleDTO(
                             escale.getNum_escale(),
-                            navireNom,
-                            "Active", // Hard-coded for now, should be derived from a status field if available
+                            escale.getNOM_navire(),
+                            status,
                             escale.getDATE_accostage(),
                             escale.getDATE_sortie(),
-                            totalOps,
-                            completedOps
+                            counts[0],
+                            counts[1]
                     );
                 })
                 .toArray(RecentEscaleDTO[]::new);
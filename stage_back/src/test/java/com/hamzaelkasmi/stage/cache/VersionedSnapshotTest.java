@@ -0,0 +1,80 @@
+package com.hamzaelkasmi.stage.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VersionedSnapshotTest {
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private CompletableFuture<String> pending;
+
+    private final Supplier<CompletableFuture<String>> loader = () -> {
+        loads.incrementAndGet();
+        pending = new CompletableFuture<>();
+        return pending;
+    };
+
+    @Test
+    void coalescesConcurrentMisses() {
+        VersionedSnapshot<String> snapshot = new VersionedSnapshot<>(version::get, TimeUnit.MINUTES.toNanos(5));
+
+        CompletableFuture<String> first = snapshot.get(loader);
+        CompletableFuture<String> second = snapshot.get(loader);
+        assertEquals(1, loads.get());
+        assertFalse(first.isDone());
+
+        pending.complete("v0");
+        assertEquals("v0", first.join());
+        assertEquals("v0", second.join());
+        assertEquals("v0", snapshot.get(loader).join());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void servesStaleValueWhileRefreshing() {
+        VersionedSnapshot<String> snapshot = new VersionedSnapshot<>(version::get, TimeUnit.MINUTES.toNanos(5));
+        snapshot.get(loader);
+        pending.complete("v0");
+
+        version.incrementAndGet();
+        assertEquals("v0", snapshot.get(loader).join());
+        assertEquals("v0", snapshot.get(loader).join());
+        assertEquals(2, loads.get());
+
+        pending.complete("v1");
+        assertEquals("v1", snapshot.get(loader).join());
+        assertEquals(1, snapshot.getVersion());
+    }
+
+    @Test
+    void loadOverlappingAWriteStaysStale() {
+        VersionedSnapshot<String> snapshot = new VersionedSnapshot<>(version::get, TimeUnit.MINUTES.toNanos(5));
+        snapshot.get(loader);
+        version.incrementAndGet();
+        pending.complete("before write");
+
+        assertEquals("before write", snapshot.get(loader).join());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void doesNotCacheFailures() {
+        VersionedSnapshot<String> snapshot = new VersionedSnapshot<>(version::get, TimeUnit.MINUTES.toNanos(5));
+        CompletableFuture<String> failed = snapshot.get(loader);
+        pending.completeExceptionally(new IllegalStateException("boom"));
+        assertTrue(failed.isCompletedExceptionally());
+
+        CompletableFuture<String> retried = snapshot.get(loader);
+        assertEquals(2, loads.get());
+        pending.complete("v0");
+        assertEquals("v0", retried.join());
+    }
+}
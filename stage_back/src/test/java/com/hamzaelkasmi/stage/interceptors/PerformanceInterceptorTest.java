@@ -0,0 +1,144 @@
+package com.hamzaelkasmi.stage.interceptors;
+
+import com.hamzaelkasmi.stage.model.EndpointStats;
+import com.hamzaelkasmi.stage.monitoring.AlertStore;
+import com.hamzaelkasmi.stage.monitoring.ApiCallMetricWriter;
+import com.hamzaelkasmi.stage.monitoring.InFlightRequests;
+import com.hamzaelkasmi.stage.monitoring.RequestTiming;
+import com.hamzaelkasmi.stage.monitoring.SystemMetricsSampler;
+import com.hamzaelkasmi.stage.service.MetricsRollupService;
+import com.hamzaelkasmi.stage.service.PerformanceMonitoringService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerformanceInterceptorTest {
+
+    private PerformanceMonitoringService service;
+    private PerformanceInterceptor interceptor;
+    private RequestTimingFilter filter;
+    private InFlightRequests inFlightRequests;
+
+    @BeforeEach
+    void setUp() {
+        inFlightRequests = new InFlightRequests();
+        service = new PerformanceMonitoringService(
+                new ApiCallMetricWriter(null, false, 16, 16),
+                new SystemMetricsSampler(2000),
+                new MetricsRollupService(null, 24, 7, 90, 5000, 60, 3, 100),
+                new AlertStore(10),
+                inFlightRequests,
+                true, 100, 200, 50);
+        interceptor = new PerformanceInterceptor(service, inFlightRequests);
+        filter = new RequestTimingFilter(service, inFlightRequests);
+    }
+
+    @Test
+    void recordsWhenEnabled() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertTrue(RequestTiming.isTimed(request));
+        assertEquals(1, service.getPerformanceMetrics().getTotalRequests());
+    }
+
+    @Test
+    void attributesAllocationToEndpoint() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/test");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+        interceptor.preHandle(request, response, null);
+        byte[] body = new byte[1 << 20];
+        interceptor.afterCompletion(request, response, null, null);
+
+        EndpointStats stats = service.getPerformanceMetrics().getEndpoints().stream()
+                .filter(endpoint -> endpoint.getEndpoint().equals("GET /api/test"))
+                .findFirst().orElseThrow();
+        assertTrue(stats.getAverageAllocatedBytes() >= body.length, "allocated " + stats.getAverageAllocatedBytes());
+        assertTrue(stats.getAverageCpuMicros() >= 0);
+    }
+
+    @Test
+    void disabledPathSkipsTimingAndRecording() throws Exception {
+        service.disableMonitoring();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertFalse(RequestTiming.isTimed(request));
+        assertEquals(0, RequestTiming.get(request, RequestTiming.HANDLER_START));
+        assertEquals(0, service.getPerformanceMetrics().getTotalRequests());
+    }
+
+    @Test
+    void countsRequestsInFlightEvenWhenDisabled() throws Exception {
+        service.disableMonitoring();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        int[] seen = new int[1];
+
+        filter.doFilter(request, response, (req, res) -> seen[0] = inFlightRequests.getInFlight());
+
+        assertEquals(1, seen[0]);
+        assertEquals(0, inFlightRequests.getInFlight());
+        assertEquals(1, inFlightRequests.getStartedCount());
+    }
+
+    @Test
+    void countsAsyncRequestsUntilTheyComplete() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/analytics/all");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+        // The chain has returned but the handler has not answered yet
+        assertEquals(1, inFlightRequests.getInFlight());
+
+        request.getAsyncContext().complete();
+        assertEquals(0, inFlightRequests.getInFlight());
+    }
+
+    @Test
+    void disabledPathLeavesNoTrace() {
+        service.disableMonitoring();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        assertEquals(0, inFlightRequests.size());
+        interceptor.afterCompletion(request, response, null, null);
+
+        // Nothing boxed into request attributes, nothing registered, nothing recorded
+        assertFalse(request.getAttributeNames().hasMoreElements());
+        assertEquals(0, inFlightRequests.size());
+        assertEquals(0, service.getPerformanceMetrics().getTotalRequests());
+    }
+
+    @Test
+    void unregistersRequestWhenMonitoringIsSwitchedOffMidRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        assertEquals(1, inFlightRequests.size());
+        service.disableMonitoring();
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertEquals(0, inFlightRequests.size());
+        assertEquals(0, service.getPerformanceMetrics().getTotalRequests());
+    }
+}
@@ -0,0 +1,71 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.PerformanceAlert;
+import com.hamzaelkasmi.stage.model.PerformanceAlert.AlertLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlertStoreTest {
+
+    @Test
+    void repeatedFiringUpdatesTheOpenAlert() {
+        AlertStore store = new AlertStore(10);
+
+        assertTrue(store.fire("cpu|system", alert("cpu at 91%", AlertLevel.WARNING)));
+        assertFalse(store.fire("cpu|system", alert("cpu at 97%", AlertLevel.ERROR)));
+
+        List<PerformanceAlert> alerts = store.getAlerts();
+        assertEquals(1, alerts.size());
+        assertEquals("cpu at 97%", alerts.get(0).getMessage());
+        assertEquals(AlertLevel.ERROR, alerts.get(0).getLevel());
+    }
+
+    @Test
+    void firingAfterResolutionOpensANewAlert() {
+        AlertStore store = new AlertStore(10);
+        store.fire("cpu|system", alert("first", AlertLevel.WARNING));
+        store.resolve("cpu|system");
+
+        assertTrue(store.fire("cpu|system", alert("second", AlertLevel.WARNING)));
+
+        List<PerformanceAlert> alerts = store.getAlerts();
+        assertEquals(2, alerts.size());
+        assertEquals("second", alerts.get(0).getMessage());
+        assertEquals("first", alerts.get(1).getMessage());
+    }
+
+    @Test
+    void evictsTheOldestAlertOnceFull() {
+        AlertStore store = new AlertStore(2);
+        store.fire("a", alert("a", AlertLevel.WARNING));
+        store.fire("b", alert("b", AlertLevel.WARNING));
+        store.fire("c", alert("c", AlertLevel.WARNING));
+
+        assertEquals(List.of("c", "b"), store.getAlerts().stream().map(PerformanceAlert::getMessage).toList());
+        // The evicted alert is no longer open, so its key starts a new one
+        assertTrue(store.fire("a", alert("a again", AlertLevel.WARNING)));
+        assertEquals(List.of("a again", "c"), store.getAlerts().stream().map(PerformanceAlert::getMessage).toList());
+    }
+
+    @Test
+    void readersGetSnapshotsThatLaterUpdatesDoNotChange() {
+        AlertStore store = new AlertStore(10);
+        PerformanceAlert fired = alert("cpu at 91%", AlertLevel.WARNING);
+        store.fire("cpu|system", fired);
+        PerformanceAlert read = store.getAlerts().get(0);
+
+        store.fire("cpu|system", alert("cpu at 97%", AlertLevel.ERROR));
+        fired.setMessage("changed by the caller");
+        read.setMessage("changed by the reader");
+
+        assertEquals("cpu at 97%", store.getAlerts().get(0).getMessage());
+        assertEquals(AlertLevel.ERROR, store.getAlerts().get(0).getLevel());
+    }
+
+    private static PerformanceAlert alert(String message, AlertLevel level) {
+        return new PerformanceAlert("system", 0, message, level);
+    }
+}
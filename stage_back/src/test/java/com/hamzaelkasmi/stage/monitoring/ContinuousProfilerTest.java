@@ -0,0 +1,51 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.HotMethod;
+import com.hamzaelkasmi.stage.model.ProfileSummary;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContinuousProfilerTest {
+
+    // 10 slots of 30 seconds
+    private final ContinuousProfiler profiler = new ContinuousProfiler(false, 20, 300, 10, 100, 5);
+
+    @Test
+    void oldSamplesLeaveTheWindow() {
+        profiler.record(1_000, "A.run;B.work");
+        profiler.record(1_000, "A.run;B.work");
+        profiler.record(1_200, "A.run;C.parse");
+
+        assertEquals(Map.of("A.run;B.work", 2L, "A.run;C.parse", 1L), profiler.getCollapsedStacks(1_200));
+        // 300 seconds later the first slot has left the window
+        assertEquals(Map.of("A.run;C.parse", 1L), profiler.getCollapsedStacks(1_300));
+
+        // A new sample reusing the same slot replaces the old period
+        profiler.record(1_300, "A.run;D.hash");
+        assertEquals(Map.of("A.run;C.parse", 1L, "A.run;D.hash", 1L), profiler.getCollapsedStacks(1_300));
+    }
+
+    @Test
+    void hotMethodsCountSelfAndInclusiveSamples() {
+        ProfileSummary summary = profiler.summarize(Map.of(
+                "A.run;B.work;B.work;C.hash", 3L,
+                "A.run;B.work", 1L,
+                "[truncated];C.hash", 2L));
+
+        assertEquals(6, summary.getSamples());
+        HotMethod hottest = summary.getHotMethods().get(0);
+        assertEquals("C.hash", hottest.getMethod());
+        assertEquals(5, hottest.getSelfSamples());
+        assertEquals(5, hottest.getTotalSamples());
+
+        HotMethod work = summary.getInclusiveHotMethods().stream()
+                .filter(method -> method.getMethod().equals("B.work")).findFirst().orElseThrow();
+        // Recursion counts once per sample
+        assertEquals(4, work.getTotalSamples());
+        assertEquals(1, work.getSelfSamples());
+        assertTrue(summary.getInclusiveHotMethods().stream().noneMatch(method -> method.getMethod().startsWith("[")));
+    }
+}
@@ -0,0 +1,86 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EndpointRegistryTest {
+
+    @Test
+    void createsOneEntryPerKeyUntilTheCap() {
+        EndpointRegistry<EndpointMetrics> registry = new EndpointRegistry<>(3, EndpointMetrics::new);
+
+        EndpointMetrics navires = registry.get("GET /api/navires");
+        assertSame(navires, registry.get("GET /api/navires"));
+        assertEquals("GET /api/navires", navires.getEndpoint());
+        registry.get("GET /api/escales");
+
+        assertEquals(2, registry.size());
+        assertEquals(3, registry.values().size());
+    }
+
+    @Test
+    void newKeysPastTheCapShareTheOverflowEntry() {
+        EndpointRegistry<EndpointMetrics> registry = new EndpointRegistry<>(2, EndpointMetrics::new);
+        EndpointMetrics navires = registry.get("GET /api/navires");
+        EndpointMetrics escales = registry.get("GET /api/escales");
+
+        EndpointMetrics first = registry.get("GET /api/navires/1");
+        EndpointMetrics second = registry.get("GET /api/navires/2");
+
+        assertSame(registry.getOverflow(), first);
+        assertSame(first, second);
+        assertEquals(EndpointRegistry.OVERFLOW_KEY, first.getEndpoint());
+        assertEquals(2, registry.size());
+        // Keys registered before the cap keep their own entry
+        assertSame(navires, registry.get("GET /api/navires"));
+        assertSame(escales, registry.get("GET /api/escales"));
+        assertEquals(List.of("GET /api/escales", "GET /api/navires", EndpointRegistry.OVERFLOW_KEY),
+                registry.values().stream().map(EndpointMetrics::getEndpoint).sorted().toList());
+    }
+
+    @Test
+    void concurrentCreationNeverExceedsTheCap() throws Exception {
+        int maxEntries = 50;
+        int threads = 8;
+        EndpointRegistry<EndpointMetrics> registry = new EndpointRegistry<>(maxEntries, EndpointMetrics::new);
+        Set<EndpointMetrics> created = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    // Every thread races for the same 500 keys
+                    for (int key = 0; key < 500; key++) {
+                        created.add(registry.get("GET /api/item/" + key));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(maxEntries, registry.size());
+        assertEquals(maxEntries + 1, registry.values().size());
+        // Handed-out entries are the registered ones plus the overflow, never an orphan
+        assertEquals(maxEntries + 1, created.size());
+        assertTrue(created.contains(registry.getOverflow()));
+    }
+}
@@ -0,0 +1,123 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.interceptors.PerformanceInterceptor;
+import com.hamzaelkasmi.stage.interceptors.RequestTimingFilter;
+import com.hamzaelkasmi.stage.model.ApiCallMetric;
+import com.hamzaelkasmi.stage.model.PerformanceAlert;
+import com.hamzaelkasmi.stage.service.AlertEvaluationService;
+import com.hamzaelkasmi.stage.service.MetricsRollupService;
+import com.hamzaelkasmi.stage.service.PerformanceMonitoringService;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class HibernateSqlListenerTest {
+
+    private static final int STATEMENT_BUDGET = 3;
+
+    private PerformanceMonitoringService service;
+    private PerformanceInterceptor interceptor;
+    private RequestTimingFilter filter;
+    private AlertStore alertStore;
+    private AlertEvaluationService alerts;
+
+    @BeforeEach
+    void setUp() {
+        InFlightRequests inFlightRequests = new InFlightRequests();
+        alertStore = new AlertStore(10);
+        service = new PerformanceMonitoringService(
+                new ApiCallMetricWriter(null, false, 16, 16),
+                new SystemMetricsSampler(2000),
+                new MetricsRollupService(null, 24, 7, 90, 5000, 60, 3, 100),
+                alertStore,
+                inFlightRequests,
+                true, 100, 200, STATEMENT_BUDGET);
+        interceptor = new PerformanceInterceptor(service, inFlightRequests);
+        filter = new RequestTimingFilter(service, inFlightRequests);
+        alerts = new AlertEvaluationService(service, alertStore, mock(ConnectionPoolMonitor.class),
+                5000, 1.0, 10, 90, 90, 10, 1, 4, STATEMENT_BUDGET);
+    }
+
+    @Test
+    void sessionCallbacksEndUpOnTheRequestMetric() throws Exception {
+        ApiCallMetric metric = runRequest(2, 3, 4, 1);
+
+        assertEquals(5, metric.getSqlStatements());
+        assertEquals(4, metric.getEntitiesLoaded());
+        assertEquals(1, metric.getCollectionsFetched());
+        assertTrue(metric.getJdbcTime() >= 0);
+    }
+
+    @Test
+    void callbacksOutsideARequestAreIgnored() throws Exception {
+        HibernateSqlListener session = new HibernateSqlListener();
+        session.jdbcExecuteStatementStart();
+        session.jdbcExecuteStatementEnd();
+        session.onPostLoad(mock(PostLoadEvent.class));
+
+        ApiCallMetric metric = runRequest(1, 0, 0, 0);
+        assertEquals(1, metric.getSqlStatements());
+        assertEquals(0, metric.getEntitiesLoaded());
+    }
+
+    @Test
+    void requestOverTheStatementBudgetRaisesAnAlert() throws Exception {
+        // First run only sets the baseline for the endpoint
+        runRequest(STATEMENT_BUDGET, 0, 0, 0);
+        alerts.evaluate();
+
+        runRequest(STATEMENT_BUDGET, 0, 0, 0);
+        alerts.evaluate();
+        assertTrue(alertStore.getAlerts().isEmpty());
+
+        runRequest(STATEMENT_BUDGET + 1, 0, 0, 0);
+        alerts.evaluate();
+        List<PerformanceAlert> fired = alertStore.getAlerts();
+        assertEquals(1, fired.size());
+        assertEquals("sql-statement-budget", fired.get(0).getRule());
+        assertEquals("GET /api/equipes", fired.get(0).getEndpoint());
+    }
+
+    /**
+     * One request through the filter and interceptor, with a Hibernate session
+     * running the given statements, batches, entity loads and collection fetches
+     */
+    private ApiCallMetric runRequest(int statements, int batches, int entities, int collections) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/equipes");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/equipes");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            interceptor.preHandle(request, response, null);
+            HibernateSqlListener session = new HibernateSqlListener();
+            for (int i = 0; i < statements; i++) {
+                session.jdbcExecuteStatementStart();
+                session.jdbcExecuteStatementEnd();
+            }
+            for (int i = 0; i < batches; i++) {
+                session.jdbcExecuteBatchStart();
+                session.jdbcExecuteBatchEnd();
+            }
+            for (int i = 0; i < entities; i++) {
+                session.onPostLoad(mock(PostLoadEvent.class));
+            }
+            for (int i = 0; i < collections; i++) {
+                session.onInitializeCollection(mock(InitializeCollectionEvent.class));
+            }
+            interceptor.afterCompletion(request, response, null, null);
+        });
+
+        return service.getPerformanceMetrics().getApiCalls().stream()
+                .reduce((first, second) -> second)
+                .orElseThrow();
+    }
+}
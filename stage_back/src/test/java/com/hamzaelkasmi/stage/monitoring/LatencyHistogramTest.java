@@ -0,0 +1,49 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketBoundsAreContiguous() {
+        for (int i = 1; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            assertEquals(LatencyHistogram.bucketUpperBound(i - 1) + 1, LatencyHistogram.bucketLowerBound(i));
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1,
+                LatencyHistogram.bucketIndex(LatencyHistogram.MAX_TRACKABLE_MICROS));
+    }
+
+    @Test
+    public void testPercentilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.record(micros);
+        }
+        long[] counts = histogram.snapshot();
+
+        assertWithinError(50_000, LatencyHistogram.valueAtPercentile(counts, 50));
+        assertWithinError(90_000, LatencyHistogram.valueAtPercentile(counts, 90));
+        assertWithinError(99_000, LatencyHistogram.valueAtPercentile(counts, 99));
+    }
+
+    @Test
+    public void testEndpointMetricsErrorRate() {
+        EndpointMetrics metrics = new EndpointMetrics("GET /api/test");
+        metrics.record(1_000, true);
+        metrics.record(2_000, true);
+        metrics.record(3_000, false);
+        metrics.record(4_000, true);
+
+        assertEquals(4, metrics.getCount());
+        assertEquals(25.0, metrics.toStats().getErrorRate(), 0.001);
+        assertEquals(4.0, metrics.toStats().getMax(), 0.001);
+    }
+
+    private void assertWithinError(long expected, long actual) {
+        double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue(error < 0.07, "expected ~" + expected + " but was " + actual);
+    }
+}
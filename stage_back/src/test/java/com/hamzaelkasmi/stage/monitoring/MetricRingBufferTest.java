@@ -0,0 +1,128 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.ApiCallMetric;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(8, new MetricRingBuffer<Integer>(5).capacity());
+        assertEquals(8, new MetricRingBuffer<Integer>(8).capacity());
+        assertEquals(4, new MetricRingBuffer<Integer>(0).capacity());
+    }
+
+    @Test
+    void drainsInOfferOrderAndRespectsTheLimit() {
+        MetricRingBuffer<Integer> buffer = new MetricRingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(2, buffer.size());
+        assertEquals(2, buffer.drainTo(drained, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4), drained);
+        assertEquals(0, buffer.drainTo(drained, 10));
+    }
+
+    @Test
+    void wrapsAroundWithoutLosingOrder() {
+        MetricRingBuffer<Integer> buffer = new MetricRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+        // Ten laps over four slots, draining a little less than was offered each time
+        for (int lap = 0; lap < 10; lap++) {
+            while (buffer.offer(next)) {
+                next++;
+            }
+            buffer.drainTo(drained, 3);
+        }
+        buffer.drainTo(drained, 4);
+
+        assertEquals(next, drained.size());
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i, drained.get(i));
+        }
+    }
+
+    @Test
+    void refusesOffersWhenFullUntilDrained() {
+        MetricRingBuffer<Integer> buffer = new MetricRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        buffer.drainTo(new ArrayList<>(), 1);
+        assertTrue(buffer.offer(5));
+        assertFalse(buffer.offer(6));
+    }
+
+    @Test
+    void writerCountsDroppedMetricsWhenTheBufferIsFull() {
+        ApiCallMetricWriter writer = new ApiCallMetricWriter(new JdbcTemplate(), true, 4, 16);
+        for (int i = 0; i < 6; i++) {
+            writer.enqueue(new ApiCallMetric("GET /api/test", 1, true, "GET", 200));
+        }
+
+        assertEquals(4, writer.getQueuedCount());
+        assertEquals(2, writer.getDroppedCount());
+    }
+
+    @Test
+    void shutdownFlushWaitsForTheScheduledOne() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger concurrentWriters = new AtomicInteger();
+        AtomicInteger maxConcurrentWriters = new AtomicInteger();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> pss) {
+                maxConcurrentWriters.accumulateAndGet(concurrentWriters.incrementAndGet(), Math::max);
+                writing.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                concurrentWriters.decrementAndGet();
+                return new int[0][];
+            }
+        };
+        ApiCallMetricWriter writer = new ApiCallMetricWriter(jdbcTemplate, true, 64, 1);
+        for (int i = 0; i < 3; i++) {
+            writer.enqueue(new ApiCallMetric("GET /api/test", 1, true, "GET", 200));
+        }
+
+        Thread scheduled = new Thread(writer::flush);
+        scheduled.start();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        Thread shutdown = new Thread(writer::shutdown);
+        shutdown.start();
+        // The shutdown flush is blocked behind the scheduled one instead of draining alongside it
+        shutdown.join(100);
+        assertTrue(shutdown.isAlive());
+
+        release.countDown();
+        scheduled.join(5000);
+        shutdown.join(5000);
+        assertEquals(1, maxConcurrentWriters.get());
+        assertEquals(3, writer.getPersistedCount());
+        assertEquals(0, writer.getQueuedCount());
+    }
+}
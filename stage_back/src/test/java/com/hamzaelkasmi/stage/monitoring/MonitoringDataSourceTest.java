@@ -0,0 +1,158 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.SqlStatementStats;
+import com.mysql.cj.jdbc.JdbcConnection;
+import com.mysql.cj.jdbc.JdbcPreparedStatement;
+import com.mysql.cj.jdbc.result.ResultSetInternalMethods;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MonitoringDataSourceTest {
+
+    private static final String SQL = "SELECT nom FROM navire WHERE id = ?";
+    private static final String CALL = "{call navires_en_escale(?)}";
+
+    private SqlMetricsRegistry registry;
+    // Stand-ins for Hikari's pooled connection and the MySQL objects behind it
+    private Connection pooledConnection;
+    private JdbcConnection driverConnection;
+    private JdbcPreparedStatement driverStatement;
+    private ResultSetInternalMethods driverResultSet;
+    private MonitoringDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry = new SqlMetricsRegistry(100);
+        pooledConnection = mock(Connection.class);
+        driverConnection = mock(JdbcConnection.class);
+        driverStatement = mock(JdbcPreparedStatement.class);
+        driverResultSet = mock(ResultSetInternalMethods.class);
+        when(pooledConnection.isWrapperFor(JdbcConnection.class)).thenReturn(true);
+        when(pooledConnection.unwrap(JdbcConnection.class)).thenReturn(driverConnection);
+        when(pooledConnection.prepareStatement(SQL)).thenReturn(driverStatement);
+        when(driverStatement.executeQuery()).thenReturn(driverResultSet);
+        when(driverStatement.executeUpdate()).thenReturn(3);
+        when(driverResultSet.next()).thenReturn(true, true, false);
+        when(driverResultSet.getString(1)).thenReturn("Atlas");
+
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(pooledConnection);
+        dataSource = new MonitoringDataSource(pool, registry);
+    }
+
+    @Test
+    void unwrapReachesThePoolAndTheDriver() throws Exception {
+        Connection connection = dataSource.getConnection();
+        assertNotSame(pooledConnection, connection);
+        assertSame(pooledConnection, connection.unwrap(Connection.class));
+        assertTrue(connection.isWrapperFor(JdbcConnection.class));
+        assertSame(driverConnection, connection.unwrap(JdbcConnection.class));
+
+        PreparedStatement statement = connection.prepareStatement(SQL);
+        assertTrue(statement.isWrapperFor(JdbcPreparedStatement.class));
+        assertSame(driverStatement, statement.unwrap(JdbcPreparedStatement.class));
+
+        ResultSet resultSet = statement.executeQuery();
+        assertTrue(resultSet.isWrapperFor(ResultSetInternalMethods.class));
+        assertSame(driverResultSet, resultSet.unwrap(ResultSetInternalMethods.class));
+        assertFalse(resultSet.isWrapperFor(JdbcConnection.class));
+    }
+
+    @Test
+    void unwrapOnTheDataSourceReachesHikari() throws Exception {
+        try (HikariDataSource hikari = new HikariDataSource()) {
+            MonitoringDataSource monitored = new MonitoringDataSource(hikari, registry);
+
+            assertTrue(monitored.isWrapperFor(HikariDataSource.class));
+            assertSame(hikari, monitored.unwrap(HikariDataSource.class));
+        }
+    }
+
+    @Test
+    void timesExecutionsAndCountsRows() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SQL)) {
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    assertEquals("Atlas", resultSet.getString(1));
+                }
+            }
+            statement.setLong(1, 7);
+            assertEquals(3, statement.executeUpdate());
+        }
+
+        SqlStatementStats stats = registry.statement(SQL).toStats();
+        assertEquals(2, stats.getCount());
+        assertEquals(0, stats.getErrorCount());
+        assertEquals(5, stats.getRows());
+        verify(driverStatement).setLong(1, 7);
+        verify(driverResultSet).close();
+        verify(pooledConnection).close();
+    }
+
+    @Test
+    void resultsReachedThroughAccessorsAreStillCounted() throws Exception {
+        CallableStatement driverCall = mock(CallableStatement.class);
+        when(pooledConnection.prepareCall(CALL)).thenReturn(driverCall);
+        when(driverCall.execute()).thenReturn(true);
+        when(driverCall.getResultSet()).thenReturn(driverResultSet);
+
+        try (Connection connection = dataSource.getConnection();
+             CallableStatement call = connection.prepareCall(CALL)) {
+            assertTrue(call.execute());
+            ResultSet resultSet = call.getResultSet();
+            assertSame(resultSet, call.getResultSet());
+            while (resultSet.next()) {
+                assertEquals("Atlas", resultSet.getString(1));
+            }
+        }
+
+        SqlStatementStats stats = registry.statement(CALL).toStats();
+        assertEquals(1, stats.getCount());
+        assertEquals(2, stats.getRows());
+    }
+
+    @Test
+    void accessorsNeverHandOutTheRawDriverObjects() throws Exception {
+        ResultSet driverKeys = mock(ResultSet.class);
+        when(driverKeys.next()).thenReturn(true, false);
+        when(driverStatement.getGeneratedKeys()).thenReturn(driverKeys);
+
+        Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(SQL);
+        assertSame(connection, statement.getConnection());
+        ResultSet resultSet = statement.executeQuery();
+        assertSame(statement, resultSet.getStatement());
+
+        statement.executeUpdate();
+        ResultSet keys = statement.getGeneratedKeys();
+        assertSame(driverKeys, keys.unwrap(ResultSet.class));
+        assertSame(statement, keys.getStatement());
+        assertTrue(keys.next());
+        // Generated keys are not rows read: only the three updated rows count
+        assertEquals(3, registry.statement(SQL).toStats().getRows());
+
+        // Statements made through the accessor are timed like any other
+        Statement plain = mock(Statement.class);
+        when(pooledConnection.createStatement()).thenReturn(plain);
+        when(plain.executeUpdate("DELETE FROM escale")).thenReturn(4);
+        statement.getConnection().createStatement().executeUpdate("DELETE FROM escale");
+        assertEquals(1, registry.statement("DELETE FROM escale").toStats().getCount());
+
+        statement.getConnection().close();
+        verify(pooledConnection).close();
+    }
+}
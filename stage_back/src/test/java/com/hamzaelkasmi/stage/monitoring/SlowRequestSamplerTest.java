@@ -0,0 +1,85 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.FlameGraphNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlowRequestSamplerTest {
+
+    @Test
+    void samplesOnlyRequestsPastTheSoftThreshold() throws Exception {
+        InFlightRequests inFlight = new InFlightRequests();
+        SlowRequestSampler sampler = new SlowRequestSampler(inFlight, 1000, 100, 10, 100, 64);
+        CountDownLatch registered = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(1);
+
+        Thread slow = new Thread(() -> serve(inFlight, "GET /api/slow", TimeUnit.SECONDS.toNanos(5), registered, done));
+        Thread fast = new Thread(() -> serve(inFlight, "GET /api/fast", 0, registered, done));
+        slow.start();
+        fast.start();
+        try {
+            assertTrue(registered.await(5, TimeUnit.SECONDS));
+            sampler.sample();
+            sampler.sample();
+        } finally {
+            done.countDown();
+            slow.join();
+            fast.join();
+        }
+
+        assertEquals(Map.of("GET /api/slow", 2L), sampler.getSampleCounts());
+        FlameGraphNode graph = sampler.getFlameGraph("GET /api/slow");
+        assertEquals(2, graph.getValue());
+        assertTrue(containsFrame(graph, SlowRequestSamplerTest.class.getName() + ".serve"));
+        assertNull(sampler.getFlameGraph("GET /api/fast"));
+    }
+
+    @Test
+    void distinctStacksAreCapped() {
+        StackProfile profile = new StackProfile(2, 64);
+        for (int i = 0; i < 5; i++) {
+            profile.add(new StackTraceElement[]{new StackTraceElement("Leaf", "m" + i, null, -1)});
+        }
+
+        Map<String, Long> stacks = profile.getStacks();
+        assertEquals(3, stacks.size());
+        assertEquals(3L, stacks.get(StackProfile.OVERFLOW_STACK));
+        assertEquals(5, profile.getSamples());
+    }
+
+    @Test
+    void deepStacksKeepTheLeafFrames() {
+        StackTraceElement[] frames = {
+                new StackTraceElement("C", "leaf", null, -1),
+                new StackTraceElement("B", "middle", null, -1),
+                new StackTraceElement("A", "root", null, -1)
+        };
+        assertEquals("A.root;B.middle;C.leaf", StackProfile.collapse(frames, 3));
+        assertEquals("[truncated];B.middle;C.leaf", StackProfile.collapse(frames, 2));
+    }
+
+    private static void serve(InFlightRequests inFlight, String endpoint, long age,
+                              CountDownLatch registered, CountDownLatch done) {
+        inFlight.started(endpoint, System.nanoTime() - age);
+        registered.countDown();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.finished();
+        }
+    }
+
+    private static boolean containsFrame(FlameGraphNode node, String frame) {
+        if (frame.equals(node.getName())) {
+            return true;
+        }
+        return node.getChildren().stream().anyMatch(child -> containsFrame(child, frame));
+    }
+}
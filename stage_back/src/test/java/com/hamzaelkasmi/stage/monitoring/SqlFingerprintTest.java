@@ -0,0 +1,34 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlFingerprintTest {
+
+    @Test
+    void literalsAreReplaced() {
+        assertEquals("select * from conteneure where id_conteneure = ? and nom = ?",
+                SqlFingerprint.normalize("SELECT * FROM conteneure WHERE id_conteneure = 42 AND nom = 'O''Brien'"));
+    }
+
+    @Test
+    void identifiersWithDigitsAreKept() {
+        assertEquals("select c1_0.id from api_call_metrics_1m c1_0 limit ?",
+                SqlFingerprint.normalize("select c1_0.id from api_call_metrics_1m c1_0 limit 10"));
+    }
+
+    @Test
+    void inListsOfAnyLengthShareAFingerprint() {
+        String two = SqlFingerprint.normalize("select * from navire where id in (?, ?)");
+        String five = SqlFingerprint.normalize("select * from navire where id in (1, 2, 3, 4, 5)");
+        assertEquals("select * from navire where id in (?+)", two);
+        assertEquals(two, five);
+    }
+
+    @Test
+    void commentsAndWhitespaceAreDropped() {
+        assertEquals("select count(*) from escale",
+                SqlFingerprint.normalize("/* load escales */ select\n    count(*)\tfrom escale -- trailing"));
+    }
+}
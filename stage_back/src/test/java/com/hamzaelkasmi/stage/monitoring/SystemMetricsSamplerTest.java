@@ -0,0 +1,101 @@
+package com.hamzaelkasmi.stage.monitoring;
+
+import com.hamzaelkasmi.stage.model.JvmMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SystemMetricsSamplerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void cpuIsTheBusyShareOfTheLastInterval() throws Exception {
+        Path procStat = dir.resolve("stat");
+        SystemMetricsSampler sampler = new SystemMetricsSampler(1000, writeStat(procStat, 9000, 1000, 0), () -> -1);
+        sampler.sampleCpu();
+
+        // 90% busy since boot, but only 10 of the last 100 ticks were
+        writeStat(procStat, 9010, 1080, 10);
+
+        assertEquals(10.0, sampler.sampleCpu(), 1e-9);
+    }
+
+    @Test
+    void firstReadingFallsBackToTheJvmView() throws Exception {
+        Path procStat = writeStat(dir.resolve("stat"), 9000, 1000, 0);
+        SystemMetricsSampler sampler = new SystemMetricsSampler(1000, procStat, () -> 0.25);
+
+        // One reading only has the average since boot (90%), which is not reported
+        assertEquals(25.0, sampler.sampleCpu(), 1e-9);
+    }
+
+    @Test
+    void withoutProcStatTheJvmViewIsUsedEveryTime() {
+        SystemMetricsSampler sampler = new SystemMetricsSampler(1000, dir.resolve("missing"), () -> 0.4);
+
+        assertEquals(40.0, sampler.sampleCpu(), 1e-9);
+        assertEquals(40.0, sampler.sampleCpu(), 1e-9);
+        assertEquals(0, new SystemMetricsSampler(1000, dir.resolve("missing"), () -> -1).sampleCpu());
+    }
+
+    @Test
+    void collectorsReportTheIntervalBesideTheTotals() {
+        SystemMetricsSampler sampler = new SystemMetricsSampler(1000, dir.resolve("missing"), () -> -1);
+        GarbageCollectorMXBean collector = mock(GarbageCollectorMXBean.class);
+        when(collector.getName()).thenReturn("G1 Young Generation");
+        when(collector.getCollectionCount()).thenReturn(40L, 43L, 43L);
+        when(collector.getCollectionTime()).thenReturn(800L, 830L, 830L);
+
+        JvmMetrics.GarbageCollector first = sampler.sampleCollector(collector);
+        assertEquals(40, first.getCollectionCount());
+        assertEquals(0, first.getRecentCollections());
+
+        JvmMetrics.GarbageCollector second = sampler.sampleCollector(collector);
+        assertEquals(43, second.getCollectionCount());
+        assertEquals(830, second.getCollectionTime());
+        assertEquals(3, second.getRecentCollections());
+        assertEquals(30, second.getRecentCollectionTime());
+
+        JvmMetrics.GarbageCollector idle = sampler.sampleCollector(collector);
+        assertEquals(0, idle.getRecentCollections());
+        assertEquals(0, idle.getRecentCollectionTime());
+    }
+
+    @Test
+    void poolsReportTheLiveDataLeftByTheLastCollection() {
+        SystemMetricsSampler sampler = new SystemMetricsSampler(1000, dir.resolve("missing"), () -> -1);
+        MemoryPoolMXBean oldGen = mock(MemoryPoolMXBean.class);
+        when(oldGen.getName()).thenReturn("G1 Old Gen");
+        when(oldGen.getType()).thenReturn(MemoryType.HEAP);
+        when(oldGen.getUsage()).thenReturn(new MemoryUsage(0, 700, 1000, 2000));
+        when(oldGen.getCollectionUsage()).thenReturn(new MemoryUsage(0, 300, 1000, 2000));
+        MemoryPoolMXBean metaspace = mock(MemoryPoolMXBean.class);
+        when(metaspace.getName()).thenReturn("Metaspace");
+        when(metaspace.getType()).thenReturn(MemoryType.NON_HEAP);
+        when(metaspace.getUsage()).thenReturn(new MemoryUsage(0, 50, 60, -1));
+
+        JvmMetrics.MemoryPool heap = sampler.sampleMemoryPool(oldGen);
+        assertEquals("HEAP", heap.getType());
+        assertEquals(700, heap.getUsed());
+        assertEquals(300, heap.getUsedAfterLastGc());
+        assertEquals(-1, sampler.sampleMemoryPool(metaspace).getUsedAfterLastGc());
+    }
+
+    private static Path writeStat(Path file, long user, long idle, long iowait) throws Exception {
+        // user nice system idle iowait irq softirq steal guest guest_nice
+        return Files.writeString(file, String.format(
+                "cpu  %d 0 0 %d %d 0 0 0 0 0%ncpu0 %d 0 0 %d %d 0 0 0 0 0%n", user, idle, iowait, user, idle, iowait));
+    }
+}
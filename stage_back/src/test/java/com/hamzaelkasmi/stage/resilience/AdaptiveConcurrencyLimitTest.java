@@ -0,0 +1,98 @@
+package com.hamzaelkasmi.stage.resilience;
+
+import com.hamzaelkasmi.stage.interceptors.LoadSheddingFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void rejectsOverTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 2, 1, 10, 1.5, 0.2);
+
+        assertEquals(1, limit.tryAcquire());
+        assertEquals(2, limit.tryAcquire());
+        assertEquals(-1, limit.tryAcquire());
+        assertEquals(1, limit.getRejected());
+
+        limit.release(2, 0);
+        assertEquals(2, limit.tryAcquire());
+    }
+
+    @Test
+    void shrinksWhenLatencyRisesAndGrowsWhenItRecovers() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 50, 4, 200, 1.5, 0.2);
+        for (int i = 0; i < 200; i++) {
+            limit.release(50, 10 * MS);
+        }
+        int steady = limit.getLimit();
+        assertTrue(steady >= 50, "limit " + steady);
+
+        // Requests now take ten times longer at full concurrency
+        for (int i = 0; i < 50; i++) {
+            limit.release(limit.getLimit(), 100 * MS);
+        }
+        int congested = limit.getLimit();
+        assertTrue(congested < steady / 2, "limit " + congested + " after congestion, was " + steady);
+
+        for (int i = 0; i < 500; i++) {
+            limit.release(limit.getLimit(), 10 * MS);
+        }
+        assertTrue(limit.getLimit() > congested, "limit did not recover: " + limit.getLimit());
+    }
+
+    @Test
+    void limitDoesNotMoveWhenMostlyIdle() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 40, 4, 200, 1.5, 0.2);
+        for (int i = 0; i < 100; i++) {
+            limit.release(1, (i % 2 == 0 ? 10 : 500) * MS);
+        }
+        assertEquals(40, limit.getLimit());
+    }
+
+    @Test
+    void filterAnswers503WithRetryAfterForTheFullGroupOnly() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(true, "analytics:/api/analytics/**", "crud",
+                "/api/monitoring/**", 1, 1, 10, 1.5, 0.2);
+        LoadSheddingFilter filter = new LoadSheddingFilter(limiter);
+        AdaptiveConcurrencyLimit analytics = limiter.groupFor("/api/analytics/summary");
+        assertEquals(1, analytics.tryAcquire());
+
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/analytics/summary"), shed, (req, res) -> fail());
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+
+        MockHttpServletResponse crud = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/navires"), crud, (req, res) -> { });
+        assertEquals(200, crud.getStatus());
+        assertNull(limiter.groupFor("/api/monitoring/stream"));
+    }
+
+    @Test
+    void asyncRequestHoldsItsSlotUntilItCompletes() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(true, "analytics:/api/analytics/**", "crud",
+                "/api/monitoring/**", 1, 1, 10, 1.5, 0.2);
+        LoadSheddingFilter filter = new LoadSheddingFilter(limiter);
+        AdaptiveConcurrencyLimit analytics = limiter.groupFor("/api/analytics/all");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/analytics/all");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertEquals(1, analytics.getInFlight());
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/analytics/all"), shed, (req, res) -> fail());
+        assertEquals(503, shed.getStatus());
+
+        Thread.sleep(5);
+        request.getAsyncContext().complete();
+        assertEquals(0, analytics.getInFlight());
+        // The whole async request is the latency sample
+        assertTrue(analytics.getLongLatency() >= 5, "latency " + analytics.getLongLatency());
+    }
+}
@@ -0,0 +1,60 @@
+package com.hamzaelkasmi.stage.resilience;
+
+import com.hamzaelkasmi.stage.monitoring.SqlStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadTest {
+
+    @Test
+    void rejectsOnceRunningAndQueuedTasksAreFull() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<Boolean> running = bulkhead.submit(() -> await(release));
+            CompletableFuture<Boolean> queued = bulkhead.submit(() -> await(release));
+            CompletableFuture<Boolean> rejected = bulkhead.submit(() -> await(release));
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+            assertEquals(1, bulkhead.getRejected());
+
+            release.countDown();
+            assertTrue(running.get(1, TimeUnit.SECONDS));
+            assertTrue(queued.get(1, TimeUnit.SECONDS));
+        } finally {
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    void carriesSqlStatisticsOfTheCaller() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1);
+        SqlStatistics sql = SqlStatistics.begin();
+        try {
+            assertSame(sql, bulkhead.submit(SqlStatistics::current).get(1, TimeUnit.SECONDS));
+            // Nothing left behind on the worker thread
+            SqlStatistics.end();
+            assertNull(bulkhead.submit(SqlStatistics::current).get(1, TimeUnit.SECONDS));
+        } finally {
+            SqlStatistics.end();
+            bulkhead.shutdown();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
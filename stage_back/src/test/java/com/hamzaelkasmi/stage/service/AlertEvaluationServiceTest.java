@@ -0,0 +1,200 @@
+package com.hamzaelkasmi.stage.service;
+
+import com.hamzaelkasmi.stage.model.PerformanceAlert;
+import com.hamzaelkasmi.stage.model.PerformanceAlert.AlertLevel;
+import com.hamzaelkasmi.stage.model.SystemMetrics;
+import com.hamzaelkasmi.stage.monitoring.AlertStore;
+import com.hamzaelkasmi.stage.monitoring.ConnectionPoolMonitor;
+import com.hamzaelkasmi.stage.monitoring.EndpointMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AlertEvaluationServiceTest {
+
+    private final SystemMetrics system = new SystemMetrics();
+    private final List<EndpointMetrics> endpoints = new ArrayList<>();
+    private AlertStore alertStore;
+    private AlertEvaluationService evaluation;
+
+    @BeforeEach
+    void setUp() {
+        PerformanceMonitoringService monitoringService = mock(PerformanceMonitoringService.class);
+        when(monitoringService.isMonitoringEnabled()).thenReturn(true);
+        when(monitoringService.getSystemMetrics()).thenReturn(system);
+        when(monitoringService.getEndpointMetrics()).thenReturn(endpoints);
+        alertStore = new AlertStore(10);
+        evaluation = new AlertEvaluationService(monitoringService, alertStore, mock(ConnectionPoolMonitor.class),
+                100, 1.0, 10, 90, 90, 10, 2, 3, 50);
+    }
+
+    @Test
+    void firesOnlyAfterConsecutiveBreaches() {
+        system.setCpu(95);
+        evaluation.evaluate();
+        assertTrue(alertStore.getAlerts().isEmpty());
+
+        evaluation.evaluate();
+        List<PerformanceAlert> alerts = alertStore.getAlerts();
+        assertEquals(1, alerts.size());
+        assertEquals("cpu-saturation", alerts.get(0).getRule());
+        assertEquals(AlertLevel.WARNING, alerts.get(0).getLevel());
+    }
+
+    @Test
+    void aHealthyRunResetsTheBreachStreak() {
+        system.setCpu(95);
+        evaluation.evaluate();
+        system.setCpu(20);
+        evaluation.evaluate();
+        system.setCpu(95);
+        evaluation.evaluate();
+
+        assertTrue(alertStore.getAlerts().isEmpty());
+    }
+
+    @Test
+    void ongoingBreachUpdatesTheOpenAlertAndRecoveryLetsANewOneOpen() {
+        system.setCpu(95);
+        evaluation.evaluate();
+        evaluation.evaluate();
+        system.setCpu(99);
+        evaluation.evaluate();
+        assertEquals(1, alertStore.getAlerts().size());
+        assertTrue(alertStore.getAlerts().get(0).getMessage().contains("99.0%"));
+
+        system.setCpu(20);
+        evaluation.evaluate();
+        system.setCpu(95);
+        evaluation.evaluate();
+        // Debounced again after recovery
+        assertEquals(1, alertStore.getAlerts().size());
+        evaluation.evaluate();
+        assertEquals(2, alertStore.getAlerts().size());
+    }
+
+    @Test
+    void latencyIsJudgedOnTheLastWindowOnly() {
+        EndpointMetrics metrics = new EndpointMetrics("GET /api/slow");
+        endpoints.add(metrics);
+        evaluation.evaluate();
+
+        // Two windows of slow traffic: p99 of 300 ms is over twice the 100 ms threshold
+        recordRequests(metrics, 10, 300_000, true);
+        evaluation.evaluate();
+        recordRequests(metrics, 10, 300_000, true);
+        evaluation.evaluate();
+        PerformanceAlert alert = alertStore.getAlerts().get(0);
+        assertEquals("p99-latency", alert.getRule());
+        assertEquals(AlertLevel.ERROR, alert.getLevel());
+
+        // The cumulative p99 is still high, but the last window is fast
+        recordRequests(metrics, 30, 5_000, true);
+        evaluation.evaluate();
+        recordRequests(metrics, 10, 300_000, true);
+        evaluation.evaluate();
+        assertEquals(1, alertStore.getAlerts().size());
+    }
+
+    @Test
+    void quietWindowsLeaveStreaksAndOpenAlertsAlone() {
+        EndpointMetrics metrics = new EndpointMetrics("GET /api/failing");
+        endpoints.add(metrics);
+        evaluation.evaluate();
+
+        recordRequests(metrics, 10, 1_000, false);
+        evaluation.evaluate();
+        // Below min-samples: neither a breach nor a recovery
+        recordRequests(metrics, 3, 1_000, true);
+        evaluation.evaluate();
+        recordRequests(metrics, 10, 1_000, false);
+        evaluation.evaluate();
+
+        PerformanceAlert alert = alertStore.getAlerts().get(0);
+        assertEquals("error-burn-rate", alert.getRule());
+        assertEquals(AlertLevel.CRITICAL, alert.getLevel());
+    }
+
+    @Test
+    void alertsOfAnEndpointThatStaysQuietAreResolved() {
+        EndpointMetrics metrics = new EndpointMetrics("GET /api/failing");
+        endpoints.add(metrics);
+        evaluation.evaluate();
+        recordRequests(metrics, 10, 1_000, false);
+        evaluation.evaluate();
+        recordRequests(metrics, 10, 1_000, false);
+        evaluation.evaluate();
+        PerformanceAlert alert = alertStore.getAlerts().get(0);
+        assertEquals("error-burn-rate", alert.getRule());
+        // The burn rate rule has no latency figure to report
+        assertEquals(0, alert.getResponseTime());
+
+        // The clients gave up: three quiet runs resolve the alert
+        for (int run = 0; run < 3; run++) {
+            recordRequests(metrics, 1, 1_000, false);
+            evaluation.evaluate();
+        }
+        recordRequests(metrics, 10, 1_000, false);
+        evaluation.evaluate();
+        // A single breach is debounced again instead of updating the old alert
+        assertEquals(1, alertStore.getAlerts().size());
+        recordRequests(metrics, 10, 1_000, false);
+        evaluation.evaluate();
+        assertEquals(2, alertStore.getAlerts().size());
+    }
+
+    @Test
+    void trafficBetweenQuietRunsRestartsTheCount() {
+        EndpointMetrics metrics = new EndpointMetrics("GET /api/failing");
+        endpoints.add(metrics);
+        evaluation.evaluate();
+        recordRequests(metrics, 10, 1_000, false);
+        evaluation.evaluate();
+        recordRequests(metrics, 10, 1_000, false);
+        evaluation.evaluate();
+
+        for (int run = 0; run < 2; run++) {
+            evaluation.evaluate();
+        }
+        recordRequests(metrics, 10, 1_000, false);
+        evaluation.evaluate();
+        for (int run = 0; run < 2; run++) {
+            evaluation.evaluate();
+        }
+        recordRequests(metrics, 10, 1_000, false);
+        evaluation.evaluate();
+
+        // Never three quiet runs in a row: still the same open alert
+        assertEquals(1, alertStore.getAlerts().size());
+    }
+
+    @Test
+    void statementBudgetIsCheckedWithoutMinimumTraffic() {
+        EndpointMetrics metrics = new EndpointMetrics("GET /api/equipes");
+        endpoints.add(metrics);
+        evaluation.evaluate();
+
+        for (int run = 0; run < 2; run++) {
+            metrics.record(1_000, true);
+            metrics.recordSql(120, 120, 0, 0, 50);
+            evaluation.evaluate();
+        }
+
+        PerformanceAlert alert = alertStore.getAlerts().get(0);
+        assertEquals("sql-statement-budget", alert.getRule());
+        assertEquals("GET /api/equipes", alert.getEndpoint());
+        assertTrue(alert.getMessage().contains("worst so far: 120"), alert.getMessage());
+    }
+
+    private static void recordRequests(EndpointMetrics metrics, int count, long micros, boolean successful) {
+        for (int i = 0; i < count; i++) {
+            metrics.record(micros, successful);
+        }
+    }
+}
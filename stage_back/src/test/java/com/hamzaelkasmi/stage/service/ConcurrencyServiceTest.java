@@ -0,0 +1,116 @@
+package com.hamzaelkasmi.stage.service;
+
+import com.hamzaelkasmi.stage.model.ConcurrencyStats;
+import com.hamzaelkasmi.stage.model.WorkerPoolStats;
+import com.hamzaelkasmi.stage.monitoring.EndpointMetrics;
+import com.hamzaelkasmi.stage.monitoring.InFlightRequests;
+import com.hamzaelkasmi.stage.monitoring.WorkerPoolMonitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConcurrencyServiceTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final List<EndpointMetrics> endpoints = new ArrayList<>();
+    private InFlightRequests inFlightRequests;
+    private ConcurrencyService concurrency;
+
+    @BeforeEach
+    void setUp() {
+        PerformanceMonitoringService monitoringService = mock(PerformanceMonitoringService.class);
+        when(monitoringService.getEndpointMetrics()).thenReturn(endpoints);
+        WorkerPoolStats pool = new WorkerPoolStats();
+        pool.setMax(10);
+        WorkerPoolMonitor workerPoolMonitor = mock(WorkerPoolMonitor.class);
+        when(workerPoolMonitor.getPoolStats()).thenReturn(pool);
+        inFlightRequests = new InFlightRequests();
+        concurrency = new ConcurrencyService(monitoringService, inFlightRequests, workerPoolMonitor);
+    }
+
+    @Test
+    void firstSampleOnlySetsTheBaselines() {
+        EndpointMetrics navires = endpoint("GET /api/navires");
+        record(navires, 5, 100_000);
+
+        concurrency.sample(10 * SECOND);
+
+        ConcurrencyStats stats = concurrency.getConcurrency();
+        assertEquals(0, stats.getIntervalSeconds());
+        assertEquals(0, stats.getArrivalRate());
+        assertEquals(0, stats.getConcurrency());
+        assertTrue(stats.getEndpoints().isEmpty());
+    }
+
+    @Test
+    void appliesLittlesLawToTheCounterDeltas() {
+        EndpointMetrics navires = endpoint("GET /api/navires");
+        EndpointMetrics escales = endpoint("GET /api/escales");
+        EndpointMetrics idle = endpoint("GET /api/equipes");
+        record(navires, 3, 50_000);
+        record(escales, 1, 400_000);
+        record(idle, 2, 10_000);
+        concurrency.sample(10 * SECOND);
+
+        // 10 s later: 40 requests of 100 ms and 10 of 400 ms
+        record(navires, 40, 100_000);
+        record(escales, 10, 400_000);
+        concurrency.sample(20 * SECOND);
+
+        ConcurrencyStats stats = concurrency.getConcurrency();
+        assertEquals(10, stats.getIntervalSeconds(), 1e-9);
+        assertEquals(5.0, stats.getArrivalRate(), 1e-9);
+        assertEquals(160.0, stats.getAverageLatency(), 1e-9);
+        assertEquals(0.8, stats.getConcurrency(), 1e-9);
+        assertEquals(8.0, stats.getWorkerUtilization(), 1e-9);
+
+        // Endpoints without completions are left out, the busiest comes first
+        assertEquals(2, stats.getEndpoints().size());
+        ConcurrencyStats.EndpointConcurrency first = stats.getEndpoints().get(0);
+        assertEquals("GET /api/navires", first.getEndpoint());
+        assertEquals(4.0, first.getArrivalRate(), 1e-9);
+        assertEquals(100.0, first.getAverageLatency(), 1e-9);
+        assertEquals(0.4, first.getConcurrency(), 1e-9);
+        assertEquals(0.4, stats.getEndpoints().get(1).getConcurrency(), 1e-9);
+        assertEquals(stats.getConcurrency(),
+                stats.getEndpoints().stream().mapToDouble(ConcurrencyStats.EndpointConcurrency::getConcurrency).sum(),
+                1e-9);
+    }
+
+    @Test
+    void untimedTrafficDoesNotInflateTheArrivalRate() {
+        EndpointMetrics navires = endpoint("GET /api/navires");
+        concurrency.sample(10 * SECOND);
+
+        // Monitoring polls and preflights go through the filter but are never timed
+        for (int i = 0; i < 500; i++) {
+            inFlightRequests.requestStarted();
+            inFlightRequests.requestEnded();
+        }
+        record(navires, 20, 50_000);
+        concurrency.sample(20 * SECOND);
+
+        ConcurrencyStats stats = concurrency.getConcurrency();
+        assertEquals(2.0, stats.getArrivalRate(), 1e-9);
+        assertEquals(0.1, stats.getConcurrency(), 1e-9);
+    }
+
+    private EndpointMetrics endpoint(String name) {
+        EndpointMetrics metrics = new EndpointMetrics(name);
+        endpoints.add(metrics);
+        return metrics;
+    }
+
+    private static void record(EndpointMetrics metrics, int requests, long micros) {
+        for (int i = 0; i < requests; i++) {
+            metrics.record(micros, true);
+        }
+    }
+}
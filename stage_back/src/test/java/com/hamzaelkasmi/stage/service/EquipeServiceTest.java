@@ -0,0 +1,87 @@
+package com.hamzaelkasmi.stage.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hamzaelkasmi.stage.model.Equipe;
+import com.hamzaelkasmi.stage.model.Personnel;
+import com.hamzaelkasmi.stage.repository.EquipeRepository;
+import com.hamzaelkasmi.stage.repository.PersonnelRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.collection.spi.PersistentSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EquipeServiceTest {
+
+    private final EquipeRepository equipeRepository = mock(EquipeRepository.class);
+    private final PersonnelRepository personnelRepository = mock(PersonnelRepository.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final Query nativeQuery = mock(Query.class, RETURNS_SELF);
+    private final EquipeService service = new EquipeService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "equipeRepository", equipeRepository);
+        ReflectionTestUtils.setField(service, "personnelRepository", personnelRepository);
+        when(equipeRepository.getEntityManager()).thenReturn(entityManager);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(nativeQuery);
+        when(nativeQuery.getResultList()).thenReturn(List.of());
+        when(nativeQuery.getSingleResult()).thenReturn(7);
+        when(nativeQuery.executeUpdate()).thenReturn(1);
+        // What Hibernate's refresh leaves behind: member collections that only load with an open session
+        doAnswer(invocation -> {
+            Equipe equipe = invocation.getArgument(0);
+            equipe.setPersonnel(new PersistentSet<>());
+            equipe.setSoustraiteurs(new PersistentSet<>());
+            return null;
+        }).when(entityManager).refresh(any());
+    }
+
+    private static Equipe withMembers(String id, Personnel... members) {
+        Equipe equipe = new Equipe("Alpha");
+        equipe.setId_equipe(id);
+        equipe.setPersonnel(new HashSet<>(Set.of(members)));
+        return equipe;
+    }
+
+    @Test
+    void addedPersonnelSerializesOutsideTheSession() throws Exception {
+        Personnel member = new Personnel();
+        member.setMATRICULE_personnel("P-1");
+        Equipe stale = withMembers("EQ1");
+        when(equipeRepository.findByEquipeId("EQ1"))
+                .thenReturn(Optional.of(stale))
+                .thenReturn(Optional.of(withMembers("EQ1", member)));
+        when(personnelRepository.findByMatricule("P-1")).thenReturn(Optional.of(member));
+
+        Equipe result = service.addPersonnelToEquipe("EQ1", "P-1");
+
+        verify(entityManager).detach(stale);
+        // Controllers serialize after the transaction: no lazy loading left to do
+        String json = new ObjectMapper().writeValueAsString(result);
+        assertTrue(json.contains("P-1"), json);
+    }
+
+    @Test
+    void removedPersonnelSerializesOutsideTheSession() throws Exception {
+        Equipe stale = withMembers("EQ1");
+        when(equipeRepository.findByEquipeId("EQ1"))
+                .thenReturn(Optional.of(stale))
+                .thenReturn(Optional.of(withMembers("EQ1")));
+
+        Equipe result = service.removePersonnelFromEquipe("EQ1", "P-1");
+
+        assertNotSame(stale, result);
+        assertDoesNotThrow(() -> new ObjectMapper().writeValueAsString(result));
+    }
+}
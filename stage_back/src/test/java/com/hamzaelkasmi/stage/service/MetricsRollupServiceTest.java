@@ -0,0 +1,375 @@
+package com.hamzaelkasmi.stage.service;
+
+import com.hamzaelkasmi.stage.model.MetricsHistoryPoint;
+import com.hamzaelkasmi.stage.monitoring.LatencyHistogram;
+import com.hamzaelkasmi.stage.monitoring.MetricsJdbc;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsRollupServiceTest {
+
+    private static final Instant T0 = Instant.parse("2024-03-01T10:00:00Z");
+
+    private InMemoryMetricsJdbc jdbc;
+    private MetricsRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new InMemoryMetricsJdbc();
+        service = new MetricsRollupService(jdbc, 24, 7, 90, 2, 60, 3, 100);
+    }
+
+    @Test
+    void rowsFallIntoTheMinuteTheyStartIn() {
+        jdbc.addRaw("GET /a", T0, 10, true);
+        jdbc.addRaw("GET /a", T0.plusMillis(59_999), 30, false);
+        jdbc.addRaw("GET /a", T0.plusSeconds(60), 20, true);
+        // Still open: the current minute is left alone
+        jdbc.addRaw("GET /a", T0.plusSeconds(120), 5, true);
+
+        service.rollupMinutes(T0.plusSeconds(135));
+
+        Map<Instant, Object[]> minutes = jdbc.rows(MetricsJdbc.MINUTE_TABLE, "GET /a");
+        assertEquals(List.of(T0, T0.plusSeconds(60)), new ArrayList<>(minutes.keySet()));
+        Object[] first = minutes.get(T0);
+        assertEquals(2L, first[0]);
+        assertEquals(1L, first[1]);
+        assertEquals(40.0, first[2]);
+        assertEquals(30.0, first[3]);
+        assertEquals(1L, minutes.get(T0.plusSeconds(60))[0]);
+    }
+
+    @Test
+    void rowsFlushedLateAreCountedWithinTheLateWindow() {
+        jdbc.addRaw("GET /a", T0, 10, true);
+        service.rollupMinutes(T0.plusSeconds(75));
+        assertEquals(1L, jdbc.rows(MetricsJdbc.MINUTE_TABLE, "GET /a").get(T0)[0]);
+
+        // Written for 10:00 after that minute was rolled up
+        jdbc.addRaw("GET /a", T0.plusSeconds(30), 10, true);
+        jdbc.addRaw("GET /b", T0.plusSeconds(40), 10, true);
+        service.rollupMinutes(T0.plusSeconds(135));
+
+        assertEquals(2L, jdbc.rows(MetricsJdbc.MINUTE_TABLE, "GET /a").get(T0)[0]);
+        assertEquals(1L, jdbc.rows(MetricsJdbc.MINUTE_TABLE, "GET /b").get(T0)[0]);
+    }
+
+    @Test
+    void catchesUpOverSeveralRunsAndSkipsEmptyStretches() {
+        service = new MetricsRollupService(jdbc, 24, 7, 90, 2, 5, 3, 100);
+        for (int minute = 0; minute < 12; minute++) {
+            jdbc.addRaw("GET /a", T0.plus(Duration.ofMinutes(minute)), 10, true);
+        }
+        jdbc.addRaw("GET /a", T0.plus(Duration.ofHours(5)), 10, true);
+        Instant now = T0.plus(Duration.ofHours(5)).plusSeconds(75);
+
+        service.rollupMinutes(now);
+        assertEquals(5, jdbc.rows(MetricsJdbc.MINUTE_TABLE, "GET /a").size());
+        service.rollupMinutes(now);
+        service.rollupMinutes(now);
+        // The five silent hours cost one lookup, not three hundred buckets
+        service.rollupMinutes(now);
+
+        assertEquals(13, jdbc.rows(MetricsJdbc.MINUTE_TABLE, "GET /a").size());
+    }
+
+    @Test
+    void hourWaitsForTheMinuteRollupToSettle() {
+        for (int minute = 0; minute < 60; minute++) {
+            jdbc.addRaw("GET /a", T0.plus(Duration.ofMinutes(minute)), 10, true);
+        }
+        // The minute rollup has only reached 10:30, although the clock is past 11:00
+        service = new MetricsRollupService(jdbc, 24, 7, 90, 2, 31, 3, 100);
+        service.rollupMinutes(T0.plus(Duration.ofMinutes(65)));
+        service.rollupHours(T0.plus(Duration.ofMinutes(65)));
+        assertTrue(jdbc.rows(MetricsJdbc.HOUR_TABLE, "GET /a").isEmpty());
+
+        // Minute rollup is at 11:01, but 10:59 may still be restated
+        jdbc.addRaw("GET /a", T0.plus(Duration.ofMinutes(61)), 10, true);
+        service.rollupMinutes(T0.plus(Duration.ofMinutes(65)));
+        service.rollupHours(T0.plus(Duration.ofMinutes(65)));
+        assertTrue(jdbc.rows(MetricsJdbc.HOUR_TABLE, "GET /a").isEmpty());
+
+        jdbc.addRaw("GET /a", T0.plus(Duration.ofMinutes(64)), 10, true);
+        service.rollupMinutes(T0.plus(Duration.ofMinutes(65)));
+        service.rollupHours(T0.plus(Duration.ofMinutes(65)));
+
+        Map<Instant, Object[]> hours = jdbc.rows(MetricsJdbc.HOUR_TABLE, "GET /a");
+        assertEquals(List.of(T0), new ArrayList<>(hours.keySet()));
+        assertEquals(60L, hours.get(T0)[0]);
+    }
+
+    @Test
+    void retentionKeepsRowsTheNextTierStillNeeds() {
+        Instant now = T0.plus(Duration.ofDays(10));
+        // The minute rollup stopped two days ago
+        Instant minuteWatermark = now.minus(Duration.ofDays(2));
+        jdbc.addRaw("GET /a", T0, 10, true);
+        jdbc.addRaw("GET /a", minuteWatermark.minus(Duration.ofMinutes(5)), 10, true);
+        jdbc.addRaw("GET /a", minuteWatermark.minus(Duration.ofMinutes(1)), 10, true);
+        jdbc.addRaw("GET /a", minuteWatermark.plus(Duration.ofHours(1)), 10, true);
+        jdbc.putRollup(MetricsJdbc.MINUTE_TABLE, "GET /a", T0.minus(Duration.ofHours(1)));
+        jdbc.putRollup(MetricsJdbc.MINUTE_TABLE, "GET /a", T0);
+        jdbc.putRollup(MetricsJdbc.MINUTE_TABLE, "GET /a", minuteWatermark);
+        jdbc.putRollup(MetricsJdbc.HOUR_TABLE, "GET /a", T0.minus(Duration.ofDays(100)));
+        jdbc.putRollup(MetricsJdbc.HOUR_TABLE, "GET /a", T0);
+
+        service.applyRetention(now);
+
+        // Raw rows past the 24h retention stay until the minute tier covers them, late window included
+        assertEquals(List.of(minuteWatermark.minus(Duration.ofMinutes(1)), minuteWatermark.plus(Duration.ofHours(1))),
+                jdbc.rawTimestamps());
+        // Minute rows older than 7 days stay until the hour tier covers them
+        assertEquals(List.of(T0, minuteWatermark),
+                new ArrayList<>(jdbc.rows(MetricsJdbc.MINUTE_TABLE, "GET /a").keySet()));
+        assertEquals(List.of(T0), new ArrayList<>(jdbc.rows(MetricsJdbc.HOUR_TABLE, "GET /a").keySet()));
+    }
+
+    @Test
+    void historyStepIsWidenedToStayUnderMaxDataPoints() {
+        Instant to = T0.plus(Duration.ofHours(24));
+        for (int minute = 0; minute < 24 * 60; minute++) {
+            jdbc.putRollup(MetricsJdbc.MINUTE_TABLE, "GET /a", T0.plus(Duration.ofMinutes(minute)));
+        }
+
+        List<MetricsHistoryPoint> points = service.getHistory("GET /a", T0, to);
+
+        // 1440 minutes over 100 points: 15-minute steps aligned on the start of the range
+        assertEquals(96, points.size());
+        assertEquals(T0, points.get(0).getTimestamp());
+        assertEquals(T0.plus(Duration.ofMinutes(15)), points.get(1).getTimestamp());
+        assertEquals(15, points.get(0).getCount());
+    }
+
+    @Test
+    void longRangesAreReadFromTheHourTable() {
+        Instant from = T0.plusSeconds(1800);
+        for (int hour = 0; hour < 24 * 7; hour++) {
+            jdbc.putRollup(MetricsJdbc.HOUR_TABLE, "GET /a", T0.plus(Duration.ofHours(hour)));
+        }
+
+        List<MetricsHistoryPoint> points = service.getHistory(null, from, from.plus(Duration.ofDays(7)));
+
+        // 168 hours over 100 points: 2-hour steps aligned on the start of the range, not on the hour
+        assertEquals(84, points.size());
+        assertEquals(from, points.get(0).getTimestamp());
+        assertEquals(from.plus(Duration.ofHours(2)), points.get(1).getTimestamp());
+        assertEquals(2, points.get(0).getCount());
+        assertEquals(1, points.get(83).getCount());
+    }
+
+    /**
+     * Just enough of the metrics tables, keyed on the SQL MetricsRollupService issues
+     */
+    private static final class InMemoryMetricsJdbc extends JdbcTemplate {
+        private static final Pattern EXTREMUM = Pattern.compile("SELECT (MIN|MAX)\\((\\w+)\\) FROM (\\w+)( WHERE .*)?");
+        private static final Pattern RAW_SELECT = Pattern.compile("SELECT endpoint, response_time, successful FROM .*");
+        private static final Pattern ROLLUP_SELECT = Pattern.compile("SELECT endpoint, bucket_start, .* FROM (\\w+) WHERE .*");
+        private static final Pattern DELETE = Pattern.compile("DELETE FROM (\\w+) WHERE (\\w+) < \\? LIMIT (\\d+)");
+        private static final Pattern INSERT = Pattern.compile("INSERT INTO (\\w+) .*");
+
+        private record RawRow(String endpoint, Instant timestamp, double responseTime, boolean successful) {
+        }
+
+        private final List<RawRow> raw = new ArrayList<>();
+        private final Map<String, TreeMap<Instant, Map<String, Object[]>>> rollups = new HashMap<>();
+
+        void addRaw(String endpoint, Instant timestamp, double responseTime, boolean successful) {
+            raw.add(new RawRow(endpoint, timestamp, responseTime, successful));
+        }
+
+        void putRollup(String table, String endpoint, Instant bucketStart) {
+            long[] histogram = new long[LatencyHistogram.BUCKET_COUNT];
+            histogram[LatencyHistogram.bucketIndex(10_000)] = 1;
+            table(table).computeIfAbsent(bucketStart, b -> new HashMap<>())
+                    .put(endpoint, new Object[]{1L, 0L, 10.0, 10.0, LatencyHistogram.encode(histogram)});
+        }
+
+        Map<Instant, Object[]> rows(String table, String endpoint) {
+            Map<Instant, Object[]> rows = new TreeMap<>();
+            table(table).forEach((bucket, byEndpoint) -> {
+                if (byEndpoint.containsKey(endpoint)) {
+                    rows.put(bucket, byEndpoint.get(endpoint));
+                }
+            });
+            return rows;
+        }
+
+        List<Instant> rawTimestamps() {
+            return raw.stream().map(RawRow::timestamp).sorted().toList();
+        }
+
+        private TreeMap<Instant, Map<String, Object[]>> table(String table) {
+            return rollups.computeIfAbsent(table, t -> new TreeMap<>());
+        }
+
+        private List<Instant> instants(String table) {
+            if (table.equals(MetricsJdbc.RAW_TABLE)) {
+                return raw.stream().map(RawRow::timestamp).toList();
+            }
+            return new ArrayList<>(table(table).keySet());
+        }
+
+        @Override
+        public <T> T query(String sql, ResultSetExtractor<T> rse) {
+            return query(sql, (PreparedStatementSetter) null, rse);
+        }
+
+        @Override
+        public <T> T query(String sql, PreparedStatementSetter pss, ResultSetExtractor<T> rse) {
+            Object[] params = bind(pss);
+            Matcher m = EXTREMUM.matcher(sql);
+            assertTrue(m.matches(), sql);
+            Comparator<Instant> order = Comparator.naturalOrder();
+            Instant value = instants(m.group(3)).stream()
+                    .filter(instant -> params[1] == null || !instant.isBefore((Instant) params[1]))
+                    .min(m.group(1).equals("MIN") ? order : order.reversed())
+                    .orElse(null);
+            try {
+                List<Object[]> rows = new ArrayList<>();
+                rows.add(new Object[]{value});
+                return rse.extractData(resultSet(rows));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void query(String sql, PreparedStatementSetter pss, RowCallbackHandler rch) {
+            Object[] params = bind(pss);
+            Instant from = (Instant) params[1];
+            Instant to = (Instant) params[2];
+            List<Object[]> rows = new ArrayList<>();
+            if (RAW_SELECT.matcher(sql).matches()) {
+                for (RawRow row : raw) {
+                    if (!row.timestamp().isBefore(from) && row.timestamp().isBefore(to)) {
+                        rows.add(new Object[]{row.endpoint(), row.responseTime(), row.successful()});
+                    }
+                }
+            } else {
+                Matcher m = ROLLUP_SELECT.matcher(sql);
+                assertTrue(m.matches(), sql);
+                table(m.group(1)).subMap(from, to).forEach((bucket, byEndpoint) -> byEndpoint.forEach((endpoint, row) -> {
+                    if (params[3] == null || params[3].equals(endpoint)) {
+                        rows.add(new Object[]{endpoint, bucket, row[0], row[1], row[2], row[3], row[4]});
+                    }
+                }));
+            }
+            try {
+                ResultSet rs = resultSet(rows);
+                while (rs.next()) {
+                    rch.processRow(rs);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            Matcher m = INSERT.matcher(sql);
+            assertTrue(m.matches(), sql);
+            for (T arg : batchArgs) {
+                Object[] params = bind(ps -> pss.setValues(ps, arg));
+                table(m.group(1)).computeIfAbsent((Instant) params[2], b -> new HashMap<>())
+                        .put((String) params[1], new Object[]{params[3], params[4], params[5], params[6], params[7]});
+            }
+            return new int[][]{new int[batchArgs.size()]};
+        }
+
+        @Override
+        public int update(String sql, PreparedStatementSetter pss) {
+            Instant cutoff = (Instant) bind(pss)[1];
+            Matcher m = DELETE.matcher(sql);
+            assertTrue(m.matches(), sql);
+            int limit = Integer.parseInt(m.group(3));
+            int deleted = 0;
+            if (m.group(1).equals(MetricsJdbc.RAW_TABLE)) {
+                Iterator<RawRow> it = raw.iterator();
+                while (it.hasNext() && deleted < limit) {
+                    if (it.next().timestamp().isBefore(cutoff)) {
+                        it.remove();
+                        deleted++;
+                    }
+                }
+            } else {
+                Iterator<Instant> it = table(m.group(1)).headMap(cutoff).keySet().iterator();
+                while (it.hasNext() && deleted < limit) {
+                    it.next();
+                    it.remove();
+                    deleted++;
+                }
+            }
+            return deleted;
+        }
+
+        /**
+         * Parameters set by the statement setter, 1-based; timestamps come back as Instants
+         */
+        private static Object[] bind(PreparedStatementSetter pss) {
+            Object[] params = new Object[10];
+            if (pss == null) {
+                return params;
+            }
+            PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        Object value = args[1];
+                        params[(Integer) args[0]] = value instanceof Timestamp ts ? ts.toInstant() : value;
+                        return null;
+                    });
+            try {
+                pss.setValues(ps);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return params;
+        }
+
+        private static ResultSet resultSet(List<Object[]> rows) {
+            int[] cursor = {-1};
+            return (ResultSet) Proxy.newProxyInstance(
+                    ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("next")) {
+                            return ++cursor[0] < rows.size();
+                        }
+                        Object value = rows.get(cursor[0])[(Integer) args[0] - 1];
+                        return switch (method.getName()) {
+                            case "getTimestamp" -> value != null ? Timestamp.from((Instant) value) : null;
+                            case "getLong" -> ((Number) value).longValue();
+                            case "getDouble" -> ((Number) value).doubleValue();
+                            case "getBoolean" -> value;
+                            default -> Objects.toString(value, null);
+                        };
+                    });
+        }
+    }
+}
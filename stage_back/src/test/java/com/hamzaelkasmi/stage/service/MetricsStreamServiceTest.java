@@ -0,0 +1,112 @@
+package com.hamzaelkasmi.stage.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hamzaelkasmi.stage.model.SystemMetrics;
+import com.hamzaelkasmi.stage.monitoring.EndpointMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricsStreamServiceTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final List<EndpointMetrics> endpoints = new ArrayList<>();
+    private final SystemMetrics system = new SystemMetrics();
+    private MetricsStreamService stream;
+
+    @BeforeEach
+    void setUp() {
+        PerformanceMonitoringService monitoringService = mock(PerformanceMonitoringService.class);
+        when(monitoringService.getEndpointMetrics()).thenReturn(endpoints);
+        when(monitoringService.getSystemMetrics()).thenReturn(system);
+        stream = new MetricsStreamService(monitoringService, new ObjectMapper(), 60_000, 3_000);
+    }
+
+    @Test
+    void firstSightingOnlySetsTheBaseline() {
+        EndpointMetrics navires = endpoint("GET /api/navires");
+        recordRequests(navires, 5, 20_000, true);
+
+        assertTrue(endpointsOf(stream.buildSnapshot(10 * SECOND)).isEmpty());
+    }
+
+    @Test
+    void sendsDeltasOfEndpointsWithTrafficOnly() {
+        EndpointMetrics navires = endpoint("GET /api/navires");
+        EndpointMetrics idle = endpoint("GET /api/equipes");
+        recordRequests(navires, 100, 1_000, true);
+        recordRequests(idle, 3, 1_000, true);
+        stream.buildSnapshot(10 * SECOND);
+
+        recordRequests(navires, 4, 20_000, true);
+        recordRequests(navires, 2, 50_000, false);
+        List<Map<String, Object>> deltas = endpointsOf(stream.buildSnapshot(12 * SECOND));
+
+        assertEquals(1, deltas.size());
+        Map<String, Object> entry = deltas.get(0);
+        assertEquals("GET /api/navires", entry.get("endpoint"));
+        assertEquals(6L, entry.get("requests"));
+        assertEquals(2L, entry.get("errors"));
+        assertEquals(30.0, (double) entry.get("average"), 1e-9);
+        assertEquals(3.0, (double) entry.get("throughput"), 1e-9);
+        // p99 of this window only, not of the 100 fast requests before it
+        assertTrue((double) entry.get("p99") >= 45, entry.toString());
+
+        // Nothing new since the last push
+        assertTrue(endpointsOf(stream.buildSnapshot(14 * SECOND)).isEmpty());
+    }
+
+    @Test
+    void baselinesAreDroppedWhileNobodyIsSubscribed() {
+        EndpointMetrics navires = endpoint("GET /api/navires");
+        stream.buildSnapshot(10 * SECOND);
+        recordRequests(navires, 5, 1_000, true);
+
+        // No subscriber: the push is skipped and the baselines forgotten
+        stream.publish();
+
+        // The next subscriber starts from a fresh baseline instead of the traffic of the idle period
+        assertTrue(endpointsOf(stream.buildSnapshot(20 * SECOND)).isEmpty());
+        recordRequests(navires, 1, 1_000, true);
+        List<Map<String, Object>> deltas = endpointsOf(stream.buildSnapshot(22 * SECOND));
+        assertEquals(1L, deltas.get(0).get("requests"));
+    }
+
+    @Test
+    void systemFiguresAreLimitedToThePlottedGauges() {
+        system.setCpu(42.5);
+        system.setMemory(61);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> sent = (Map<String, Object>) stream.buildSnapshot(SECOND).get("system");
+
+        assertEquals(List.of("cpu", "memory", "diskSpace", "activeConnections", "uptime"),
+                new ArrayList<>(sent.keySet()));
+        assertEquals(42.5, sent.get("cpu"));
+    }
+
+    private EndpointMetrics endpoint(String name) {
+        EndpointMetrics metrics = new EndpointMetrics(name);
+        endpoints.add(metrics);
+        return metrics;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> endpointsOf(Map<String, Object> snapshot) {
+        return (List<Map<String, Object>>) snapshot.get("endpoints");
+    }
+
+    private static void recordRequests(EndpointMetrics metrics, int count, long micros, boolean successful) {
+        for (int i = 0; i < count; i++) {
+            metrics.record(micros, successful);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.hamzaelkasmi.stage.service.impl;
+
+import com.hamzaelkasmi.stage.cache.AnalyticsDataListener;
+import com.hamzaelkasmi.stage.dto.analytics.AnalyticsDTO;
+import com.hamzaelkasmi.stage.dto.analytics.OperationDurationsDTO;
+import com.hamzaelkasmi.stage.dto.analytics.RecentEscaleDTO;
+import com.hamzaelkasmi.stage.dto.analytics.TopEquipeDTO;
+import com.hamzaelkasmi.stage.model.Escale;
+import com.hamzaelkasmi.stage.repository.*;
+import com.hamzaelkasmi.stage.resilience.Bulkhead;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AnalyticsServiceImplTest {
+
+    private final OperationRepository operationRepository = mock(OperationRepository.class);
+    private final EscaleRepository escaleRepository = mock(EscaleRepository.class);
+    private final EquipeRepository equipeRepository = mock(EquipeRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final Bulkhead bulkhead = new Bulkhead("analytics", 9, 9);
+
+    private AnalyticsServiceImpl service(long sectionTimeoutMs) {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(operationRepository.summarizeDurationsByStatus("TERMINEE")).thenReturn(List.of(durationSummary(0, 0)));
+        return new AnalyticsServiceImpl(operationRepository, escaleRepository, equipeRepository,
+                mock(PersonnelRepository.class), mock(ArretRepository.class), mock(ConteneureRepository.class),
+                bulkhead, transactionManager, 15, sectionTimeoutMs, true, 300, 5);
+    }
+
+    private static Map<String, Object> durationSummary(long count, long totalMinutes, long... ranges) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("count", count);
+        row.put("totalMinutes", totalMinutes);
+        String[] names = {"upTo1h", "upTo2h", "upTo4h", "upTo8h", "over8h"};
+        for (int i = 0; i < names.length; i++) {
+            row.put(names[i], i < ranges.length ? ranges[i] : 0L);
+        }
+        return row;
+    }
+
+    @AfterEach
+    void shutdown() {
+        bulkhead.shutdown();
+    }
+
+    @Test
+    void returnsPartialResultWhenSectionsFailOrTimeOut() throws Exception {
+        when(operationRepository.countOperationsByType()).thenThrow(new IllegalStateException("boom"));
+        when(escaleRepository.countByStatus("EN_COURS")).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return 0L;
+        });
+
+        AnalyticsDTO analytics = service(200).getAllAnalytics().get(1, TimeUnit.SECONDS);
+
+        assertEquals(List.of("operationsByType", "summary"), analytics.missingSections());
+        assertEquals(0, analytics.summary().totalOperations());
+        assertEquals(0, analytics.operationsByType().length);
+        assertNotNull(analytics.operationsByMonth());
+        assertNotNull(analytics.recentEscales());
+    }
+
+    @Test
+    void runsSectionsConcurrently() throws Exception {
+        // Each of the two sections waits for the other: run one after the other, both would time out
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        when(operationRepository.countOperationsByType()).thenAnswer(invocation -> {
+            bothRunning.countDown();
+            assertTrue(bothRunning.await(2, TimeUnit.SECONDS));
+            return List.of();
+        });
+        when(operationRepository.countOperationsByMonthForYear(anyInt())).thenAnswer(invocation -> {
+            bothRunning.countDown();
+            assertTrue(bothRunning.await(2, TimeUnit.SECONDS));
+            return List.of();
+        });
+
+        AnalyticsDTO analytics = service(5000).getAllAnalytics().get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(), analytics.missingSections());
+        verify(transactionManager, times(9)).getTransaction(any());
+    }
+
+    @Test
+    void servesUnchangedSectionsFromTheCache() throws Exception {
+        AnalyticsServiceImpl service = service(5000);
+        service.getAllAnalytics().get(5, TimeUnit.SECONDS);
+        service.getAllAnalytics().get(5, TimeUnit.SECONDS);
+        verify(operationRepository, times(1)).countOperationsByType();
+
+        // A write makes the cached sections stale: served once more, refreshed behind
+        AnalyticsDataListener.dataChanged();
+        assertNotNull(service.getAllAnalytics().get(5, TimeUnit.SECONDS).operationsByType());
+        verify(operationRepository, timeout(2000).times(2)).countOperationsByType();
+    }
+
+    @Test
+    void computesDurationStatisticsWithoutLoadingOperations() {
+        AnalyticsServiceImpl service = service(5000);
+        when(operationRepository.summarizeDurationsByStatus("TERMINEE"))
+                .thenReturn(List.of(durationSummary(5, 5 + 10 + 20 + 30 + 600, 4, 0, 0, 0, 1)));
+        when(operationRepository.streamDurationMinutesByStatus("TERMINEE"))
+                .thenReturn(Stream.of(20L, 5L, 600L, 10L, 30L));
+
+        OperationDurationsDTO durations = service.getOperationDurations();
+
+        assertEquals(133, durations.averageDuration());
+        assertEquals(20, durations.medianDuration());
+        // 600 min falls in the 576-607 bucket
+        assertEquals(591, durations.p90Duration());
+        assertEquals(4, durations.durations()[0].count());
+        assertEquals(">8h", durations.durations()[4].range());
+        assertEquals(1, durations.durations()[4].count());
+    }
+
+    @Test
+    void ranksTopEquipesInOneStatement() {
+        AnalyticsServiceImpl service = service(5000);
+        Map<String, Object> alpha = new HashMap<>(Map.of("equipeId", "EQ1", "equipeName", "Alpha",
+                "operationCount", 8L, "completedCount", 6L));
+        Map<String, Object> orphan = new HashMap<>(Map.of("equipeId", "EQ9", "operationCount", 3L, "completedCount", 1L));
+        when(operationRepository.findTopEquipesByOperations(
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0), 10))
+                .thenReturn(List.of(alpha, orphan));
+
+        TopEquipeDTO[] top = service.getTopEquipes(10, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+
+        assertEquals(2, top.length);
+        assertEquals(new TopEquipeDTO("Alpha", 8, 75), top[0]);
+        assertEquals(new TopEquipeDTO("Unknown", 3, 33), top[1]);
+        // A single SQL statement: no per-equipe count, no equipe load
+        verify(operationRepository).findTopEquipesByOperations(any(), any(), anyInt());
+        verifyNoMoreInteractions(operationRepository);
+        verifyNoInteractions(equipeRepository);
+    }
+
+    @Test
+    void defaultsToTopFiveOverAllTime() {
+        AnalyticsServiceImpl service = service(5000);
+        when(operationRepository.findTopEquipesByOperations(null, null, 5)).thenReturn(List.of());
+
+        assertEquals(0, service.getTopEquipes().length);
+        verify(operationRepository).findTopEquipesByOperations(null, null, 5);
+    }
+
+    @Test
+    void countsOperationsOfAPageOfEscalesInOneQuery() {
+        AnalyticsServiceImpl service = service(5000);
+        List<Escale> escales = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            LocalDateTime arrival = LocalDateTime.now().minusDays(i + 1);
+            Escale escale = new Escale("Navire " + i, "M" + i, arrival, arrival.plusDays(i % 2 == 0 ? 10 : 0));
+            escale.setNum_escale("ESC" + i);
+            escales.add(escale);
+        }
+        when(escaleRepository.findRecentEscales(PageRequest.of(1, 50))).thenReturn(escales);
+        when(operationRepository.countOperationsByEscaleIds(anyCollection())).thenReturn(List.of(
+                new HashMap<>(Map.of("escaleId", "ESC0", "operationCount", 4L, "completedCount", 3L))));
+
+        RecentEscaleDTO[] recent = service.getRecentEscales(1, 50);
+
+        assertEquals(50, recent.length);
+        assertEquals(new RecentEscaleDTO("ESC0", "Navire 0", "EN_COURS", escales.get(0).getDATE_accostage(),
+                escales.get(0).getDATE_sortie(), 4, 3), recent[0]);
+        // Left port, and no operations
+        assertEquals("TERMINEE", recent[1].status());
+        assertEquals(0, recent[1].operations());
+        verify(escaleRepository).findRecentEscales(any());
+        verify(operationRepository).countOperationsByEscaleIds(argThat(ids -> ids.size() == 50));
+        verifyNoMoreInteractions(escaleRepository, operationRepository);
+    }
+}